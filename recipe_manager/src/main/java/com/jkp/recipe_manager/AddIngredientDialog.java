@@ -10,6 +10,7 @@
  * <p>Features:</p>
  * - Input fields for ingredient name, quantity, unit, preparation, and calories per cup.
  * - Automatically calculates the total calories for the ingredient based on calories per cup.
+ * - Fills in the calories per unit for known ingredients from the {@link NutrientDatabase}.
  * - Validation for numeric input values to ensure correct data entry.
  * - Notifies the listener when a new ingredient is successfully added.
  * 
@@ -28,6 +29,7 @@
  * 
  * <p>Dependencies:</p>
  * - Ingredient.java
+ * - NutrientDatabase.java
  * 
  * @author  Jon-Kayla Pointer
  * @version 1.0.0
@@ -53,6 +55,7 @@ import javax.swing.JTextField;
 
 public class AddIngredientDialog extends JDialog {
     private static final DecimalFormat decimalFormat = new DecimalFormat("#.##");
+    private static final String AUTO_FILLED = "autoFilledCalories"; // Client property holding the value last filled in
     private JTextField nameField;
     private JTextField quantityField;
     private JComboBox<String> unitComboBox;
@@ -160,6 +163,24 @@ public class AddIngredientDialog extends JDialog {
             }
         });
 
+        // Fill in calories per unit for known ingredients
+        NutrientDatabase.shared(); // Starts loading in the background if it has not already
+        nameField.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyReleased(KeyEvent e) {
+                if (autoFillCaloriesPerUnit(nameField, unitComboBox, caloriesPerUnitField)) {
+                    updateTotalCaloriesField(caloriesPerUnitField, quantityField, totalCaloriesField, (String) unitComboBox.getSelectedItem());
+                    updateCaloriesPerCupField(caloriesPerUnitField, quantityField, caloriesPerCupField, (String) unitComboBox.getSelectedItem());
+                }
+            }
+        });
+        unitComboBox.addActionListener(e -> {
+            autoFillCaloriesPerUnit(nameField, unitComboBox, caloriesPerUnitField);
+            updateTotalCaloriesField(caloriesPerUnitField, quantityField, totalCaloriesField, (String) unitComboBox.getSelectedItem());
+            updateQuantityToCupField(quantityField, quantityToCupField, (String) unitComboBox.getSelectedItem());
+            updateCaloriesPerCupField(caloriesPerUnitField, quantityField, caloriesPerCupField, (String) unitComboBox.getSelectedItem());
+        });
+
 
         // Add Button
         addButton = new JButton("Add");
@@ -235,7 +256,37 @@ public class AddIngredientDialog extends JDialog {
        }
    }
 
-  
+
+    /**
+     * Fills in the calories per unit from the {@link NutrientDatabase} when the ingredient name is
+     * known. A value the user typed is never overwritten; a value filled in earlier is replaced or
+     * cleared as the name or unit changes.
+     *
+     * @param nameField The input field for the ingredient name.
+     * @param unitComboBox The unit selection.
+     * @param caloriesPerUnitField The input field for calories per unit.
+     * <p>Shared by this dialog and {@link AddIngredients}. It lives with the dialogs rather than in
+     * {@link NutrientDatabase}, which the headless command line also uses, so that class never
+     * refers to Swing types.</p>
+     *
+     * @return true if the calories per unit field was changed.
+     */
+    static boolean autoFillCaloriesPerUnit(JTextField nameField, JComboBox<String> unitComboBox, JTextField caloriesPerUnitField) {
+        String current = caloriesPerUnitField.getText();
+        Object autoFilled = caloriesPerUnitField.getClientProperty(AUTO_FILLED);
+        if (!current.isBlank() && !current.equals(autoFilled)) {
+            return false; // Typed by the user
+        }
+        String suggestion = NutrientDatabase.suggestCaloriesPerUnit(nameField.getText(), (String) unitComboBox.getSelectedItem());
+        String next = suggestion != null ? suggestion : "";
+        caloriesPerUnitField.putClientProperty(AUTO_FILLED, suggestion);
+        if (next.equals(current)) {
+            return false;
+        }
+        caloriesPerUnitField.setText(next);
+        return true;
+    }
+
     public interface IngredientUpdateListener {
         void onIngredientUpdated(Ingredient updatedIngredient);
     }
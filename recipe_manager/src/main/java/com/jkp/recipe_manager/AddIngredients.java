@@ -9,6 +9,7 @@
  * <ul>
  *     <li>Dynamic GUI for adding multiple ingredients</li>
  *     <li>Automatic calculation of total calories based on quantity and calories per unit</li>
+ *     <li>Calories per unit filled in for known ingredients from the {@link NutrientDatabase}</li>
  *     <li>Validation for numerical inputs</li>
  *     <li>Integration with AddInstructions to proceed with adding recipe instructions</li>
  * </ul>
@@ -27,6 +28,7 @@
  * <ul>
  *     <li>Dynamic GUI for adding multiple ingredients</li>
  *     <li>Automatic calculation of total calories based on quantity and calories per unit</li>
+ *     <li>Calories per unit filled in for known ingredients from the {@link NutrientDatabase}</li>
  *     <li>Validation for numerical inputs</li>
  *     <li>Integration with AddInstructions to proceed with adding recipe instructions</li>
  * </ul>
@@ -137,6 +139,24 @@
                  updateCaloriesPerCupField(caloriesPerUnitField, quantityField, caloriesPerCupField, (String) unitComboBox.getSelectedItem());
              }
          });
+
+         // Fill in calories per unit for known ingredients
+         NutrientDatabase.shared(); // Starts loading in the background if it has not already
+         nameField.addKeyListener(new KeyAdapter() {
+             @Override
+             public void keyReleased(KeyEvent e) {
+                 if (AddIngredientDialog.autoFillCaloriesPerUnit(nameField, unitComboBox, caloriesPerUnitField)) {
+                     updateTotalCaloriesField(caloriesPerUnitField, quantityField, totalCaloriesField, (String) unitComboBox.getSelectedItem());
+                     updateCaloriesPerCupField(caloriesPerUnitField, quantityField, caloriesPerCupField, (String) unitComboBox.getSelectedItem());
+                 }
+             }
+         });
+         unitComboBox.addActionListener(e -> {
+             AddIngredientDialog.autoFillCaloriesPerUnit(nameField, unitComboBox, caloriesPerUnitField);
+             updateTotalCaloriesField(caloriesPerUnitField, quantityField, totalCaloriesField, (String) unitComboBox.getSelectedItem());
+             updateQuantityToCupField(quantityField, quantityToCupField, (String) unitComboBox.getSelectedItem());
+             updateCaloriesPerCupField(caloriesPerUnitField, quantityField, caloriesPerCupField, (String) unitComboBox.getSelectedItem());
+         });
  
          // Table to display ingredients
          String[] columnNames = {"Name", "Quantity", "Unit", "Preparation", "Equivalent Cup", "Calories/Unit", "Calories/Cup", "Total Calories"};
@@ -312,4 +332,3 @@
         }
     }
  }
- 
\ No newline at end of file
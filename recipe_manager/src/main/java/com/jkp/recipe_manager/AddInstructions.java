@@ -3,7 +3,7 @@
  * 
  * The AddInstructions class provides a graphical user interface (GUI) for adding step-by-step instructions 
  * to a recipe. It allows users to input preparation details and cooking steps, then saves the recipe 
- * to storage using the RecipeStorage utility.
+ * to storage in the background using the RecipeIOService, so the window stays responsive.
  * 
  * <p>Features:</p>
  * <ul>
@@ -22,7 +22,6 @@
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Frame;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -33,6 +32,7 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
+import javax.swing.SwingUtilities;
 import javax.swing.table.DefaultTableModel;
 
 /**
@@ -144,23 +144,27 @@ public class AddInstructions {
 
         // Save Recipe Functionality
         saveRecipeButton.addActionListener(e -> {
-            try {
-                List<String> instructions = new ArrayList<>();
-                for (int i = 0; i < tableModel.getRowCount(); i++) {
-                    String stepDetail = tableModel.getValueAt(i, 1).toString().trim();
-                    if (!stepDetail.isEmpty()) {
-                        instructions.add(stepDetail);
-                    }
+            List<String> instructions = new ArrayList<>();
+            for (int i = 0; i < tableModel.getRowCount(); i++) {
+                String stepDetail = tableModel.getValueAt(i, 1).toString().trim();
+                if (!stepDetail.isEmpty()) {
+                    instructions.add(stepDetail);
                 }
-
-                // Save recipe to storage
-                Recipe newRecipe = new Recipe(recipeName, ingredients, instructions, servings, prepTime, cookTime);
-                RecipeStorage.saveRecipe(newRecipe, RecipePaths);
-                JOptionPane.showMessageDialog(instructionsDialog, "Recipe saved successfully!");
-                instructionsDialog.dispose();
-            } catch (IOException ex) {
-                JOptionPane.showMessageDialog(instructionsDialog, "Error saving recipe: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
             }
+
+            // Save recipe to storage off the Event Dispatch Thread
+            Recipe newRecipe = new Recipe(recipeName, ingredients, instructions, servings, prepTime, cookTime);
+            saveRecipeButton.setEnabled(false);
+            RecipeIOService.forDirectory(RecipePaths).save(newRecipe).whenComplete((ignored, error) ->
+                    SwingUtilities.invokeLater(() -> {
+                        if (error != null) {
+                            saveRecipeButton.setEnabled(true);
+                            JOptionPane.showMessageDialog(instructionsDialog, "Error saving recipe: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                            return;
+                        }
+                        JOptionPane.showMessageDialog(instructionsDialog, "Recipe saved successfully!");
+                        instructionsDialog.dispose();
+                    }));
         });
 
         // Show dialog
@@ -0,0 +1,190 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The ConcurrentRecipeCollection class is a thread-safe {@link RecipeCollection} for use when
+ * background loaders, imports, or servers modify the collection while other threads read it.
+ * It uses copy-on-write snapshots: every change builds a new immutable list and publishes it with
+ * a single volatile write, so readers never take a lock and always see a complete, consistent list.
+ *
+ * <p>Features:</p>
+ * <ul>
+ *     <li>Lock-free reads through {@link #snapshot()}, which returns the current immutable list</li>
+ *     <li>Writers are serialized with each other but never block readers</li>
+ *     <li>Bulk changes with {@link #addAll(Collection)} publish many recipes with a single copy</li>
+ *     <li>{@link #getRecipes()} returns a private copy, so callers cannot corrupt the collection</li>
+ *     <li>{@link #getTotalCalories()} is safe to read from any thread while recipes are edited</li>
+ * </ul>
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * ConcurrentRecipeCollection collection = new ConcurrentRecipeCollection();
+ * collection.addAll(importedRecipes);            // From an import thread
+ * for (Recipe recipe : collection.snapshot()) {  // From any other thread
+ *     ...
+ * }
+ * }</pre>
+ *
+ * <p>Notes:</p>
+ * - Each write copies the list, which suits a library that is read far more often than it changes.
+ * - Only the list is protected; the {@link Recipe} objects themselves are still mutable.
+ *
+ * @author Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+public class ConcurrentRecipeCollection extends RecipeCollection {
+    /**
+     * The current immutable snapshot; replaced as a whole on every write.
+     */
+    private volatile List<Recipe> snapshot = Collections.emptyList();
+
+    /**
+     * Guards writers so that concurrent changes are not lost.
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * Constructs a new, empty ConcurrentRecipeCollection.
+     */
+    public ConcurrentRecipeCollection() {
+        super(null); // Recipes live in the snapshot
+    }
+
+    /**
+     * Constructs a ConcurrentRecipeCollection holding the given recipes.
+     *
+     * @param recipes The recipes to start with.
+     */
+    public ConcurrentRecipeCollection(Collection<? extends Recipe> recipes) {
+        super(null); // Recipes live in the snapshot
+        this.snapshot = Collections.unmodifiableList(new ArrayList<>(recipes));
+        trackAll(this.snapshot);
+    }
+
+    /**
+     * Returns the current contents as an immutable list. This never blocks and never copies;
+     * the returned list does not change when the collection is modified later.
+     *
+     * @return The current snapshot of recipes.
+     */
+    public List<Recipe> snapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public void addRecipe(Recipe recipe) {
+        synchronized (writeLock) {
+            ArrayList<Recipe> next = new ArrayList<>(snapshot.size() + 1);
+            next.addAll(snapshot);
+            next.add(recipe);
+            snapshot = Collections.unmodifiableList(next);
+            track(recipe);
+        }
+    }
+
+    /**
+     * Adds several recipes at once, publishing them together with a single copy.
+     *
+     * @param recipes The recipes to add.
+     */
+    public void addAll(Collection<? extends Recipe> recipes) {
+        if (recipes.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            ArrayList<Recipe> next = new ArrayList<>(snapshot.size() + recipes.size());
+            next.addAll(snapshot);
+            next.addAll(recipes);
+            snapshot = Collections.unmodifiableList(next);
+            trackAll(recipes);
+        }
+    }
+
+    @Override
+    public boolean removeRecipe(Recipe recipe) {
+        synchronized (writeLock) {
+            int index = snapshot.indexOf(recipe);
+            if (index < 0) {
+                return false;
+            }
+            ArrayList<Recipe> next = new ArrayList<>(snapshot);
+            next.remove(index);
+            snapshot = Collections.unmodifiableList(next);
+            untrack(recipe);
+            return true;
+        }
+    }
+
+    /**
+     * Replaces a recipe with another in the same position, for example after an edit.
+     *
+     * @param existing The recipe currently in the collection.
+     * @param replacement The recipe to put in its place.
+     * @return true if {@code existing} was found and replaced.
+     */
+    public boolean replaceRecipe(Recipe existing, Recipe replacement) {
+        synchronized (writeLock) {
+            int index = snapshot.indexOf(existing);
+            if (index < 0) {
+                return false;
+            }
+            ArrayList<Recipe> next = new ArrayList<>(snapshot);
+            Recipe replaced = next.set(index, replacement);
+            snapshot = Collections.unmodifiableList(next);
+            untrack(replaced);
+            track(replacement);
+            return true;
+        }
+    }
+
+    /**
+     * Returns a copy of the current recipes. Changes to the returned list do not affect the
+     * collection; use {@link #snapshot()} to read without copying.
+     *
+     * @return A new ArrayList holding the current recipes.
+     */
+    @Override
+    public ArrayList<Recipe> getRecipes() {
+        return new ArrayList<>(snapshot);
+    }
+
+    /**
+     * Replaces the contents of the collection. The given list is copied, so later changes to it
+     * do not affect the collection.
+     *
+     * @param recipes The recipes to set.
+     */
+    @Override
+    public void setRecipes(ArrayList<Recipe> recipes) {
+        List<Recipe> next = Collections.unmodifiableList(new ArrayList<>(recipes));
+        synchronized (writeLock) {
+            untrackAll(snapshot);
+            snapshot = next;
+            trackAll(next);
+        }
+    }
+
+    @Override
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * Searches the current snapshot without copying it.
+     *
+     * @param query The words to search for, separated by whitespace.
+     * @return The matching recipes.
+     */
+    @Override
+    public List<Recipe> search(String query) {
+        return search(snapshot, query);
+    }
+}
@@ -0,0 +1,583 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The ContentAddressedRecipeStore class is an alternative storage mode for large libraries in which
+ * many recipes are variations of each other. Ingredient lists and instruction lists are stored once
+ * as immutable objects named by the SHA-256 hash of their content, and each recipe is a small ref
+ * file that holds its header and the hashes of the two lists it uses. Recipes that share a list
+ * share one file on disk and one unmodifiable list in memory.
+ *
+ * <p>Features:</p>
+ * - Stores each distinct ingredient list and instruction list once, keyed by its SHA-256 hash.
+ * - Shares loaded lists between all {@link RecipeSnapshot}s that reference them.
+ * - Forks a recipe in O(1) by writing a new ref that points at the same lists.
+ * - Rejects saves and deletes that would overwrite a change made since the recipe was read,
+ *   like {@link RecipeStorage}.
+ * - Verifies every object against its hash when it is read.
+ * - Removes objects no recipe refers to any more with {@link #collectGarbage()}.
+ * - Imports from and exports to a regular recipe directory.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * ContentAddressedRecipeStore store = ContentAddressedRecipeStore.open(Paths.get("library.cas"));
+ * store.importAll(RecipeStorage.loadAllRecipes("./src/main/java/recipes/").getRecipes());
+ * store.fork("Pancakes", "Pancakes for a Crowd");    // No list is copied
+ * Recipe editable = store.load("Pancakes for a Crowd");
+ * editable.setServings(12);
+ * store.save(editable);                              // Writes only a new ref
+ * System.out.println(store.stats());
+ * }</pre>
+ *
+ * <p>Layout:</p>
+ * <pre>
+ * root/refs/Pancakes.json             {"ref": {"name", "servings", "prep_time", "cook_time",
+ *                                              "ingredients": hash, "instructions": hash}}
+ * root/objects/3f/a9c1...             JSON array of ingredients or instructions
+ * </pre>
+ *
+ * <p>Dependencies:</p>
+ * - RecipeSnapshot.java
+ * - IngredientSnapshot.java
+ * - RecipeStorage.java
+ *
+ * <p>Notes:</p>
+ * - Objects are never modified once written, so saves write them concurrently; two threads
+ *   storing the same list write identical content. Only {@link #collectGarbage()} excludes saves.
+ * - Deleting or changing a recipe leaves its old lists in place until {@link #collectGarbage()}.
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+public class ContentAddressedRecipeStore {
+    private static final String REFS_DIRECTORY = "refs";
+    private static final String OBJECTS_DIRECTORY = "objects";
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final Path refsDirectory;
+    private final Path objectsDirectory;
+    // Keyed by RecipeStorage.fileNameFor(name), the same key the ref file is named by
+    private final Map<String, Ref> refs = new ConcurrentHashMap<>();
+    // Loaded objects, shared by every snapshot that references them
+    private final Map<String, List<IngredientSnapshot>> ingredientLists = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> instructionLists = new ConcurrentHashMap<>();
+    // Makes the conflict check and the ref write atomic
+    private final ReentrantLock refLock = new ReentrantLock();
+    // Saves hold the read lock from storing their objects until the ref is published, and garbage
+    // collection holds the write lock, so it never deletes an object whose ref is not written yet
+    private final ReentrantReadWriteLock collectionLock = new ReentrantReadWriteLock();
+
+    /**
+     * The stored form of one recipe: its header and the hashes of its two lists.
+     */
+    private record Ref(String name, int servings, String prepTime, String cookTime,
+                       String ingredientsHash, String instructionsHash, long stamp) {
+    }
+
+    /**
+     * Sizes of a store, for judging how much the deduplication saves.
+     *
+     * @param recipes The number of recipes.
+     * @param objects The number of stored lists.
+     * @param storedBytes The bytes used by the stored lists.
+     * @param logicalBytes The bytes the lists would use if every recipe stored its own copies.
+     */
+    public record StoreStats(int recipes, int objects, long storedBytes, long logicalBytes) {
+        /**
+         * Returns how many times smaller the stored lists are than separate copies would be.
+         *
+         * @return The deduplication ratio, or 1 for an empty store.
+         */
+        public double deduplicationRatio() {
+            return storedBytes > 0 ? (double) logicalBytes / storedBytes : 1.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d recipes, %d objects, %,d bytes stored for %,d bytes of lists (%.1fx)",
+                    recipes, objects, storedBytes, logicalBytes, deduplicationRatio());
+        }
+    }
+
+    private ContentAddressedRecipeStore(Path root) {
+        this.refsDirectory = root.resolve(REFS_DIRECTORY);
+        this.objectsDirectory = root.resolve(OBJECTS_DIRECTORY);
+    }
+
+    /**
+     * Opens the store in a directory, creating it if it does not exist. All refs are read; lists
+     * are read on first use.
+     *
+     * @param root The store directory.
+     * @return The opened store.
+     * @throws IOException If the directory cannot be created or read.
+     */
+    public static ContentAddressedRecipeStore open(Path root) throws IOException {
+        ContentAddressedRecipeStore store = new ContentAddressedRecipeStore(root);
+        Files.createDirectories(store.refsDirectory);
+        Files.createDirectories(store.objectsDirectory);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(store.refsDirectory, "*.json")) {
+            for (Path refPath : stream) {
+                try {
+                    Ref ref = readRef(refPath);
+                    store.refs.put(refPath.getFileName().toString(), ref);
+                } catch (IOException | JSONException e) {
+                    System.err.println("Error loading recipe ref " + refPath + ": " + e.getMessage());
+                }
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Returns the number of recipes in the store.
+     *
+     * @return The number of refs.
+     */
+    public int size() {
+        return refs.size();
+    }
+
+    /**
+     * Returns whether a recipe with the given name is stored.
+     *
+     * @param recipeName The recipe name.
+     * @return {@code true} if the store has a ref for the name.
+     */
+    public boolean contains(String recipeName) {
+        return refs.containsKey(RecipeStorage.fileNameFor(recipeName));
+    }
+
+    /**
+     * Returns the names of all stored recipes in alphabetical order.
+     *
+     * @return The recipe names.
+     */
+    public List<String> names() {
+        TreeSet<String> names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (Ref ref : refs.values()) {
+            names.add(ref.name());
+        }
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * Returns a stored recipe as an immutable snapshot. Its lists are the shared lists of the store,
+     * so holding many snapshots of derivative recipes costs little more than holding one.
+     *
+     * @param recipeName The recipe name.
+     * @return The snapshot, or {@code null} if no such recipe is stored.
+     * @throws IOException If a list cannot be read or is corrupt.
+     */
+    public RecipeSnapshot get(String recipeName) throws IOException {
+        Ref ref = refs.get(RecipeStorage.fileNameFor(recipeName));
+        return ref == null ? null : toSnapshot(ref);
+    }
+
+    /**
+     * Returns a stored recipe as a new mutable {@link Recipe}, for example for the editing dialogs.
+     *
+     * @param recipeName The recipe name.
+     * @return The recipe, or {@code null} if no such recipe is stored.
+     * @throws IOException If a list cannot be read or is corrupt.
+     */
+    public Recipe load(String recipeName) throws IOException {
+        RecipeSnapshot snapshot = get(recipeName);
+        return snapshot == null ? null : snapshot.toRecipe();
+    }
+
+    /**
+     * Loads every stored recipe into a new collection. Recipes whose lists cannot be read are
+     * logged and skipped.
+     *
+     * @return The recipes.
+     */
+    public RecipeCollection loadAll() {
+        RecipeCollection collection = new RecipeCollection();
+        for (Ref ref : refs.values()) {
+            try {
+                collection.addRecipe(toSnapshot(ref).toRecipe());
+            } catch (IOException e) {
+                System.err.println("Error loading recipe " + ref.name() + ": " + e.getMessage());
+            }
+        }
+        return collection;
+    }
+
+    /**
+     * Saves a recipe. Its lists are stored only if no identical list is stored yet, and the recipe's
+     * version stamp is updated to the new ref. Saves are checked for conflicts the same way as
+     * {@link RecipeStorage#saveRecipe(Recipe, String)}.
+     *
+     * @param recipe The recipe to save.
+     * @throws RecipeConflictException If the stored recipe changed since the recipe was read.
+     * @throws IOException If the recipe cannot be written.
+     */
+    public void save(Recipe recipe) throws IOException {
+        recipe.setVersionStamp(save(recipe.toSnapshot()));
+    }
+
+    /**
+     * Saves a recipe snapshot. A list whose hash is already stored is not written again, and the
+     * store keeps sharing its existing copy of the list.
+     *
+     * @param snapshot The snapshot to save.
+     * @return The version stamp of the stored recipe.
+     * @throws RecipeConflictException If the stored recipe changed since the snapshot was read.
+     * @throws IOException If the recipe cannot be written.
+     */
+    public long save(RecipeSnapshot snapshot) throws IOException {
+        collectionLock.readLock().lock();
+        try {
+            String ingredientsHash = storeIngredients(snapshot.ingredients());
+            String instructionsHash = storeInstructions(snapshot.instructions());
+            return writeRef(snapshot.name(), snapshot.servings(), snapshot.prepTime(), snapshot.cookTime(),
+                    ingredientsHash, instructionsHash, snapshot.versionStamp(), false);
+        } finally {
+            collectionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Saves many recipes, for example a whole recipe directory when switching to this storage mode.
+     * Existing recipes with the same names are replaced without a conflict check.
+     *
+     * @param recipes The recipes to save.
+     * @return The number of recipes saved.
+     */
+    public int importAll(Collection<? extends Recipe> recipes) {
+        AtomicInteger saved = new AtomicInteger();
+        recipes.parallelStream().forEach(recipe -> {
+            try {
+                RecipeSnapshot snapshot = recipe.toSnapshot().toBuilder().versionStamp(RecipeStorage.NEW_RECIPE).build();
+                save(snapshot);
+                saved.incrementAndGet();
+            } catch (IOException e) {
+                System.err.println("Error importing recipe " + recipe.getName() + ": " + e.getMessage());
+            }
+        });
+        return saved.get();
+    }
+
+    /**
+     * Writes every stored recipe as a regular recipe file, so the library can be opened by
+     * {@link RecipeStorage} again.
+     *
+     * @param directoryPath The directory to write the recipe files to.
+     * @return The number of recipes written.
+     * @throws IOException If the directory cannot be created or a file cannot be written.
+     */
+    public int exportTo(String directoryPath) throws IOException {
+        Path directory = Paths.get(directoryPath);
+        Files.createDirectories(directory);
+        int written = 0;
+        for (Ref ref : refs.values()) {
+            Recipe recipe = toSnapshot(ref).toRecipe();
+            RecipeStorage.writeAtomically(directory.resolve(RecipeStorage.fileNameFor(recipe.getName())),
+                    RecipeStorage.toFileBytes(recipe));
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Copies a recipe under a new name. Only a new ref is written; the copy shares both lists with
+     * the original until one of them is saved with changes, so forking costs the same for any
+     * recipe size.
+     *
+     * @param sourceName The recipe to copy.
+     * @param newName The name of the copy.
+     * @return The copy.
+     * @throws IllegalArgumentException If the source does not exist or the new name is taken.
+     * @throws IOException If the ref cannot be written.
+     */
+    public RecipeSnapshot fork(String sourceName, String newName) throws IOException {
+        collectionLock.readLock().lock();
+        try {
+            // The source may be deleted meanwhile, but its lists stay until the new ref is written
+            Ref source = refs.get(RecipeStorage.fileNameFor(sourceName));
+            if (source == null) {
+                throw new IllegalArgumentException("No stored recipe named " + sourceName);
+            }
+            long stamp = writeRef(newName, source.servings(), source.prepTime(), source.cookTime(),
+                    source.ingredientsHash(), source.instructionsHash(), RecipeStorage.NEW_RECIPE, true);
+            return new RecipeSnapshot(newName, ingredientsFor(source.ingredientsHash()),
+                    instructionsFor(source.instructionsHash()), source.servings(), source.prepTime(),
+                    source.cookTime(), stamp);
+        } finally {
+            collectionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes a recipe's ref. Its lists stay until {@link #collectGarbage()} runs.
+     *
+     * @param recipe The recipe to delete.
+     * @return {@code true} if a recipe was deleted, {@code false} if there was none.
+     * @throws RecipeConflictException If the stored recipe changed since the recipe was read.
+     * @throws IOException If the ref cannot be deleted.
+     */
+    public boolean delete(Recipe recipe) throws IOException {
+        String key = RecipeStorage.fileNameFor(recipe.getName());
+        Path refPath = refsDirectory.resolve(key);
+        refLock.lock();
+        try {
+            Ref current = refs.get(key);
+            checkStamp(refPath, current, recipe.getVersionStamp());
+            boolean deleted = Files.deleteIfExists(refPath);
+            refs.remove(key);
+            recipe.setVersionStamp(RecipeStorage.NEW_RECIPE);
+            return deleted;
+        } finally {
+            refLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes every stored list that no recipe refers to. Saves wait while it runs.
+     *
+     * @return The number of lists deleted.
+     * @throws IOException If the object directory cannot be read.
+     */
+    public int collectGarbage() throws IOException {
+        collectionLock.writeLock().lock();
+        refLock.lock();
+        try {
+            Set<String> live = new HashSet<>();
+            for (Ref ref : refs.values()) {
+                live.add(ref.ingredientsHash());
+                live.add(ref.instructionsHash());
+            }
+            List<String> dead = new ArrayList<>();
+            for (String hash : storedObjects()) {
+                if (!live.contains(hash)) {
+                    dead.add(hash);
+                }
+            }
+            for (String hash : dead) {
+                Files.deleteIfExists(objectPath(hash));
+                ingredientLists.remove(hash);
+                instructionLists.remove(hash);
+            }
+            return dead.size();
+        } finally {
+            refLock.unlock();
+            collectionLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Measures the store: the bytes of the stored lists against the bytes every recipe's own copies
+     * would need.
+     *
+     * @return The store sizes.
+     * @throws IOException If an object cannot be read.
+     */
+    public StoreStats stats() throws IOException {
+        Map<String, Long> sizes = new HashMap<>();
+        long storedBytes = 0;
+        for (String hash : storedObjects()) {
+            long size = Files.size(objectPath(hash));
+            sizes.put(hash, size);
+            storedBytes += size;
+        }
+        long logicalBytes = 0;
+        int recipes = 0;
+        for (Ref ref : refs.values()) {
+            logicalBytes += sizes.getOrDefault(ref.ingredientsHash(), 0L);
+            logicalBytes += sizes.getOrDefault(ref.instructionsHash(), 0L);
+            recipes++;
+        }
+        return new StoreStats(recipes, sizes.size(), storedBytes, logicalBytes);
+    }
+
+    private RecipeSnapshot toSnapshot(Ref ref) throws IOException {
+        return new RecipeSnapshot(ref.name(), ingredientsFor(ref.ingredientsHash()),
+                instructionsFor(ref.instructionsHash()), ref.servings(), ref.prepTime(), ref.cookTime(), ref.stamp());
+    }
+
+    private List<IngredientSnapshot> ingredientsFor(String hash) throws IOException {
+        List<IngredientSnapshot> cached = ingredientLists.get(hash);
+        if (cached != null) {
+            return cached;
+        }
+        JSONArray array = new JSONArray(new String(readObject(hash)));
+        List<IngredientSnapshot> ingredients = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            ingredients.add(IngredientSnapshot.of(Ingredient.fromJson(array.getJSONObject(i))));
+        }
+        return intern(ingredientLists, hash, List.copyOf(ingredients));
+    }
+
+    private List<String> instructionsFor(String hash) throws IOException {
+        List<String> cached = instructionLists.get(hash);
+        if (cached != null) {
+            return cached;
+        }
+        JSONArray array = new JSONArray(new String(readObject(hash)));
+        List<String> instructions = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            instructions.add(array.getString(i));
+        }
+        return intern(instructionLists, hash, List.copyOf(instructions));
+    }
+
+    private String storeIngredients(List<IngredientSnapshot> ingredients) throws IOException {
+        JSONArray array = new JSONArray();
+        for (IngredientSnapshot ingredient : ingredients) {
+            array.put(RecipeStorage.ingredientToJson(ingredient.toIngredient()));
+        }
+        String hash = writeObject(array.toString().getBytes());
+        intern(ingredientLists, hash, ingredients);
+        return hash;
+    }
+
+    private String storeInstructions(List<String> instructions) throws IOException {
+        String hash = writeObject(new JSONArray(instructions).toString().getBytes());
+        intern(instructionLists, hash, instructions);
+        return hash;
+    }
+
+    // Returns the first list stored under a hash, so every snapshot shares one instance
+    private static <T> List<T> intern(Map<String, List<T>> lists, String hash, List<T> list) {
+        List<T> existing = lists.putIfAbsent(hash, list);
+        return existing != null ? existing : list;
+    }
+
+    private long writeRef(String name, int servings, String prepTime, String cookTime,
+                          String ingredientsHash, String instructionsHash, long expectedStamp,
+                          boolean mustBeNew) throws IOException {
+        String key = RecipeStorage.fileNameFor(name);
+        Path refPath = refsDirectory.resolve(key);
+
+        JSONObject refJson = new JSONObject();
+        refJson.put("name", name);
+        refJson.put("servings", servings);
+        refJson.put("prep_time", prepTime);
+        refJson.put("cook_time", cookTime);
+        refJson.put("ingredients", ingredientsHash);
+        refJson.put("instructions", instructionsHash);
+        JSONObject completeJson = new JSONObject();
+        completeJson.put("ref", refJson);
+        byte[] content = completeJson.toString(2).getBytes();
+        long stamp = RecipeManifest.checksum(content);
+
+        refLock.lock();
+        try {
+            Ref current = refs.get(key);
+            if (mustBeNew && current != null) {
+                throw new IllegalArgumentException("A recipe named " + name + " already exists");
+            }
+            checkStamp(refPath, current, expectedStamp);
+            RecipeStorage.writeAtomically(refPath, content);
+            refs.put(key, new Ref(name, servings, prepTime, cookTime, ingredientsHash, instructionsHash, stamp));
+        } finally {
+            refLock.unlock();
+        }
+        return stamp;
+    }
+
+    // Must be called while holding refLock
+    private static void checkStamp(Path refPath, Ref current, long expectedStamp) throws IOException {
+        if (expectedStamp != RecipeStorage.NEW_RECIPE && current != null && current.stamp() != expectedStamp) {
+            throw new RecipeConflictException(refPath, expectedStamp, current.stamp());
+        }
+    }
+
+    private static Ref readRef(Path refPath) throws IOException {
+        byte[] content = Files.readAllBytes(refPath);
+        JSONObject refJson = new JSONObject(new String(content)).getJSONObject("ref");
+        return new Ref(refJson.getString("name"), refJson.getInt("servings"), refJson.getString("prep_time"),
+                refJson.getString("cook_time"), refJson.getString("ingredients"), refJson.getString("instructions"),
+                RecipeManifest.checksum(content));
+    }
+
+    private String writeObject(byte[] content) throws IOException {
+        String hash = sha256(content);
+        Path objectPath = objectPath(hash);
+        if (Files.exists(objectPath)) {
+            return hash;
+        }
+        Files.createDirectories(objectPath.getParent());
+        // A unique temporary name, because two threads may store the same list at once
+        Path tempPath = Files.createTempFile(objectPath.getParent(), hash.substring(2, 10), ".tmp");
+        try {
+            Files.write(tempPath, content);
+            RecipeStorage.moveAtomically(tempPath, objectPath);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+        return hash;
+    }
+
+    private byte[] readObject(String hash) throws IOException {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(objectPath(hash));
+        } catch (NoSuchFileException e) {
+            throw new IOException("Missing recipe object " + hash, e);
+        }
+        if (!sha256(content).equals(hash)) {
+            throw new IOException("Recipe object " + hash + " is corrupt");
+        }
+        return content;
+    }
+
+    private Path objectPath(String hash) {
+        return objectsDirectory.resolve(hash.substring(0, 2)).resolve(hash.substring(2));
+    }
+
+    private List<String> storedObjects() throws IOException {
+        List<String> hashes = new ArrayList<>();
+        try (DirectoryStream<Path> prefixes = Files.newDirectoryStream(objectsDirectory, Files::isDirectory)) {
+            for (Path prefix : prefixes) {
+                try (DirectoryStream<Path> objects = Files.newDirectoryStream(prefix)) {
+                    for (Path object : objects) {
+                        String fileName = object.getFileName().toString();
+                        if (!fileName.endsWith(".tmp")) {
+                            hashes.add(prefix.getFileName() + fileName);
+                        }
+                    }
+                }
+            }
+        }
+        return hashes;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HEX.formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,392 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The DuplicateDetector class finds near-identical recipes in large libraries, such as imported
+ * dumps where the same recipe appears many times under slightly different names. It also reports
+ * recipes whose names sanitize to the same storage file, which {@link RecipeStorage#saveRecipe}
+ * would otherwise silently overwrite.
+ *
+ * <p>Features:</p>
+ * - Describes each recipe as a set of features: its ingredient names and every run of three
+ *   consecutive words in its instructions.
+ * - Compresses each set into a MinHash signature, whose agreement with another signature
+ *   estimates the Jaccard similarity of the two sets.
+ * - Groups signatures with locality-sensitive hashing: recipes that agree on every value of at
+ *   least one band share a bucket, and only recipes sharing a bucket are compared. Run time grows
+ *   with the number of recipes and buckets rather than with the number of pairs, so a million
+ *   recipes can be checked without comparing every pair.
+ * - Groups duplicates transitively, so five copies of a recipe form one group.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * DuplicateDetector detector = new DuplicateDetector();
+ * detector.addAll(RecipeStorage.loadAllRecipes(path).getRecipes());
+ * DuplicateDetector.DuplicateReport report = detector.findDuplicates(0.8);
+ * report.groups().forEach(group -> System.out.println(group.recipeNames()));
+ * }</pre>
+ *
+ * <p>Dependencies:</p>
+ * - IngredientMatcher.java
+ * - Recipe.java
+ * - RecipeStorage.java
+ *
+ * <p>Notes:</p>
+ * - Each recipe costs about 200 bytes plus its name, so a million recipes fit in a few hundred
+ *   megabytes. Recipes themselves are not retained.
+ * - Similarities are estimates; pairs near the threshold may fall on either side of it.
+ * - Recipes with no ingredients and no instructions are never reported as duplicates.
+ * - Adding recipes is not thread-safe; {@link #addAll(Collection)} computes signatures in parallel.
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+public class DuplicateDetector {
+    /**
+     * Similarity above which two recipes are reported as duplicates by {@link #findDuplicates()}.
+     */
+    public static final double DEFAULT_THRESHOLD = 0.8;
+
+    // 16 bands of 8 rows put the LSH threshold near 0.7: pairs at 0.8 share a bucket 98% of the time
+    private static final int BANDS = 16;
+    private static final int ROWS = 8;
+    private static final int HASHES = BANDS * ROWS;
+    // Each bucket member is compared with at most this many earlier members that started a group
+    private static final int MAX_LEADERS = 8;
+    private static final int SHINGLE_WORDS = 3;
+
+    private static final long[] MULTIPLIERS = new long[HASHES];
+    private static final long[] OFFSETS = new long[HASHES];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EEDL);
+        for (int i = 0; i < HASHES; i++) {
+            MULTIPLIERS[i] = random.nextLong() | 1;
+            OFFSETS[i] = random.nextLong();
+        }
+    }
+
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, List<String>> namesByFile = new HashMap<>();
+    // Low byte of every MinHash value, HASHES bytes per recipe, used to estimate similarity
+    private byte[] signatures = new byte[HASHES * 1024];
+    // One hash per band and recipe, band-major, used to form buckets
+    private int[][] bandHashes = new int[BANDS][1024];
+    private IngredientMatcher ingredientMatcher;
+
+    /**
+     * Sets a matcher used to reduce ingredient names to canonical names before hashing, so
+     * "Roma tomatoes" and "tomato" count as the same ingredient. Applies to recipes added afterwards.
+     *
+     * @param ingredientMatcher The matcher, or {@code null} to compare names as written.
+     */
+    public void setIngredientMatcher(IngredientMatcher ingredientMatcher) {
+        this.ingredientMatcher = ingredientMatcher;
+    }
+
+    /**
+     * Adds one recipe.
+     *
+     * @param recipe The recipe to add.
+     */
+    public void add(Recipe recipe) {
+        store(recipe.getName(), signatureOf(recipe));
+    }
+
+    /**
+     * Adds several recipes, computing their signatures in parallel.
+     *
+     * @param recipes The recipes to add.
+     */
+    public void addAll(Collection<? extends Recipe> recipes) {
+        List<? extends Recipe> list = List.copyOf(recipes);
+        int[][] computed = new int[list.size()][];
+        IntStream.range(0, list.size()).parallel()
+                .forEach(i -> computed[i] = signatureOf(list.get(i)));
+        for (int i = 0; i < computed.length; i++) {
+            store(list.get(i).getName(), computed[i]);
+        }
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Finds duplicate groups at {@link #DEFAULT_THRESHOLD}.
+     *
+     * @return The report.
+     */
+    public DuplicateReport findDuplicates() {
+        return findDuplicates(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Finds groups of recipes whose estimated similarity is at least the threshold, and every set
+     * of recipes whose names map to the same storage file.
+     *
+     * @param threshold The minimum similarity, from 0 to 1.
+     * @return The report.
+     */
+    public DuplicateReport findDuplicates(double threshold) {
+        if (threshold < 0 || threshold > 1) {
+            throw new IllegalArgumentException("Threshold must be between 0 and 1: " + threshold);
+        }
+        long startNanos = System.nanoTime();
+        int count = names.size();
+        int[] parent = new int[count];
+        double[] minSimilarity = new double[count];
+        for (int i = 0; i < count; i++) {
+            parent[i] = i;
+            minSimilarity[i] = 1.0;
+        }
+
+        long comparisons = 0;
+        long[] keys = new long[count];
+        int[] leaders = new int[MAX_LEADERS];
+        for (int band = 0; band < BANDS; band++) {
+            int[] hashes = bandHashes[band];
+            int keyCount = 0;
+            for (int i = 0; i < count; i++) {
+                if (hashes[i] != 0) {
+                    keys[keyCount++] = ((long) hashes[i] << 32) | i;
+                }
+            }
+            // Sorting by band hash puts each bucket into a contiguous run
+            Arrays.parallelSort(keys, 0, keyCount);
+            for (int start = 0; start < keyCount; ) {
+                int end = start + 1;
+                while (end < keyCount && (keys[end] >>> 32) == (keys[start] >>> 32)) {
+                    end++;
+                }
+                int leaderCount = 0;
+                for (int k = start; k < end; k++) {
+                    int member = (int) keys[k];
+                    boolean joined = false;
+                    for (int l = 0; l < leaderCount && !joined; l++) {
+                        comparisons++;
+                        double similarity = similarity(leaders[l], member);
+                        if (similarity >= threshold) {
+                            union(parent, minSimilarity, leaders[l], member, similarity);
+                            joined = true;
+                        }
+                    }
+                    if (!joined && leaderCount < MAX_LEADERS) {
+                        leaders[leaderCount++] = member;
+                    }
+                }
+                start = end;
+            }
+        }
+
+        int[] groupSizes = new int[count];
+        for (int i = 0; i < count; i++) {
+            groupSizes[find(parent, i)]++;
+        }
+        Map<Integer, List<String>> membersByRoot = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            int root = parent[i];
+            if (groupSizes[root] > 1) {
+                membersByRoot.computeIfAbsent(root, key -> new ArrayList<>(groupSizes[root])).add(names.get(i));
+            }
+        }
+        List<DuplicateGroup> groups = new ArrayList<>();
+        membersByRoot.forEach((root, members) -> groups.add(new DuplicateGroup(List.copyOf(members), minSimilarity[root])));
+        groups.sort(Comparator.comparingInt((DuplicateGroup group) -> group.recipeNames().size()).reversed()
+                .thenComparing(group -> group.recipeNames().get(0)));
+
+        List<FileNameCollision> collisions = new ArrayList<>();
+        namesByFile.forEach((fileName, recipeNames) -> {
+            if (recipeNames.size() > 1) {
+                collisions.add(new FileNameCollision(fileName, List.copyOf(recipeNames)));
+            }
+        });
+        collisions.sort(Comparator.comparing(FileNameCollision::fileName));
+
+        return new DuplicateReport(count, List.copyOf(groups), List.copyOf(collisions), comparisons,
+                System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Finds recipes whose names map to the same storage file, without computing signatures.
+     *
+     * @param recipes The recipes to check.
+     * @return The collisions, sorted by file name.
+     */
+    public static List<FileNameCollision> findFileNameCollisions(Collection<? extends Recipe> recipes) {
+        Map<String, List<String>> byFile = new HashMap<>();
+        for (Recipe recipe : recipes) {
+            byFile.computeIfAbsent(RecipeStorage.fileNameFor(recipe.getName()), key -> new ArrayList<>(1))
+                    .add(recipe.getName());
+        }
+        List<FileNameCollision> collisions = new ArrayList<>();
+        byFile.forEach((fileName, recipeNames) -> {
+            if (recipeNames.size() > 1) {
+                collisions.add(new FileNameCollision(fileName, List.copyOf(recipeNames)));
+            }
+        });
+        collisions.sort(Comparator.comparing(FileNameCollision::fileName));
+        return collisions;
+    }
+
+    private void store(String name, int[] minHashes) {
+        int index = names.size();
+        if (index == bandHashes[0].length) {
+            int capacity = index * 2;
+            signatures = Arrays.copyOf(signatures, capacity * HASHES);
+            for (int band = 0; band < BANDS; band++) {
+                bandHashes[band] = Arrays.copyOf(bandHashes[band], capacity);
+            }
+        }
+        names.add(name);
+        namesByFile.computeIfAbsent(RecipeStorage.fileNameFor(name), key -> new ArrayList<>(1)).add(name);
+        if (minHashes == null) {
+            return; // No features: band hashes stay 0, which keeps the recipe out of every bucket
+        }
+        for (int i = 0; i < HASHES; i++) {
+            signatures[index * HASHES + i] = (byte) minHashes[i];
+        }
+        for (int band = 0; band < BANDS; band++) {
+            int hash = 1;
+            for (int row = 0; row < ROWS; row++) {
+                hash = 31 * hash + minHashes[band * ROWS + row];
+            }
+            bandHashes[band][index] = hash == 0 ? 1 : hash;
+        }
+    }
+
+    // Returns the MinHash values of a recipe's features, or null if it has none
+    private int[] signatureOf(Recipe recipe) {
+        int[] minHashes = new int[HASHES];
+        Arrays.fill(minHashes, -1);
+        boolean any = false;
+        for (Ingredient ingredient : recipe.getIngredients()) {
+            String name = ingredientMatcher != null
+                    ? ingredientMatcher.canonicalName(ingredient.getName())
+                    : IngredientMatcher.normalize(ingredient.getName());
+            if (!name.isEmpty()) {
+                addFeature(minHashes, hash('i', name));
+                any = true;
+            }
+        }
+        for (String instruction : recipe.getInstructions()) {
+            String[] words = IngredientMatcher.normalize(instruction).split(" ");
+            if (words.length == 1 && words[0].isEmpty()) {
+                continue;
+            }
+            any = true;
+            if (words.length < SHINGLE_WORDS) {
+                addFeature(minHashes, hash('s', String.join(" ", words)));
+                continue;
+            }
+            for (int w = 0; w + SHINGLE_WORDS <= words.length; w++) {
+                addFeature(minHashes, hash('s', words[w] + ' ' + words[w + 1] + ' ' + words[w + 2]));
+            }
+        }
+        return any ? minHashes : null;
+    }
+
+    // Applies every hash function to a feature and keeps the minimum, compared unsigned
+    private static void addFeature(int[] minHashes, long feature) {
+        for (int i = 0; i < HASHES; i++) {
+            int value = (int) ((MULTIPLIERS[i] * feature + OFFSETS[i]) >>> 32);
+            if (Integer.compareUnsigned(value, minHashes[i]) < 0) {
+                minHashes[i] = value;
+            }
+        }
+    }
+
+    // 64-bit FNV-1a over the feature kind and text
+    private static long hash(char kind, String text) {
+        long hash = 0xcbf29ce484222325L;
+        hash = (hash ^ kind) * 0x100000001b3L;
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Only the low byte of each MinHash is kept, so 1 in 256 unrelated values agree by chance
+    private double similarity(int a, int b) {
+        int offsetA = a * HASHES;
+        int offsetB = b * HASHES;
+        int agree = 0;
+        for (int i = 0; i < HASHES; i++) {
+            if (signatures[offsetA + i] == signatures[offsetB + i]) {
+                agree++;
+            }
+        }
+        double chance = 1.0 / 256;
+        return Math.max(0.0, ((double) agree / HASHES - chance) / (1 - chance));
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, double[] minSimilarity, int a, int b, double similarity) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        double combined = Math.min(similarity, Math.min(minSimilarity[rootA], minSimilarity[rootB]));
+        if (rootA != rootB) {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+        minSimilarity[Math.min(rootA, rootB)] = combined;
+    }
+
+    /**
+     * A set of recipes that are near-duplicates of each other.
+     *
+     * @param recipeNames The names of the recipes, in the order they were added.
+     * @param minSimilarity The lowest estimated similarity among the matches that formed the group.
+     */
+    public record DuplicateGroup(List<String> recipeNames, double minSimilarity) {
+    }
+
+    /**
+     * Recipes that are saved to the same file, so saving one overwrites the others.
+     *
+     * @param fileName The shared file name.
+     * @param recipeNames The names of the recipes, in the order they were added.
+     */
+    public record FileNameCollision(String fileName, List<String> recipeNames) {
+    }
+
+    /**
+     * The result of {@link #findDuplicates(double)}.
+     *
+     * @param recipesScanned The number of recipes checked.
+     * @param groups The duplicate groups, largest first.
+     * @param fileNameCollisions The file name collisions, sorted by file name.
+     * @param comparisons The number of signature comparisons made.
+     * @param elapsedNanos The time taken to find the groups.
+     */
+    public record DuplicateReport(int recipesScanned, List<DuplicateGroup> groups,
+                                  List<FileNameCollision> fileNameCollisions, long comparisons,
+                                  long elapsedNanos) {
+        @Override
+        public String toString() {
+            long duplicates = groups.stream().mapToLong(group -> group.recipeNames().size() - 1).sum();
+            return String.format("Scanned %d recipes: %d duplicate groups (%d extra copies), %d file name collisions, "
+                    + "%d comparisons in %d ms", recipesScanned, groups.size(), duplicates, fileNameCollisions.size(),
+                    comparisons, elapsedNanos / 1_000_000);
+        }
+    }
+}
@@ -10,6 +10,8 @@
  * - Edit the ingredient name, quantity, unit, preparation, and calories per unit.
  * - Automatically updates total calories based on calories per unit and quantity.
  * - Validates numeric input to ensure correct data entry.
+ * - Suggests substitutes for the ingredient from the {@link SubstitutionGraph}; choosing one
+ *   replaces the name, scales the quantity, and fills in its calories when they are known.
  * - Notifies the listener when an ingredient is successfully saved.
  * 
  * <p>Usage:</p>
@@ -28,6 +30,8 @@
  * 
  * <p>Dependencies:</p>
  * - Ingredient.java
+ * - NutrientDatabase.java
+ * - SubstitutionGraph.java
  * 
  * @author  Jon-Kayla Pointer
  * @version 1.0.0
@@ -50,6 +54,7 @@ import javax.swing.JDialog;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
 
 public class EditIngredientDialog extends JDialog {
     private static final DecimalFormat decimalFormat = new DecimalFormat("#.##");
@@ -62,6 +67,7 @@ public class EditIngredientDialog extends JDialog {
     private JTextField caloriesPerUnitField;
     private JTextField caloriesPerCupField;
     private JTextField totalCaloriesField;
+    private JComboBox<SubstitutionGraph.Substitution> substituteComboBox;
     private JButton saveButton;
 
     public EditIngredientDialog(Ingredient ingredient, IngredientUpdateListener listener) {
@@ -167,6 +173,30 @@ public class EditIngredientDialog extends JDialog {
             }
         });
 
+        // Substitutes, refreshed as the name changes
+        gbc.gridx = 0;
+        gbc.gridy = 8;
+        add(new JLabel("Substitutes:"), gbc);
+        substituteComboBox = new JComboBox<>();
+        substituteComboBox.setBackground(new Color(255, 182, 193)); // Light Pink
+        gbc.gridx = 1;
+        add(substituteComboBox, gbc);
+        JButton useSubstituteButton = new JButton("Use Substitute");
+        useSubstituteButton.setBackground(new Color(226, 117, 137)); // Pink
+        useSubstituteButton.setForeground(Color.BLACK);
+        useSubstituteButton.addActionListener(e -> useSubstitute());
+        gbc.gridx = 2;
+        add(useSubstituteButton, gbc);
+
+        nameField.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyReleased(KeyEvent e) {
+                refreshSubstitutes();
+            }
+        });
+        // The graph is built in the background; fill the list once it is ready
+        SubstitutionGraph.shared().thenRun(() -> SwingUtilities.invokeLater(this::refreshSubstitutes));
+
         // Save Button
         saveButton = new JButton("Save");
         saveButton.setBackground(new Color(226, 117, 137)); // Pink
@@ -175,7 +205,7 @@ public class EditIngredientDialog extends JDialog {
             saveIngredient(listener);
         });
         gbc.gridx = 0;
-        gbc.gridy = 8;
+        gbc.gridy = 9;
         gbc.anchor = GridBagConstraints.SOUTHEAST;
         add(saveButton, gbc);
     }
@@ -217,6 +247,49 @@ public class EditIngredientDialog extends JDialog {
         }
     }
 
+    /**
+     * Lists the substitutes for the name currently in the name field. Does nothing until the
+     * shared {@link SubstitutionGraph} has been built.
+     */
+    private void refreshSubstitutes() {
+        SubstitutionGraph graph = SubstitutionGraph.shared().getNow(null);
+        if (graph == null) {
+            return;
+        }
+        substituteComboBox.removeAllItems();
+        for (SubstitutionGraph.Substitution substitution : graph.suggestionsFor(nameField.getText())) {
+            substituteComboBox.addItem(substitution);
+        }
+    }
+
+    /**
+     * Replaces the ingredient with the selected substitute: sets the name, scales the quantity by
+     * the substitute's ratio, fills in the calories per unit if the nutrient table knows them, and
+     * recalculates the derived fields.
+     */
+    private void useSubstitute() {
+        SubstitutionGraph.Substitution substitution = (SubstitutionGraph.Substitution) substituteComboBox.getSelectedItem();
+        if (substitution == null) {
+            return;
+        }
+        nameField.setText(substitution.substitute());
+        try {
+            float quantity = Float.parseFloat(quantityField.getText());
+            quantityField.setText(decimalFormat.format(quantity * substitution.ratio()));
+        } catch (NumberFormatException ex) {
+            // Leave an unreadable quantity for the user to fix
+        }
+        String unitString = (String) unitComboBox.getSelectedItem();
+        String calories = NutrientDatabase.suggestCaloriesPerUnit(substitution.substitute(), unitString);
+        if (calories != null) {
+            caloriesPerUnitField.setText(calories);
+        }
+        updateQuantityToCupField(caloriesPerUnitField, quantityField, quantityToCupField, unitString);
+        updateTotalCaloriesField(caloriesPerUnitField, quantityField, totalCaloriesField, unitString);
+        updateCaloriesPerCupField(caloriesPerUnitField, quantityField, caloriesPerCupField, unitString);
+        refreshSubstitutes();
+    }
+
      /**
       * Updates the total calories field based on user input for calories per unit and quantity.
       * 
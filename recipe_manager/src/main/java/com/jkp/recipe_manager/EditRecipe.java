@@ -27,7 +27,7 @@
  * <p>Dependencies:</p>
  * - Recipe.java
  * - Ingredient.java
- * - RecipeStorage.java
+ * - RecipeIOService.java
  * - AddIngredientDialog.java
  * - EditIngredientDialog.java
  * 
@@ -58,6 +58,7 @@ import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
 import javax.swing.table.DefaultTableModel;
 
 /**
@@ -99,6 +100,9 @@ public class EditRecipe {
      * @param recipe The recipe to edit.
      */
     public EditRecipe(Recipe recipe) {
+        if (recipe instanceof LazyRecipe lazyRecipe) {
+            lazyRecipe.materialize(); // The dialog edits the ingredient list in place
+        }
         this.recipe = recipe;
         initialize();
     }
@@ -405,13 +409,14 @@ public class EditRecipe {
      * <p>This method gathers all modified recipe information, including the name, 
      * servings, preparation time, cooking time, ingredients, and instructions. 
      * The data is validated, updated in the {@code Recipe} object, and persisted 
-     * using {@code RecipeStorage.saveRecipe}. If any errors occur during saving, 
+     * in the background through {@link RecipeIOService}. If any errors occur during saving, 
      * an error message is displayed to the user.</p>
      * 
      * <p>Actions performed:</p>
      * - Retrieves and validates input from text fields, combo boxes, and tables.
      * - Updates the {@code Recipe} object's attributes.
-     * - Saves the updated recipe using {@code RecipeStorage}.
+     * - Saves the updated recipe on a {@code RecipeIOService} thread and reports the result on the
+     *   Event Dispatch Thread.
      * - Displays success or error messages to the user.
      * - Notifies any listener about the successful edit and closes the edit dialog.
      * 
@@ -441,14 +446,21 @@ public class EditRecipe {
             }
             recipe.setInstructions(updatedInstructions); // Use the setInstructions method
 
-            
-            RecipeStorage.saveRecipe(recipe, RecipePaths); // Save the recipe
-
+            // Save off the Event Dispatch Thread; the button stays disabled until the file is written
+            JButton saveButton = (JButton) event.getSource();
+            saveButton.setEnabled(false);
+            RecipeIOService.forDirectory(RecipePaths).save(recipe).whenComplete((ignored, error) ->
+                    SwingUtilities.invokeLater(() -> {
+                        if (error != null) {
+                            saveButton.setEnabled(true);
+                            JOptionPane.showMessageDialog(editRecipeDialog, "Error saving recipe: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                            return;
+                        }
+                        JOptionPane.showMessageDialog(editRecipeDialog, "Recipe saved successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                        onRecipeEdited();
+                        editRecipeDialog.dispose(); // Close the dialog
+                    }));
 
-            JOptionPane.showMessageDialog(editRecipeDialog, "Recipe saved successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-            onRecipeEdited();
-            editRecipeDialog.dispose(); // Close the dialog
-           
         } catch (Exception e) {
             JOptionPane.showMessageDialog(editRecipeDialog, "Error saving recipe: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
@@ -0,0 +1,469 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The IngestPipeline class imports large JSON Lines dumps by running the import as a chain of
+ * concurrent stages: read, parse, validate, index, and write. The stages are connected by bounded
+ * queues, so a fast stage blocks when the next one falls behind. Parsing can use every core and
+ * writing can keep several files in flight, while memory holds at most a few queues' worth of rows.
+ *
+ * <p>Features:</p>
+ * - Read: one thread reads lines from the input.
+ * - Parse: upgrades each row to the current format and builds the {@link Recipe}; this is the
+ *   CPU-heavy stage and runs on several threads by default. Canonical ingredient names are
+ *   also recorded here when an {@link IngredientMatcher} is set.
+ * - Validate: applies the same rules as {@link RecipeImporter}.
+ * - Index: one thread assigns storage file names and rejects rows that would overwrite a file
+ *   written earlier in the same run or, unless replacing is enabled, a recipe already in the library.
+ * - Write: saves recipes through {@link RecipeStorage} on several threads, so every file is written
+ *   atomically and storage listeners see it, then passes each written recipe to an optional indexer.
+ * - Reports per-stage busy time and time spent blocked on a full queue, which shows where the
+ *   bottleneck is when tuning {@link #setParallelism(Stage, int)}.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * IngestPipeline pipeline = new IngestPipeline("/path/to/recipes/directory");
+ * pipeline.setParallelism(IngestPipeline.Stage.WRITE, 8);
+ * pipeline.setIndexer(library::put);
+ * IngestPipeline.IngestReport report = pipeline.ingest(Paths.get("dump.jsonl"));
+ * }</pre>
+ *
+ * <p>Dependencies:</p>
+ * - RecipeImporter.java
+ * - RecipeStorage.java
+ *
+ * <p>Notes:</p>
+ * - Rows are parsed out of order, so when two rows map to the same file name, the row that reaches
+ *   the index stage first is kept and the other is rejected.
+ * - The indexer only sees recipes that are on disk, and runs on the write threads, so it must be
+ *   thread-safe and should be quick; a slow indexer slows the whole pipeline.
+ * - The first I/O error stops every stage and is rethrown from {@link #ingest(Path)}. Files written
+ *   before the error are kept.
+ * - JSON arrays and archives are still imported with {@link RecipeImporter}.
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+public class IngestPipeline {
+    /**
+     * The stages of the pipeline, in the order rows pass through them.
+     */
+    public enum Stage { READ, PARSE, VALIDATE, INDEX, WRITE }
+
+    /**
+     * Default number of rows each queue between two stages can hold.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    // Sent downstream once per worker of the next stage when a stage has finished
+    private static final Row END = new Row(-1, null);
+
+    private final String directoryPath;
+    private final Map<Stage, Integer> parallelism = new EnumMap<>(Stage.class);
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private Consumer<Recipe> indexer = recipe -> { };
+    private IngredientMatcher ingredientMatcher;
+    private boolean replaceExisting;
+
+    /**
+     * Creates a pipeline that writes recipes into the given directory.
+     *
+     * @param directoryPath The recipe directory to import into.
+     */
+    public IngestPipeline(String directoryPath) {
+        this.directoryPath = directoryPath;
+        parallelism.put(Stage.READ, 1);
+        parallelism.put(Stage.PARSE, Runtime.getRuntime().availableProcessors());
+        parallelism.put(Stage.VALIDATE, 1);
+        parallelism.put(Stage.INDEX, 1);
+        parallelism.put(Stage.WRITE, 4);
+    }
+
+    /**
+     * Sets how many threads run a stage. The read and index stages are sequential by nature and
+     * always use one thread.
+     *
+     * @param stage The stage.
+     * @param threads The number of threads; must be at least 1.
+     */
+    public void setParallelism(Stage stage, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + threads);
+        }
+        if ((stage == Stage.READ || stage == Stage.INDEX) && threads != 1) {
+            throw new IllegalArgumentException("The " + stage + " stage always runs on one thread");
+        }
+        parallelism.put(stage, threads);
+    }
+
+    public int getParallelism(Stage stage) {
+        return parallelism.get(stage);
+    }
+
+    /**
+     * Sets how many rows each queue between two stages can hold before the upstream stage blocks.
+     *
+     * @param queueCapacity The queue capacity; must be at least 1.
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1: " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Sets a callback that receives every recipe once it has been written, for example to add it to
+     * a {@link RecipeLibrary}. It is called from several write threads at once.
+     *
+     * @param indexer The callback.
+     */
+    public void setIndexer(Consumer<Recipe> indexer) {
+        this.indexer = indexer;
+    }
+
+    /**
+     * Sets a matcher used by the parse stage to record the canonical names of ingredients.
+     *
+     * @param ingredientMatcher The matcher, or {@code null} to record no canonical names.
+     */
+    public void setIngredientMatcher(IngredientMatcher ingredientMatcher) {
+        this.ingredientMatcher = ingredientMatcher;
+    }
+
+    /**
+     * Sets whether ingested recipes replace recipes already stored under the same file name. By
+     * default such rows are rejected and the stored recipe is kept.
+     *
+     * @param replaceExisting {@code true} to replace existing recipes.
+     */
+    public void setReplaceExisting(boolean replaceExisting) {
+        this.replaceExisting = replaceExisting;
+    }
+
+    /**
+     * Imports a JSON Lines file.
+     *
+     * @param source The file to import.
+     * @return The ingest report.
+     * @throws IOException If the file cannot be read or a recipe cannot be written.
+     */
+    public IngestReport ingest(Path source) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            return ingest(reader);
+        }
+    }
+
+    /**
+     * Imports JSON Lines input, one {@code {"recipe": {...}}} object per line. Blank lines are
+     * skipped; malformed or invalid lines are rejected individually.
+     *
+     * @param input The JSON Lines input.
+     * @return The ingest report.
+     * @throws IOException If the input cannot be read or a recipe cannot be written.
+     */
+    public IngestReport ingest(BufferedReader input) throws IOException {
+        Files.createDirectories(Paths.get(directoryPath));
+        return new Run(input).execute();
+    }
+
+    /**
+     * A row travelling through the pipeline: its line number and its current value, which is the
+     * raw line after reading and the recipe after parsing.
+     */
+    private record Row(long number, Object value) {
+    }
+
+    /**
+     * Work done by one stage for one row.
+     */
+    @FunctionalInterface
+    private interface RowHandler {
+        /**
+         * @return The row to pass downstream, or {@code null} if the row was rejected.
+         */
+        Row handle(Row row) throws IOException;
+    }
+
+    /**
+     * One execution of the pipeline.
+     */
+    private class Run {
+        private final BufferedReader input;
+        private final long startNanos = System.nanoTime();
+        private final Map<Stage, StageCounters> counters = new EnumMap<>(Stage.class);
+        private final List<Thread> threads = new CopyOnWriteArrayList<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final LongAdder rowsRead = new LongAdder();
+        private final LongAdder imported = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final RecipeImporter.RejectionLog rejections = new RecipeImporter.RejectionLog(); // Guarded by itself
+        // Owned by the single index thread
+        private final Map<String, Long> writtenFiles = new HashMap<>();
+
+        Run(BufferedReader input) {
+            this.input = input;
+            for (Stage stage : Stage.values()) {
+                counters.put(stage, new StageCounters());
+            }
+        }
+
+        IngestReport execute() throws IOException {
+            BlockingQueue<Row> parseQueue = new ArrayBlockingQueue<>(queueCapacity);
+            BlockingQueue<Row> validateQueue = new ArrayBlockingQueue<>(queueCapacity);
+            BlockingQueue<Row> indexQueue = new ArrayBlockingQueue<>(queueCapacity);
+            BlockingQueue<Row> writeQueue = new ArrayBlockingQueue<>(queueCapacity);
+
+            start(Stage.READ, () -> read(parseQueue));
+            startWorkers(Stage.PARSE, parseQueue, validateQueue, Stage.VALIDATE, this::parse);
+            startWorkers(Stage.VALIDATE, validateQueue, indexQueue, Stage.INDEX, this::validate);
+            startWorkers(Stage.INDEX, indexQueue, writeQueue, Stage.WRITE, this::index);
+            startWorkers(Stage.WRITE, writeQueue, null, null, this::write);
+
+            try {
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+            } catch (InterruptedException e) {
+                threads.forEach(Thread::interrupt);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Ingest interrupted");
+            }
+
+            Throwable error = failure.get();
+            if (error instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (error instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (error instanceof Error fatal) {
+                throw fatal;
+            }
+
+            RecipeImporter.ImportReport summary = new RecipeImporter.ImportReport(rowsRead.sum(), imported.sum(),
+                    rejected.sum(), rejections.inRowOrder(), System.nanoTime() - startNanos);
+            Map<Stage, StageStats> stages = new EnumMap<>(Stage.class);
+            counters.forEach((stage, stageCounters) -> stages.put(stage, stageCounters.toStats(getParallelism(stage))));
+            return new IngestReport(summary, Collections.unmodifiableMap(stages));
+        }
+
+        // Read stage: the source of the pipeline
+        private void read(BlockingQueue<Row> out) throws IOException, InterruptedException {
+            StageCounters stats = counters.get(Stage.READ);
+            String line;
+            long lineNumber = 0;
+            long busyStart = System.nanoTime();
+            while ((line = input.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                rowsRead.increment();
+                stats.items.increment();
+                long putStart = System.nanoTime();
+                stats.busyNanos.add(putStart - busyStart);
+                out.put(new Row(lineNumber, line));
+                busyStart = System.nanoTime();
+                stats.blockedNanos.add(busyStart - putStart);
+            }
+            sendEnd(out, getParallelism(Stage.PARSE));
+        }
+
+        private Row parse(Row row) {
+            try {
+                Recipe recipe = RecipeImporter.parseRow(new JSONObject((String) row.value));
+                if (ingredientMatcher != null) {
+                    ingredientMatcher.canonicalize(recipe);
+                }
+                return new Row(row.number, recipe);
+            } catch (JSONException | IllegalArgumentException e) {
+                reject(row.number, e.getMessage());
+                return null;
+            }
+        }
+
+        private Row validate(Row row) {
+            try {
+                RecipeImporter.checkRecipe((Recipe) row.value);
+                return row;
+            } catch (IllegalArgumentException e) {
+                reject(row.number, e.getMessage());
+                return null;
+            }
+        }
+
+        private Row index(Row row) {
+            Recipe recipe = (Recipe) row.value;
+            String fileName = RecipeStorage.fileNameFor(recipe.getName());
+            Long earlierRow = writtenFiles.putIfAbsent(fileName, row.number);
+            if (earlierRow != null) {
+                reject(row.number, "Same file name as row " + earlierRow + ": " + fileName);
+                return null;
+            }
+            if (!replaceExisting && Files.exists(Paths.get(directoryPath, fileName))) {
+                reject(row.number, "Recipe already exists: " + fileName);
+                return null;
+            }
+            return row;
+        }
+
+        private Row write(Row row) throws IOException {
+            Recipe recipe = (Recipe) row.value;
+            try {
+                RecipeImporter.store(recipe, directoryPath, replaceExisting);
+            } catch (FileAlreadyExistsException e) {
+                // Saved by someone else since the index stage checked
+                reject(row.number, "Recipe already exists: " + RecipeStorage.fileNameFor(recipe.getName()));
+                return null;
+            }
+            imported.increment();
+            indexer.accept(recipe);
+            return null;
+        }
+
+        private void reject(long row, String reason) {
+            rejected.increment();
+            synchronized (rejections) {
+                rejections.add(row, reason);
+            }
+        }
+
+        private void startWorkers(Stage stage, BlockingQueue<Row> in, BlockingQueue<Row> out,
+                                  Stage next, RowHandler handler) {
+            int workers = getParallelism(stage);
+            AtomicInteger running = new AtomicInteger(workers);
+            StageCounters stats = counters.get(stage);
+            for (int i = 0; i < workers; i++) {
+                start(stage, () -> {
+                    while (true) {
+                        Row row = in.take();
+                        if (row == END) {
+                            break;
+                        }
+                        long busyStart = System.nanoTime();
+                        Row result = handler.handle(row);
+                        long putStart = System.nanoTime();
+                        stats.items.increment();
+                        stats.busyNanos.add(putStart - busyStart);
+                        if (result != null && out != null) {
+                            out.put(result);
+                            stats.blockedNanos.add(System.nanoTime() - putStart);
+                        }
+                    }
+                    // The last worker of a stage to finish tells every worker of the next stage
+                    if (running.decrementAndGet() == 0 && out != null) {
+                        sendEnd(out, getParallelism(next));
+                    }
+                });
+            }
+        }
+
+        private void start(Stage stage, StageBody body) {
+            Thread thread = Thread.ofPlatform()
+                    .name("ingest-" + stage.name().toLowerCase() + "-" + threads.size())
+                    .daemon(true)
+                    .unstarted(() -> {
+                        try {
+                            body.run();
+                        } catch (InterruptedException e) {
+                            // Another stage failed and stopped the pipeline
+                        } catch (Throwable t) {
+                            if (failure.compareAndSet(null, t)) {
+                                threads.forEach(Thread::interrupt);
+                            }
+                        }
+                    });
+            threads.add(thread);
+            thread.start();
+            if (failure.get() != null) {
+                thread.interrupt(); // Started after a failure, so it missed the interrupt
+            }
+        }
+
+        private void sendEnd(BlockingQueue<Row> out, int workers) throws InterruptedException {
+            for (int i = 0; i < workers; i++) {
+                out.put(END);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface StageBody {
+        void run() throws IOException, InterruptedException;
+    }
+
+    private static class StageCounters {
+        final LongAdder items = new LongAdder();
+        final LongAdder busyNanos = new LongAdder();
+        final LongAdder blockedNanos = new LongAdder();
+
+        StageStats toStats(int threads) {
+            return new StageStats(threads, items.sum(), busyNanos.sum(), blockedNanos.sum());
+        }
+    }
+
+    /**
+     * Statistics for one stage of a run.
+     *
+     * @param threads The number of threads that ran the stage.
+     * @param items The number of rows the stage handled.
+     * @param busyNanos The time spent working, summed over the stage's threads.
+     * @param blockedNanos The time spent waiting for room in the next stage's queue; a large value
+     *                     means a later stage is the bottleneck.
+     */
+    public record StageStats(int threads, long items, long busyNanos, long blockedNanos) {
+        @Override
+        public String toString() {
+            return String.format("%d threads, %d rows, busy %.2f s, blocked %.2f s",
+                    threads, items, busyNanos / 1_000_000_000.0, blockedNanos / 1_000_000_000.0);
+        }
+    }
+
+    /**
+     * The outcome of a run.
+     *
+     * @param summary Row counts, rejections, and throughput, in the same form as {@link RecipeImporter}.
+     * @param stages Statistics for each stage.
+     */
+    public record IngestReport(RecipeImporter.ImportReport summary, Map<Stage, StageStats> stages) {
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(summary.toString());
+            stages.forEach((stage, stats) -> text.append(System.lineSeparator())
+                    .append("  ").append(stage).append(": ").append(stats));
+            return text.toString();
+        }
+    }
+}
@@ -10,10 +10,16 @@
  * - quantity: The amount of the ingredient in a specified unit.
  * - unit: The unit of measurement for the ingredient (e.g., cups, grams). Now uses Enumerations for custom Data Type.
  * - preparation: Any preparation method for the ingredient (optional).
+ * - canonicalName: The vocabulary name found by {@link IngredientMatcher} (optional). It is kept
+ *   next to the name as written, for grouping and lookups, and cleared when the name changes.
  * - caloriesPerCup: The calorie content of the ingredient per cup.
  * - totalCalories: The total calories calculated based on the current quantity.
  * - caloriesPerUnit: The calorie content of the ingredient per specified unit.
  * 
+ * An ingredient belongs to at most one recipe at a time. When its quantity, unit, or calories
+ * change, the setters recalculate its total calories and pass the difference to the owning
+ * recipe, so the recipe total never has to be summed again.
+ * 
  * Methods:
  * - calculateTotalCalories: Computes total calories based on quantity and unit.
  * - convertToCups: Converts different units to cups for consistent calorie calculations.
@@ -31,6 +37,8 @@
 
 package com.jkp.recipe_manager;
 
+import java.util.Objects;
+
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -41,10 +49,12 @@ public class Ingredient {
     private float quantity;
     private Unit unit;
     private String preparation;
+    private String canonicalName; // Set by IngredientMatcher.canonicalize; null if not matched
     private double caloriesPerCup; 
     private double totalCalories; 
     private double caloriesPerUnit; // New field for calories per unit
     private double quantityToCup;
+    private Recipe owner; // The recipe whose total includes this ingredient, if any
     public enum Unit {
         CUP, TBSP, TSP, PCS, G, KG, L, ML;
         
@@ -137,6 +147,15 @@ public class Ingredient {
         return preparation;
     }
 
+    /**
+     * Returns the canonical vocabulary name recorded for this ingredient.
+     *
+     * @return The canonical name, or {@code null} if none was recorded.
+     */
+    public String getCanonicalName() {
+        return canonicalName;
+    }
+
     /**
      * Returns the number of calories per cup for the ingredient.
      * 
@@ -206,7 +225,7 @@ public class Ingredient {
     public void setCaloriesPerUnit(double caloriesPerUnit) {
         this.caloriesPerUnit = caloriesPerUnit;
         this.caloriesPerCup = convertCaloriesPerUnitToCup( quantity, unit, caloriesPerUnit); 
-        this.totalCalories = calculateTotalCalories(); 
+        updateTotalCalories(calculateTotalCalories());
     }
 
         
@@ -221,7 +240,7 @@ public class Ingredient {
     
     public void setCaloriesPerCup(int caloriesPerCup) {
         this.caloriesPerCup = caloriesPerCup;
-        this.totalCalories = calculateTotalCalories();
+        updateTotalCalories(calculateTotalCalories());
     }
 
     /**
@@ -234,7 +253,7 @@ public class Ingredient {
      */
    
     public void setTotalCalories(double totalCalories) {
-        this.totalCalories = totalCalories;
+        updateTotalCalories(totalCalories);
     }
 
     
@@ -249,6 +268,7 @@ public class Ingredient {
 
     public void setUnit(Unit unit) {
         this.unit = unit;
+        recalculate();
     }
 
     /**
@@ -269,9 +289,21 @@ public class Ingredient {
      * @param name The name of the ingredient.
      */
     public void setName(String name) {
+        if (!Objects.equals(name, this.name)) {
+            this.canonicalName = null; // Matched against the old name
+        }
         this.name = name;
     }
 
+    /**
+     * Records the canonical vocabulary name of this ingredient, leaving its name unchanged.
+     *
+     * @param canonicalName The canonical name, or {@code null} to clear it.
+     */
+    public void setCanonicalName(String canonicalName) {
+        this.canonicalName = canonicalName;
+    }
+
     /**
      * Sets the quantity of the ingredient.
      * 
@@ -282,6 +314,54 @@ public class Ingredient {
     
     public void setQuantity(float quantity) {
         this.quantity = quantity;
+        recalculate();
+    }
+
+    /**
+     * Returns the recipe whose total includes this ingredient.
+     *
+     * @return The owning recipe, or {@code null} if the ingredient is in no recipe's list.
+     */
+    Recipe getOwner() {
+        return owner;
+    }
+
+    /**
+     * Sets the recipe whose total includes this ingredient. Called by the recipe's ingredient list.
+     *
+     * @param owner The owning recipe.
+     */
+    void setOwner(Recipe owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Clears the owner if it is the given recipe. Called when the ingredient is removed from it.
+     *
+     * @param recipe The recipe the ingredient was removed from.
+     */
+    void releaseOwner(Recipe recipe) {
+        if (owner == recipe) {
+            owner = null;
+        }
+    }
+
+    // Recomputes the values derived from quantity and unit, the same way the constructor does
+    private void recalculate() {
+        this.quantityToCup = convertQuantityToCups(quantity, unit);
+        if (unit != Unit.CUP) {
+            this.caloriesPerCup = convertCaloriesPerUnitToCup(quantity, unit, caloriesPerUnit);
+        }
+        updateTotalCalories(calculateTotalCalories());
+    }
+
+    // Stores the new total and passes the difference on to the owning recipe
+    private void updateTotalCalories(double newTotal) {
+        double delta = newTotal - this.totalCalories;
+        this.totalCalories = newTotal;
+        if (owner != null && delta != 0.0) {
+            owner.ingredientCaloriesChanged(delta);
+        }
     }
 
     /**
@@ -450,7 +530,8 @@ public class Ingredient {
      * This method takes a `JSONObject` containing ingredient details, such as name, quantity, unit, 
      * preparation method, and calories per unit. It extracts these values from the JSON object and 
      * creates a new `Ingredient` object using the extracted data. If certain fields are missing in 
-     * the JSON object, default values are used.
+     * the JSON object, default values are used; a missing `calories_per_cup` falls back to the 
+     * calories per unit, and the optional `canonical_name` is kept when present.
      * 
      * @param jsonObject The JSON object containing the ingredient details.
      * 
@@ -465,7 +546,10 @@ public class Ingredient {
         Unit unit = getUnitFromString(unitString);
         String preparation = jsonObject.optString("preparation", ""); 
         double caloriesPerUnit = jsonObject.optDouble("calories_per_unit", 0.0); 
-        return new Ingredient(name, quantity, unit, preparation, caloriesPerUnit,caloriesPerUnit);
+        double caloriesPerCup = jsonObject.optDouble("calories_per_cup", caloriesPerUnit);
+        Ingredient ingredient = new Ingredient(name, quantity, unit, preparation, caloriesPerUnit, caloriesPerCup);
+        ingredient.setCanonicalName(jsonObject.optString("canonical_name", null));
+        return ingredient;
     }
 
     /**
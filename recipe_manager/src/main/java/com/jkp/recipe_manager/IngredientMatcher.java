@@ -0,0 +1,325 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The IngredientMatcher class maps free-text ingredient names ("Tomatoes", "roma tomato",
+ * "tomatoe") to one name from a canonical vocabulary ("tomato"), so ingredients can be grouped,
+ * counted, and searched consistently. Matching runs in microseconds, which makes it cheap enough to
+ * normalize every ingredient during a bulk import.
+ *
+ * <p>Features:</p>
+ * - Exact matches, ignoring case, punctuation, and extra spaces.
+ * - Plural forms and leading descriptive words ("large", "chopped", "roma") are tried next.
+ * - Misspellings of the full name are found with a trigram index: canonical names sharing the most
+ *   three-letter sequences with the query are verified with an edit distance that stops early once
+ *   it exceeds the allowed number of edits.
+ * - {@link #canonicalize(Recipe)} records the canonical name on each ingredient of a recipe, next to
+ *   the name as written, for use by {@link RecipeImporter} and {@link IngestPipeline}.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * IngredientMatcher matcher = IngredientMatcher.fromNutrientDatabase(NutrientDatabase.shared().join());
+ * IngredientMatcher.Match match = matcher.match("Roma Tomatoes");  // canonical() is "tomato"
+ * }</pre>
+ *
+ * <p>Dependencies:</p>
+ * - NutrientDatabase.java
+ * - Recipe.java
+ *
+ * <p>Notes:</p>
+ * - A matcher is immutable once built and can be shared between threads.
+ * - Names with no close canonical match are left unchanged.
+ * - Fuzzy matching is never tried on a name with its leading words dropped: short tails such as
+ *   "juice" are too close to unrelated short names ("rice") for an edit distance to tell apart.
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+public class IngredientMatcher {
+    // Candidates sharing less than this fraction of trigrams with the query are not verified
+    private static final double MIN_SIMILARITY = 0.5;
+    private static final int MAX_CANDIDATES = 8;
+
+    private final String[] names;
+    private final int[] gramCounts;
+    private final Map<String, Integer> exact;
+    private final Map<Long, int[]> postings;
+
+    /**
+     * Builds a matcher for a canonical vocabulary. Names are normalized; duplicates are ignored.
+     *
+     * @param canonicalNames The canonical ingredient names.
+     */
+    public IngredientMatcher(Collection<String> canonicalNames) {
+        Set<String> unique = new LinkedHashSet<>();
+        for (String name : canonicalNames) {
+            String normalized = normalize(name);
+            if (!normalized.isEmpty()) {
+                unique.add(normalized);
+            }
+        }
+        this.names = unique.toArray(new String[0]);
+        this.gramCounts = new int[names.length];
+        this.exact = new HashMap<>(names.length * 2);
+
+        Map<Long, List<Integer>> building = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            exact.put(names[i], i);
+            long[] grams = trigrams(names[i]);
+            gramCounts[i] = grams.length;
+            for (long gram : grams) {
+                building.computeIfAbsent(gram, key -> new ArrayList<>()).add(i);
+            }
+        }
+        this.postings = new HashMap<>(building.size() * 2);
+        building.forEach((gram, list) -> postings.put(gram, list.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * Builds a matcher whose vocabulary is every ingredient in a nutrient database.
+     *
+     * @param database The nutrient database.
+     * @return The matcher.
+     */
+    public static IngredientMatcher fromNutrientDatabase(NutrientDatabase database) {
+        return new IngredientMatcher(database.names());
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Finds the canonical name that best matches a free-text ingredient name. The full name is
+     * tried first, exactly or in a singular form and then allowing a few misspellings; after that
+     * the name without its leading words is tried, exactly or in a singular form only.
+     *
+     * @param ingredientName The name to match.
+     * @return The match, or {@code null} if no canonical name is close enough.
+     */
+    public Match match(String ingredientName) {
+        if (ingredientName == null) {
+            return null;
+        }
+        String fullName = normalize(ingredientName);
+        String name = fullName;
+        while (!name.isEmpty()) {
+            for (String form : NutrientDatabase.singularForms(name)) {
+                Integer index = exact.get(form);
+                if (index != null) {
+                    return new Match(ingredientName, names[index], 0, 1.0);
+                }
+            }
+            if (name == fullName) {
+                Match fuzzy = fuzzyMatch(ingredientName, name);
+                if (fuzzy != null) {
+                    return fuzzy;
+                }
+            }
+            int space = name.indexOf(' ');
+            name = space < 0 ? "" : name.substring(space + 1);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the canonical name for an ingredient name, or the name itself if nothing matches.
+     *
+     * @param ingredientName The name to match.
+     * @return The canonical name, or the original name.
+     */
+    public String canonicalName(String ingredientName) {
+        Match match = match(ingredientName);
+        return match != null ? match.canonical() : ingredientName;
+    }
+
+    /**
+     * Records the canonical name of every ingredient of a recipe that has a match, with
+     * {@link Ingredient#setCanonicalName(String)}. Ingredient names are not changed, so "Green
+     * onions" stays as written and is grouped under "onion".
+     *
+     * @param recipe The recipe to normalize.
+     * @return The number of ingredients given a canonical name.
+     */
+    public int canonicalize(Recipe recipe) {
+        int matched = 0;
+        for (Ingredient ingredient : recipe.getIngredients()) {
+            Match match = match(ingredient.getName());
+            if (match != null) {
+                ingredient.setCanonicalName(match.canonical());
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Maps every distinct ingredient name used by a set of recipes to its canonical name, for
+     * grouping ingredients across a library without changing the recipes.
+     *
+     * @param recipes The recipes.
+     * @return Each distinct ingredient name mapped to its canonical name, or to itself if nothing matches,
+     *         sorted by name.
+     */
+    public Map<String, String> canonicalNames(Collection<? extends Recipe> recipes) {
+        Map<String, String> result = new TreeMap<>();
+        for (Recipe recipe : recipes) {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                result.computeIfAbsent(ingredient.getName(), this::canonicalName);
+            }
+        }
+        return result;
+    }
+
+    private Match fuzzyMatch(String query, String name) {
+        long[] grams = trigrams(name);
+        if (grams.length == 0 || maxEdits(name.length()) == 0) {
+            return null;
+        }
+        // Count shared trigrams per canonical name, remembering which entries were touched
+        int[] shared = new int[names.length];
+        int[] touched = new int[names.length];
+        int touchedCount = 0;
+        for (long gram : grams) {
+            int[] list = postings.get(gram);
+            if (list == null) {
+                continue;
+            }
+            for (int index : list) {
+                if (shared[index]++ == 0) {
+                    touched[touchedCount++] = index;
+                }
+            }
+        }
+
+        // Keep the candidates with the highest Dice similarity
+        int[] best = new int[MAX_CANDIDATES];
+        double[] bestSimilarity = new double[MAX_CANDIDATES];
+        int bestCount = 0;
+        for (int t = 0; t < touchedCount; t++) {
+            int index = touched[t];
+            double similarity = 2.0 * shared[index] / (grams.length + gramCounts[index]);
+            if (similarity < MIN_SIMILARITY) {
+                continue;
+            }
+            if (bestCount == MAX_CANDIDATES && similarity <= bestSimilarity[MAX_CANDIDATES - 1]) {
+                continue;
+            }
+            int position = bestCount < MAX_CANDIDATES ? bestCount++ : MAX_CANDIDATES - 1;
+            while (position > 0 && bestSimilarity[position - 1] < similarity) {
+                best[position] = best[position - 1];
+                bestSimilarity[position] = bestSimilarity[position - 1];
+                position--;
+            }
+            best[position] = index;
+            bestSimilarity[position] = similarity;
+        }
+
+        // Verify with a bounded edit distance; fewer edits win, then higher similarity
+        int maxEdits = maxEdits(name.length());
+        Match result = null;
+        for (int c = 0; c < bestCount; c++) {
+            int distance = boundedDistance(name, names[best[c]], maxEdits);
+            if (distance <= maxEdits && (result == null || distance < result.distance())) {
+                result = new Match(query, names[best[c]], distance, bestSimilarity[c]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the Levenshtein distance between two strings, or {@code maxEdits + 1} as soon as it
+     * is certain to exceed {@code maxEdits}. Only the diagonal band of width {@code 2 * maxEdits + 1}
+     * is computed.
+     */
+    static int boundedDistance(String a, String b, int maxEdits) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > maxEdits) {
+            return maxEdits + 1;
+        }
+        int infinity = maxEdits + 1;
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j <= maxEdits ? j : infinity;
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - maxEdits);
+            int to = Math.min(m, i + maxEdits);
+            Arrays.fill(current, infinity);
+            current[0] = i <= maxEdits ? i : infinity;
+            int rowMinimum = current[0];
+            char ca = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                current[j] = Math.min(value, infinity);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > maxEdits) {
+                return infinity;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[m], infinity);
+    }
+
+    // Allows roughly one edit per six characters, so short names must match exactly
+    private static int maxEdits(int length) {
+        if (length <= 4) {
+            return 0;
+        }
+        if (length <= 8) {
+            return 1;
+        }
+        return length <= 14 ? 2 : 3;
+    }
+
+    // Trigrams of the name padded with two leading spaces and one trailing space, packed into longs
+    private static long[] trigrams(String name) {
+        String padded = "  " + name + " ";
+        Set<Long> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+        }
+        long[] result = new long[grams.size()];
+        int i = 0;
+        for (long gram : grams) {
+            result[i++] = gram;
+        }
+        return result;
+    }
+
+    static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}-]+", " ").trim();
+    }
+
+    /**
+     * The canonical name found for a query.
+     *
+     * @param query The name that was matched.
+     * @param canonical The canonical name.
+     * @param distance The number of edits between the normalized query (or the part of it that
+     *                 matched) and the canonical name; 0 for an exact or plural match.
+     * @param similarity The share of trigrams the two names have in common, from 0 to 1.
+     */
+    public record Match(String query, String canonical, int distance, double similarity) {
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The IngredientSnapshot record is an immutable copy of an {@link Ingredient}. Because it can never
+ * change, one instance can be shared freely between caches, indexes, and threads without
+ * defensive copying or locking. Edits are made with a {@link Builder}, which produces a new snapshot
+ * and leaves the original untouched.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * IngredientSnapshot flour = IngredientSnapshot.of(ingredient);
+ * IngredientSnapshot doubled = flour.toBuilder().quantity(flour.quantity() * 2).build();
+ * }</pre>
+ *
+ * @param name The name of the ingredient.
+ * @param quantity The quantity in the ingredient's unit.
+ * @param unit The unit of measurement.
+ * @param preparation The preparation method; never {@code null}.
+ * @param caloriesPerUnit The calories per unit.
+ * @param caloriesPerCup The calories per cup.
+ * @param canonicalName The canonical vocabulary name, or {@code null} if none was recorded.
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.util.Objects;
+
+public record IngredientSnapshot(String name, float quantity, Ingredient.Unit unit, String preparation,
+                                 double caloriesPerUnit, double caloriesPerCup, String canonicalName) {
+
+    public IngredientSnapshot {
+        if (name == null) {
+            throw new IllegalArgumentException("Ingredient name must not be null");
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("Ingredient unit must not be null");
+        }
+        if (preparation == null) {
+            preparation = "";
+        }
+    }
+
+    /**
+     * Creates a snapshot with no canonical name.
+     */
+    public IngredientSnapshot(String name, float quantity, Ingredient.Unit unit, String preparation,
+                              double caloriesPerUnit, double caloriesPerCup) {
+        this(name, quantity, unit, preparation, caloriesPerUnit, caloriesPerCup, null);
+    }
+
+    /**
+     * Creates a snapshot of the current state of a mutable ingredient.
+     *
+     * @param ingredient The ingredient to copy.
+     * @return The snapshot.
+     */
+    public static IngredientSnapshot of(Ingredient ingredient) {
+        return new IngredientSnapshot(ingredient.getName(), ingredient.getQuantity(),
+                Ingredient.getUnitFromString(ingredient.getUnit()), ingredient.getPreparation(),
+                ingredient.getCaloriesPerUnit(), ingredient.getCaloriesPerCup(), ingredient.getCanonicalName());
+    }
+
+    /**
+     * Returns the total calories, calculated the same way as {@link Ingredient#calculateTotalCalories()}.
+     *
+     * @return The total calories for this quantity.
+     */
+    public double totalCalories() {
+        if (unit != Ingredient.Unit.CUP) {
+            return caloriesPerUnit * quantity;
+        }
+        return caloriesPerCup * quantity;
+    }
+
+    /**
+     * Creates a new mutable {@link Ingredient} with the values of this snapshot.
+     *
+     * @return A new Ingredient.
+     */
+    public Ingredient toIngredient() {
+        Ingredient ingredient = new Ingredient(name, quantity, unit, preparation, caloriesPerUnit, caloriesPerCup);
+        ingredient.setCanonicalName(canonicalName);
+        return ingredient;
+    }
+
+    /**
+     * Returns a builder initialized with the values of this snapshot.
+     *
+     * @return A new builder.
+     */
+    public Builder toBuilder() {
+        return new Builder()
+                .name(name)
+                .quantity(quantity)
+                .unit(unit)
+                .preparation(preparation)
+                .caloriesPerUnit(caloriesPerUnit)
+                .caloriesPerCup(caloriesPerCup)
+                .canonicalName(canonicalName);
+    }
+
+    /**
+     * Returns an empty builder.
+     *
+     * @return A new builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Collects changes for a new {@link IngredientSnapshot}.
+     */
+    public static final class Builder {
+        private String name;
+        private float quantity;
+        private Ingredient.Unit unit = Ingredient.Unit.PCS;
+        private String preparation = "";
+        private double caloriesPerUnit;
+        private double caloriesPerCup;
+        private String canonicalName;
+
+        private Builder() {
+        }
+
+        public Builder name(String name) {
+            if (!Objects.equals(name, this.name)) {
+                this.canonicalName = null; // Matched against the old name, as in Ingredient.setName
+            }
+            this.name = name;
+            return this;
+        }
+
+        public Builder quantity(float quantity) {
+            this.quantity = quantity;
+            return this;
+        }
+
+        public Builder unit(Ingredient.Unit unit) {
+            this.unit = unit;
+            return this;
+        }
+
+        public Builder preparation(String preparation) {
+            this.preparation = preparation;
+            return this;
+        }
+
+        public Builder caloriesPerUnit(double caloriesPerUnit) {
+            this.caloriesPerUnit = caloriesPerUnit;
+            return this;
+        }
+
+        public Builder caloriesPerCup(double caloriesPerCup) {
+            this.caloriesPerCup = caloriesPerCup;
+            return this;
+        }
+
+        public Builder canonicalName(String canonicalName) {
+            this.canonicalName = canonicalName;
+            return this;
+        }
+
+        public IngredientSnapshot build() {
+            return new IngredientSnapshot(name, quantity, unit, preparation, caloriesPerUnit, caloriesPerCup, canonicalName);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The LazyRecipe class is a {@link Recipe} that starts out holding only its header: name,
+ * servings, preparation time, cooking time, and total calories. The ingredients and instructions
+ * are read from the recipe file the first time they are accessed and kept in the shared
+ * {@link RecipeBodyCache}, so memory grows with the recipes the user actually opens rather than
+ * with the size of the library.
+ *
+ * <p>Features:</p>
+ * - Header fields are available immediately without reading the recipe file.
+ * - Ingredients and instructions are loaded on demand and may be evicted from the cache.
+ * - Any mutation of the ingredients or instructions first materializes the recipe, pinning its
+ *   body so that edits are never lost to eviction.
+ * - If the file changed since the header was read, the header and version stamp are taken from
+ *   the body read from disk, so the file is read once and the name, servings, times, and total
+ *   always describe the same content as the ingredients and instructions.
+ * - Materializing and loading the body are synchronized, so a background thread reading the
+ *   ingredients never sees a half-built list while the Event Dispatch Thread materializes.
+ *
+ * <p>Usage:</p>
+ * Lazy recipes are created by {@link RecipeStorage#loadAllRecipes(String, boolean)}:
+ * <pre>{@code
+ * RecipeCollection collection = RecipeStorage.loadAllRecipes(directoryPath, true);
+ * }</pre>
+ * Code that edits the ingredient or instruction lists in place should call {@link #materialize()}
+ * first, because the lists returned before materializing are read-only and hold copies of the
+ * cached ingredients: changing one of them changes neither this recipe nor the cache.
+ *
+ * <p>Dependencies:</p>
+ * - Recipe.java
+ * - RecipeStorage.java
+ * - RecipeBodyCache.java
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class LazyRecipe extends Recipe {
+    private final Path filePath;
+    private volatile boolean materialized; // Set only after the lists are filled
+
+    /**
+     * Creates a lazy recipe from the header stored in a manifest entry.
+     *
+     * @param filePath The recipe file the body will be read from.
+     * @param header The manifest entry describing the recipe.
+     */
+    public LazyRecipe(Path filePath, RecipeManifest.Entry header) {
+        super(header.getName(), new ArrayList<>(), new ArrayList<>(), header.getServings(),
+                header.getPrepTime(), header.getCookTime());
+        this.filePath = filePath;
+        setTotalRecipeCalories(header.getTotalCalories());
+        setVersionStamp(header.getChecksum());
+    }
+
+    /**
+     * Returns the recipe file backing this recipe.
+     *
+     * @return The path of the recipe file.
+     */
+    public Path getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Returns whether the ingredients and instructions are currently held by this recipe itself
+     * rather than by the shared cache.
+     *
+     * @return {@code true} if the recipe has been materialized.
+     */
+    public boolean isMaterialized() {
+        return materialized;
+    }
+
+    @Override
+    public List<Ingredient> getIngredients() {
+        if (materialized) {
+            return super.getIngredients();
+        }
+        // The cached body owns its ingredients and is shared, so callers get copies
+        List<Ingredient> cached = body().getIngredients();
+        List<Ingredient> copies = new ArrayList<>(cached.size());
+        for (Ingredient ingredient : cached) {
+            copies.add(IngredientSnapshot.of(ingredient).toIngredient());
+        }
+        return Collections.unmodifiableList(copies);
+    }
+
+    @Override
+    public List<String> getInstructions() {
+        if (materialized) {
+            return super.getInstructions();
+        }
+        return Collections.unmodifiableList(body().getInstructions());
+    }
+
+    @Override
+    public void setIngredients(ArrayList<Ingredient> ingredients) {
+        materialize();
+        super.setIngredients(ingredients);
+    }
+
+    @Override
+    public void setInstructions(List<String> instructions) {
+        materialize();
+        super.setInstructions(instructions);
+    }
+
+    @Override
+    public void addIngredient(Ingredient ingredient) {
+        materialize();
+        super.addIngredient(ingredient);
+    }
+
+    @Override
+    public void addInstruction(String instruction) {
+        materialize();
+        super.addInstruction(instruction);
+    }
+
+    /**
+     * Reads the full recipe from disk into this object so its ingredient and instruction lists
+     * can be edited in place. Calling this more than once has no further effect.
+     *
+     * @return This recipe, for chaining.
+     * @throws UncheckedIOException If the recipe file cannot be read.
+     */
+    public synchronized LazyRecipe materialize() {
+        if (!materialized) {
+            Recipe full = readFromDisk();
+            if (full.getVersionStamp() != getVersionStamp()) {
+                // The file changed since the header was read; take the header from the same content
+                adoptHeader(full);
+            }
+            super.setIngredients(new ArrayList<>(full.getIngredients()));
+            super.setInstructions(new ArrayList<>(full.getInstructions())); // setIngredients recomputed the total
+            setVersionStamp(full.getVersionStamp()); // Edits are based on the content just read
+            materialized = true;
+        }
+        return this;
+    }
+
+    // The body is looked up under the current version stamp, which a save of this recipe updates
+    private synchronized Recipe body() {
+        RecipeBodyCache cache = RecipeStorage.getBodyCache();
+        Recipe body = cache.get(filePath, getVersionStamp());
+        if (body == null) {
+            body = readFromDisk();
+            if (body.getVersionStamp() != getVersionStamp()) {
+                // The file changed since the header was read; describe the content actually read,
+                // so the next access finds it in the cache instead of reading the file again
+                adoptHeader(body);
+                setTotalRecipeCalories(body.getTotalRecipeCalories());
+                setVersionStamp(body.getVersionStamp());
+            }
+            cache.put(filePath, body.getVersionStamp(), body);
+        }
+        return body;
+    }
+
+    private void adoptHeader(Recipe full) {
+        setServings(full.getServings());
+        setPrepTime(full.getPrepTime());
+        setCookTime(full.getCookTime());
+    }
+
+    private Recipe readFromDisk() {
+        try {
+            return RecipeStorage.loadRecipe(filePath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error loading recipe from " + filePath, e);
+        }
+    }
+}
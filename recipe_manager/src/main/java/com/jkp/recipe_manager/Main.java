@@ -3,9 +3,12 @@
  * 
  * The Main class serves as the entry point for the Recipe Manager application.
  * It initializes and displays the graphical user interface (GUI) for managing recipes.
+ * When command-line arguments are given it runs the headless {@link RecipeCli} instead,
+ * without initializing AWT.
  * 
  * <p>Usage:</p>
- * Run this class to start the Recipe Manager application.
+ * Run this class without arguments to start the Recipe Manager application, or with a
+ * command such as {@code stats} or {@code import dump.jsonl} for batch operations.
  * 
  * @author Jon-Kayla Pointer
  * @version 1.0.0
@@ -22,11 +25,16 @@ package com.jkp.recipe_manager;
  */
 public class Main {
     /**
-     * The main method initializes the Recipe Manager GUI and makes it visible.
+     * The main method initializes the Recipe Manager GUI and makes it visible, or runs a
+     * {@link RecipeCli} command when arguments are given.
      * 
-     * @param args Command-line arguments (not used).
+     * @param args Command-line arguments; empty to start the GUI.
      */
     public static void main(String[] args) {
+        if (args.length > 0) {
+            RecipeCli.main(args);
+            return;
+        }
         RecipeManagerGUI gui = new RecipeManagerGUI();
         gui.setVisible(true);
     }
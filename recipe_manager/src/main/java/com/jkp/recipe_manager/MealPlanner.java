@@ -0,0 +1,447 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The MealPlanner class builds meal plans from a recipe collection: for each day it picks recipes
+ * and a number of servings of each so the day's calories come as close as possible to a target,
+ * while respecting constraints such as a maximum prep time, excluded ingredients, and not repeating
+ * a recipe.
+ *
+ * <p>Features:</p>
+ * - Uses calories per serving ({@link Recipe#getCaloriesPerServing()}), so a recipe can fill a meal
+ *   with one or several servings.
+ * - Filters the collection in parallel, then searches with many randomized greedy runs on separate
+ *   threads, each followed by a local improvement pass. The best plan found wins.
+ * - Candidates are kept sorted by calories per serving, so finding the recipe that best fills the
+ *   remaining calories is a binary search; a plan over a library of 100,000 recipes takes well under
+ *   a second.
+ * - The same seed and collection always produce the same plan, however the runs are scheduled.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * MealPlanner.Constraints constraints = MealPlanner.Constraints.builder(2000)
+ *         .days(7).mealsPerDay(3).maxPrepMinutes(30).exclude("peanut").noRepeats(true).build();
+ * MealPlanner.MealPlan plan = new MealPlanner().plan(collection, constraints);
+ * }</pre>
+ *
+ * <p>Dependencies:</p>
+ * - Recipe.java
+ * - RecipeCollection.java
+ * - IngredientMatcher.java
+ *
+ * <p>Notes:</p>
+ * - The search is a heuristic: it finds very close plans quickly but does not prove that no closer
+ *   plan exists.
+ * - Recipes without calories, and recipes whose prep time cannot be read when a limit is set, are
+ *   never planned.
+ * - Checking excluded ingredients reads the bodies of lazy recipes; the other constraints only use
+ *   recipe headers.
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+public class MealPlanner {
+    /**
+     * Number of independent randomized runs per plan.
+     */
+    public static final int DEFAULT_RUNS = 64;
+
+    // Each greedy pick chooses randomly among this many recipes closest to the calories wanted
+    private static final int CHOICES = 16;
+
+    private final long seed;
+    private final int runs;
+
+    /**
+     * Creates a planner with a fixed seed and {@link #DEFAULT_RUNS} runs.
+     */
+    public MealPlanner() {
+        this(0L, DEFAULT_RUNS);
+    }
+
+    /**
+     * Creates a planner.
+     *
+     * @param seed The seed for the randomized runs; different seeds give different plans.
+     * @param runs The number of runs; must be at least 1.
+     */
+    public MealPlanner(long seed, int runs) {
+        if (runs < 1) {
+            throw new IllegalArgumentException("Runs must be at least 1: " + runs);
+        }
+        this.seed = seed;
+        this.runs = runs;
+    }
+
+    /**
+     * Plans meals from a recipe collection.
+     *
+     * @param collection The recipes to choose from.
+     * @param constraints The calorie target and constraints.
+     * @return The best plan found.
+     * @throws IllegalArgumentException If no recipe meets the constraints, or there are too few
+     *                                  to fill every meal without repeats.
+     */
+    public MealPlan plan(RecipeCollection collection, Constraints constraints) {
+        return plan(collection.getRecipes(), constraints);
+    }
+
+    /**
+     * Plans meals from a set of recipes.
+     *
+     * @param recipes The recipes to choose from.
+     * @param constraints The calorie target and constraints.
+     * @return The best plan found.
+     * @throws IllegalArgumentException If no recipe meets the constraints, or there are too few
+     *                                  to fill every meal without repeats.
+     */
+    public MealPlan plan(Collection<? extends Recipe> recipes, Constraints constraints) {
+        long startNanos = System.nanoTime();
+        List<Recipe> candidates = recipes.parallelStream()
+                .map(Recipe.class::cast)
+                .filter(recipe -> accepts(recipe, constraints))
+                .sorted(Comparator.comparingDouble(Recipe::getCaloriesPerServing).thenComparing(Recipe::getName))
+                .toList();
+        int meals = constraints.days() * constraints.mealsPerDay();
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("No recipe meets the constraints");
+        }
+        if (constraints.noRepeats() && candidates.size() < meals) {
+            throw new IllegalArgumentException("Only " + candidates.size() + " recipes meet the constraints, but "
+                    + meals + " meals need different recipes");
+        }
+        double[] calories = new double[candidates.size()];
+        for (int i = 0; i < calories.length; i++) {
+            calories[i] = candidates.get(i).getCaloriesPerServing();
+        }
+
+        // Each run has its own random stream derived from its index, so results do not depend on scheduling
+        Search best = IntStream.range(0, runs).parallel()
+                .mapToObj(run -> new Search(calories, constraints, run, new SplittableRandom(seed + run * 0x9E3779B97F4A7C15L)).run())
+                .min(Comparator.comparingDouble((Search search) -> search.totalError).thenComparingInt(search -> search.run))
+                .orElseThrow();
+        return best.toPlan(candidates, calories, constraints, System.nanoTime() - startNanos);
+    }
+
+    private static boolean accepts(Recipe recipe, Constraints constraints) {
+        if (!(recipe.getCaloriesPerServing() > 0)) {
+            return false;
+        }
+        if (constraints.maxPrepMinutes() >= 0) {
+            int prep = Recipe.parseMinutes(recipe.getPrepTime());
+            if (prep < 0 || prep > constraints.maxPrepMinutes()) {
+                return false;
+            }
+        }
+        if (!constraints.excludedIngredients().isEmpty()) {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                String name = " " + IngredientMatcher.normalize(ingredient.getName()) + " ";
+                for (String excluded : constraints.excludedIngredients()) {
+                    if (name.contains(" " + excluded + " ")) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * One randomized greedy run followed by a local improvement pass.
+     */
+    private static final class Search {
+        private final double[] calories;
+        private final Constraints constraints;
+        private final SplittableRandom random;
+        private final boolean[] used;
+        private final int[] recipes;
+        private final int[] servings;
+        private final int run;
+        private double totalError;
+
+        Search(double[] calories, Constraints constraints, int run, SplittableRandom random) {
+            this.calories = calories;
+            this.constraints = constraints;
+            this.random = random;
+            this.used = new boolean[calories.length];
+            int meals = constraints.days() * constraints.mealsPerDay();
+            this.recipes = new int[meals];
+            this.servings = new int[meals];
+            this.run = run;
+        }
+
+        Search run() {
+            int perDay = constraints.mealsPerDay();
+            double target = constraints.dailyCalories();
+            for (int day = 0; day < constraints.days(); day++) {
+                double remaining = target;
+                for (int meal = 0; meal < perDay; meal++) {
+                    int slot = day * perDay + meal;
+                    if (meal < perDay - 1) {
+                        // Aim for an even share of what is left, with some variety in servings and recipe
+                        int count = 1 + random.nextInt(constraints.maxServings());
+                        int choice = nearbyUnused(remaining / (perDay - meal) / count);
+                        assign(slot, choice, count);
+                    } else {
+                        bestFit(slot, remaining);
+                    }
+                    remaining -= calories[recipes[slot]] * servings[slot];
+                }
+            }
+            improve();
+            totalError = 0.0;
+            for (int day = 0; day < constraints.days(); day++) {
+                totalError += Math.abs(target - dayCalories(day));
+            }
+            return this;
+        }
+
+        // Replaces each meal with the best fit for the rest of its day when that brings the day closer
+        private void improve() {
+            int perDay = constraints.mealsPerDay();
+            for (int day = 0; day < constraints.days(); day++) {
+                for (int meal = 0; meal < perDay; meal++) {
+                    int slot = day * perDay + meal;
+                    int oldRecipe = recipes[slot];
+                    int oldServings = servings[slot];
+                    double before = Math.abs(constraints.dailyCalories() - dayCalories(day));
+                    double others = dayCalories(day) - calories[oldRecipe] * oldServings;
+                    release(slot);
+                    bestFit(slot, constraints.dailyCalories() - others);
+                    if (Math.abs(constraints.dailyCalories() - dayCalories(day)) >= before) {
+                        release(slot);
+                        assign(slot, oldRecipe, oldServings);
+                    }
+                }
+            }
+        }
+
+        // Chooses the recipe and serving count closest to the wanted calories
+        private void bestFit(int slot, double wanted) {
+            int bestRecipe = -1;
+            int bestServings = 1;
+            double bestError = Double.POSITIVE_INFINITY;
+            for (int count = 1; count <= constraints.maxServings(); count++) {
+                int candidate = closestUnused(wanted / count);
+                double error = Math.abs(wanted - calories[candidate] * count);
+                if (error < bestError) {
+                    bestError = error;
+                    bestRecipe = candidate;
+                    bestServings = count;
+                }
+            }
+            assign(slot, bestRecipe, bestServings);
+        }
+
+        // Picks at random among the unused recipes closest to a calorie value
+        private int nearbyUnused(double wanted) {
+            int[] nearby = new int[CHOICES];
+            int found = 0;
+            int low = insertionPoint(wanted) - 1;
+            int high = low + 1;
+            while (found < CHOICES && (low >= 0 || high < calories.length)) {
+                boolean takeLow = high >= calories.length
+                        || (low >= 0 && wanted - calories[low] <= calories[high] - wanted);
+                int index = takeLow ? low-- : high++;
+                if (!isTaken(index)) {
+                    nearby[found++] = index;
+                }
+            }
+            return nearby[random.nextInt(found)];
+        }
+
+        private int closestUnused(double wanted) {
+            int low = insertionPoint(wanted) - 1;
+            int high = low + 1;
+            while (low >= 0 || high < calories.length) {
+                boolean takeLow = high >= calories.length
+                        || (low >= 0 && wanted - calories[low] <= calories[high] - wanted);
+                int index = takeLow ? low-- : high++;
+                if (!isTaken(index)) {
+                    return index;
+                }
+            }
+            throw new IllegalStateException("No unused recipe left");
+        }
+
+        private int insertionPoint(double wanted) {
+            int index = Arrays.binarySearch(calories, wanted);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        private boolean isTaken(int index) {
+            return constraints.noRepeats() && used[index];
+        }
+
+        private void assign(int slot, int recipe, int count) {
+            recipes[slot] = recipe;
+            servings[slot] = count;
+            used[recipe] = true;
+        }
+
+        private void release(int slot) {
+            used[recipes[slot]] = false;
+        }
+
+        private double dayCalories(int day) {
+            double total = 0.0;
+            for (int slot = day * constraints.mealsPerDay(); slot < (day + 1) * constraints.mealsPerDay(); slot++) {
+                total += calories[recipes[slot]] * servings[slot];
+            }
+            return total;
+        }
+
+        MealPlan toPlan(List<Recipe> candidates, double[] calories, Constraints constraints, long elapsedNanos) {
+            List<DayPlan> days = new ArrayList<>(constraints.days());
+            double worst = 0.0;
+            for (int day = 0; day < constraints.days(); day++) {
+                List<Meal> meals = new ArrayList<>(constraints.mealsPerDay());
+                for (int slot = day * constraints.mealsPerDay(); slot < (day + 1) * constraints.mealsPerDay(); slot++) {
+                    meals.add(new Meal(candidates.get(recipes[slot]).getName(), servings[slot],
+                            calories[recipes[slot]] * servings[slot]));
+                }
+                double total = dayCalories(day);
+                worst = Math.max(worst, Math.abs(constraints.dailyCalories() - total));
+                days.add(new DayPlan(day + 1, List.copyOf(meals), total));
+            }
+            return new MealPlan(List.copyOf(days), constraints.dailyCalories(), worst, candidates.size(), elapsedNanos);
+        }
+    }
+
+    /**
+     * The calorie target and constraints for a plan. Create one with {@link #builder(double)}.
+     *
+     * @param dailyCalories The calories to aim for each day.
+     * @param days The number of days to plan.
+     * @param mealsPerDay The number of meals each day.
+     * @param maxServings The most servings of one recipe in a meal.
+     * @param maxPrepMinutes The longest prep time allowed, or -1 for no limit.
+     * @param excludedIngredients Normalized ingredient words that rule a recipe out; "peanut" also
+     *                            excludes "peanut butter".
+     * @param noRepeats Whether each recipe may be used only once in the plan.
+     */
+    public record Constraints(double dailyCalories, int days, int mealsPerDay, int maxServings, int maxPrepMinutes,
+                              Set<String> excludedIngredients, boolean noRepeats) {
+        public Constraints {
+            if (!(dailyCalories > 0)) {
+                throw new IllegalArgumentException("Daily calories must be positive: " + dailyCalories);
+            }
+            if (days < 1 || mealsPerDay < 1 || maxServings < 1) {
+                throw new IllegalArgumentException("Days, meals per day, and servings must be at least 1");
+            }
+            excludedIngredients = Set.copyOf(excludedIngredients);
+        }
+
+        /**
+         * Starts constraints for one day of three meals of at most two servings each, with no
+         * other limits.
+         *
+         * @param dailyCalories The calories to aim for each day.
+         * @return A new builder.
+         */
+        public static Builder builder(double dailyCalories) {
+            return new Builder(dailyCalories);
+        }
+    }
+
+    /**
+     * Builds {@link Constraints}.
+     */
+    public static final class Builder {
+        private final double dailyCalories;
+        private int days = 1;
+        private int mealsPerDay = 3;
+        private int maxServings = 2;
+        private int maxPrepMinutes = -1;
+        private final Set<String> excludedIngredients = new LinkedHashSet<>();
+        private boolean noRepeats;
+
+        private Builder(double dailyCalories) {
+            this.dailyCalories = dailyCalories;
+        }
+
+        public Builder days(int days) {
+            this.days = days;
+            return this;
+        }
+
+        public Builder mealsPerDay(int mealsPerDay) {
+            this.mealsPerDay = mealsPerDay;
+            return this;
+        }
+
+        public Builder maxServings(int maxServings) {
+            this.maxServings = maxServings;
+            return this;
+        }
+
+        public Builder maxPrepMinutes(int maxPrepMinutes) {
+            this.maxPrepMinutes = maxPrepMinutes;
+            return this;
+        }
+
+        public Builder exclude(String ingredient) {
+            this.excludedIngredients.add(IngredientMatcher.normalize(ingredient));
+            return this;
+        }
+
+        public Builder noRepeats(boolean noRepeats) {
+            this.noRepeats = noRepeats;
+            return this;
+        }
+
+        public Constraints build() {
+            return new Constraints(dailyCalories, days, mealsPerDay, maxServings, maxPrepMinutes,
+                    excludedIngredients, noRepeats);
+        }
+    }
+
+    /**
+     * One meal in a plan.
+     *
+     * @param recipeName The recipe's name.
+     * @param servings The number of servings.
+     * @param calories The calories of those servings.
+     */
+    public record Meal(String recipeName, int servings, double calories) {
+    }
+
+    /**
+     * The meals of one day.
+     *
+     * @param day The day number, starting at 1.
+     * @param meals The meals, in order.
+     * @param calories The day's total calories.
+     */
+    public record DayPlan(int day, List<Meal> meals, double calories) {
+    }
+
+    /**
+     * A complete plan.
+     *
+     * @param days The days, in order.
+     * @param dailyTarget The daily calorie target.
+     * @param maxDeviation The largest difference between a day's calories and the target.
+     * @param candidates The number of recipes that met the constraints.
+     * @param elapsedNanos The time taken to plan.
+     */
+    public record MealPlan(List<DayPlan> days, double dailyTarget, double maxDeviation, int candidates,
+                           long elapsedNanos) {
+        public double totalCalories() {
+            return days.stream().mapToDouble(DayPlan::calories).sum();
+        }
+    }
+}
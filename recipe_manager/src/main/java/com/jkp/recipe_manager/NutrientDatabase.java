@@ -0,0 +1,376 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The NutrientDatabase class provides calorie values for common ingredients from a small nutrient
+ * table bundled with the application ({@code resources/nutrients.csv}). The ingredient dialogs use it
+ * to fill in the calories per unit as soon as the user types a known ingredient name, instead of
+ * making the user look the value up by hand.
+ *
+ * <p>Features:</p>
+ * - Exact lookup by ingredient name, ignoring case and extra spaces, with simple fallbacks for
+ *   plurals ("eggs") and leading descriptions ("large eggs", "chopped onion").
+ * - Prefix lookup for suggestions as the user types.
+ * - Converts the stored calories per 100 g into calories per unit for every {@link Ingredient.Unit},
+ *   using the stored weight of one cup or one piece.
+ * - The table is loaded once on a background thread; lookups never block the Swing event thread.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * NutrientDatabase.shared();  // Start loading early, for example when the main window opens
+ * String calories = NutrientDatabase.suggestCaloriesPerUnit("butter", "tbsp");  // "101.72", or null
+ * }</pre>
+ *
+ * <p>Dependencies:</p>
+ * - Ingredient.java
+ * - resources/nutrients.csv
+ *
+ * <p>Notes:</p>
+ * - Names are kept sorted in one packed UTF-8 byte array with an offset table and looked up by
+ *   binary search, so the table costs a few bytes per character plus three floats per ingredient.
+ * - Values are approximations meant for recipe-level calorie estimates.
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+public class NutrientDatabase {
+    /**
+     * Location of the bundled nutrient table, relative to the working directory like the other
+     * application resources.
+     */
+    public static final String DEFAULT_PATH = "./src/main/java/resources/nutrients.csv";
+
+    private static volatile CompletableFuture<NutrientDatabase> shared;
+
+    private final byte[] namePool;
+    private final int[] nameOffsets;
+    private final float[] kcalPer100g;
+    private final float[] gramsPerCup;
+    private final float[] gramsPerPiece;
+
+    private NutrientDatabase(byte[] namePool, int[] nameOffsets, float[] kcalPer100g,
+                             float[] gramsPerCup, float[] gramsPerPiece) {
+        this.namePool = namePool;
+        this.nameOffsets = nameOffsets;
+        this.kcalPer100g = kcalPer100g;
+        this.gramsPerCup = gramsPerCup;
+        this.gramsPerPiece = gramsPerPiece;
+    }
+
+    /**
+     * Returns the shared database loaded from {@link #DEFAULT_PATH}. The first call starts loading
+     * on a background thread; later calls return the same future. If the table cannot be read, the
+     * error is logged and the future completes with an empty database.
+     *
+     * @return A future for the shared database.
+     */
+    public static CompletableFuture<NutrientDatabase> shared() {
+        CompletableFuture<NutrientDatabase> result = shared;
+        if (result == null) {
+            synchronized (NutrientDatabase.class) {
+                result = shared;
+                if (result == null) {
+                    result = new CompletableFuture<>();
+                    shared = result;
+                    CompletableFuture<NutrientDatabase> loading = result;
+                    Thread.ofVirtual().name("nutrient-database-loader").start(() -> {
+                        try {
+                            loading.complete(load(Paths.get(DEFAULT_PATH)));
+                        } catch (IOException | IllegalArgumentException e) {
+                            System.err.println("Error loading nutrient database: " + e.getMessage());
+                            loading.complete(empty());
+                        }
+                    });
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Suggests the calories per unit for an ingredient, for filling in an ingredient dialog. This
+     * never blocks: while the shared database is still loading it returns {@code null}.
+     *
+     * @param ingredientName The ingredient name as typed by the user.
+     * @param unitString The selected unit, such as "g" or "cup".
+     * @return The calories per unit formatted for a text field, or {@code null} if unknown.
+     */
+    public static String suggestCaloriesPerUnit(String ingredientName, String unitString) {
+        NutrientDatabase database = shared().getNow(null);
+        Ingredient.Unit unit = unitString == null ? null : Ingredient.fromString(unitString);
+        if (database == null || unit == null) {
+            return null;
+        }
+        Nutrient nutrient = database.find(ingredientName);
+        if (nutrient == null) {
+            return null;
+        }
+        double calories = nutrient.caloriesPer(unit);
+        return Double.isNaN(calories) ? null : new DecimalFormat("#.##").format(calories); // DecimalFormat is not thread-safe
+    }
+
+    /**
+     * Returns a database with no entries.
+     *
+     * @return An empty database.
+     */
+    public static NutrientDatabase empty() {
+        return new NutrientDatabase(new byte[0], new int[1], new float[0], new float[0], new float[0]);
+    }
+
+    /**
+     * Loads a nutrient table from a CSV file.
+     *
+     * @param path The CSV file.
+     * @return The database.
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If a row is malformed.
+     */
+    public static NutrientDatabase load(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    /**
+     * Parses a nutrient table with the columns {@code name,kcal_per_100g,grams_per_cup,grams_per_piece}.
+     * Lines starting with {@code #} and the header line are skipped. When a name appears twice, the
+     * last row wins.
+     *
+     * @param input The CSV input.
+     * @return The database.
+     * @throws IOException If the input cannot be read.
+     * @throws IllegalArgumentException If a row is malformed.
+     */
+    public static NutrientDatabase parse(Reader input) throws IOException {
+        BufferedReader reader = input instanceof BufferedReader buffered ? buffered : new BufferedReader(input);
+        List<Row> rows = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#") || line.startsWith("name,")) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            if (fields.length != 4) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected 4 columns but found " + fields.length);
+            }
+            try {
+                rows.add(new Row(normalize(fields[0]).getBytes(StandardCharsets.UTF_8),
+                        Float.parseFloat(fields[1].trim()), parseWeight(fields[2]), parseWeight(fields[3])));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+
+        // A stable sort keeps duplicates in file order, so the last one is kept below
+        rows.sort((a, b) -> Arrays.compareUnsigned(a.name, b.name));
+        List<Row> unique = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (!unique.isEmpty() && Arrays.equals(unique.get(unique.size() - 1).name, row.name)) {
+                unique.set(unique.size() - 1, row);
+            } else {
+                unique.add(row);
+            }
+        }
+
+        int count = unique.size();
+        int[] offsets = new int[count + 1];
+        float[] kcal = new float[count];
+        float[] cup = new float[count];
+        float[] piece = new float[count];
+        int poolSize = 0;
+        for (Row row : unique) {
+            poolSize += row.name.length;
+        }
+        byte[] pool = new byte[poolSize];
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            Row row = unique.get(i);
+            offsets[i] = position;
+            System.arraycopy(row.name, 0, pool, position, row.name.length);
+            position += row.name.length;
+            kcal[i] = row.kcalPer100g;
+            cup[i] = row.gramsPerCup;
+            piece[i] = row.gramsPerPiece;
+        }
+        offsets[count] = position;
+        return new NutrientDatabase(pool, offsets, kcal, cup, piece);
+    }
+
+    public int size() {
+        return kcalPer100g.length;
+    }
+
+    /**
+     * Returns every ingredient name in the table, in alphabetical order.
+     *
+     * @return The normalized ingredient names.
+     */
+    public List<String> names() {
+        List<String> names = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            names.add(new String(namePool, nameOffsets[i], nameOffsets[i + 1] - nameOffsets[i], StandardCharsets.UTF_8));
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Finds an ingredient by name. If there is no exact match, singular forms are tried, then the
+     * name without its leading words, so "2 large eggs" finds "egg".
+     *
+     * @param ingredientName The ingredient name.
+     * @return The nutrient entry, or {@code null} if none matches.
+     */
+    public Nutrient find(String ingredientName) {
+        if (ingredientName == null) {
+            return null;
+        }
+        String name = normalize(ingredientName);
+        while (!name.isEmpty()) {
+            for (String candidate : singularForms(name)) {
+                int index = indexOf(candidate.getBytes(StandardCharsets.UTF_8));
+                if (index >= 0) {
+                    return entry(index);
+                }
+            }
+            int space = name.indexOf(' ');
+            name = space < 0 ? "" : name.substring(space + 1);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the ingredients whose names start with a prefix, in alphabetical order.
+     *
+     * @param prefix The start of the name.
+     * @param limit The most entries to return.
+     * @return The matching entries.
+     */
+    public List<Nutrient> findByPrefix(String prefix, int limit) {
+        byte[] key = normalize(prefix).getBytes(StandardCharsets.UTF_8);
+        int index = indexOf(key);
+        if (index < 0) {
+            index = -index - 1; // Insertion point: the first name not less than the prefix
+        }
+        List<Nutrient> matches = new ArrayList<>();
+        for (; index < size() && matches.size() < limit && startsWith(index, key); index++) {
+            matches.add(entry(index));
+        }
+        return Collections.unmodifiableList(matches);
+    }
+
+    // Binary search over the packed names; returns -(insertion point) - 1 when not found
+    private int indexOf(byte[] key) {
+        int low = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Arrays.compareUnsigned(namePool, nameOffsets[mid], nameOffsets[mid + 1], key, 0, key.length);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private boolean startsWith(int index, byte[] prefix) {
+        int start = nameOffsets[index];
+        return nameOffsets[index + 1] - start >= prefix.length
+                && Arrays.equals(namePool, start, start + prefix.length, prefix, 0, prefix.length);
+    }
+
+    private Nutrient entry(int index) {
+        String name = new String(namePool, nameOffsets[index], nameOffsets[index + 1] - nameOffsets[index], StandardCharsets.UTF_8);
+        return new Nutrient(name, kcalPer100g[index], gramsPerCup[index], gramsPerPiece[index]);
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    static List<String> singularForms(String name) {
+        List<String> forms = new ArrayList<>(3);
+        forms.add(name);
+        if (name.endsWith("ies")) {
+            forms.add(name.substring(0, name.length() - 3) + "y");
+        } else if (name.endsWith("es")) {
+            forms.add(name.substring(0, name.length() - 2));
+            forms.add(name.substring(0, name.length() - 1));
+        } else if (name.endsWith("s")) {
+            forms.add(name.substring(0, name.length() - 1));
+        }
+        return forms;
+    }
+
+    private static float parseWeight(String field) {
+        String value = field.trim();
+        return value.isEmpty() ? Float.NaN : Float.parseFloat(value);
+    }
+
+    private record Row(byte[] name, float kcalPer100g, float gramsPerCup, float gramsPerPiece) {
+    }
+
+    /**
+     * The calorie data for one ingredient.
+     *
+     * @param name The normalized ingredient name.
+     * @param kcalPer100g Calories per 100 grams.
+     * @param gramsPerCup The weight of one cup in grams, or NaN if not applicable.
+     * @param gramsPerPiece The weight of one piece in grams, or NaN if not applicable.
+     */
+    public record Nutrient(String name, double kcalPer100g, double gramsPerCup, double gramsPerPiece) {
+        /**
+         * Returns the calories in one of the given unit. Volume units use the weight of a cup and
+         * the same conversion factors as {@link Ingredient}; pieces use the weight of one piece.
+         *
+         * @param unit The unit.
+         * @return The calories per unit, or NaN if the needed weight is unknown.
+         */
+        public double caloriesPer(Ingredient.Unit unit) {
+            double perGram = kcalPer100g / 100.0;
+            return switch (unit) {
+                case G -> perGram;
+                case KG -> perGram * 1000.0;
+                case CUP -> caloriesPerCup();
+                case TBSP -> caloriesPerCup() / 16.0;
+                case TSP -> caloriesPerCup() / 48.0;
+                case ML -> caloriesPerCup() / 240.0;
+                case L -> caloriesPerCup() * 4.22675;
+                case PCS -> perGram * gramsPerPiece;
+            };
+        }
+
+        /**
+         * Returns the calories in one cup.
+         *
+         * @return The calories per cup, or NaN if the weight of a cup is unknown.
+         */
+        public double caloriesPerCup() {
+            return kcalPer100g / 100.0 * gramsPerCup;
+        }
+    }
+}
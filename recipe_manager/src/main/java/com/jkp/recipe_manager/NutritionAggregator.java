@@ -0,0 +1,370 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The NutritionAggregator class computes calorie statistics over a whole recipe library in bulk.
+ * Instead of walking Recipe and Ingredient objects one at a time, the library is first flattened
+ * into a {@link NutritionTable}, a set of primitive arrays holding every ingredient's quantity and
+ * calorie rate side by side. The statistics are then computed with tight loops over those arrays,
+ * using the {@code jdk.incubator.vector} API when the JVM provides it.
+ *
+ * <p>Features:</p>
+ * - Per-recipe calorie totals and calories per serving.
+ * - The library-wide total, and the minimum and maximum per recipe and per serving.
+ * - A histogram of calories per serving with a chosen number of equal-width bins.
+ * - SIMD kernels when the JVM is started with {@code --add-modules jdk.incubator.vector}, and a
+ *   scalar fallback otherwise; the two agree up to rounding in the last few bits.
+ * - Large libraries are split into chunks that are summed in parallel.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * NutritionAggregator.NutritionTable table = NutritionAggregator.NutritionTable.of(collection.getRecipes());
+ * NutritionAggregator.NutritionStats stats = new NutritionAggregator().aggregate(table, 20);
+ * System.out.println(stats.libraryTotal() + " calories in " + table.recipeCount() + " recipes");
+ * }</pre>
+ *
+ * <p>Dependencies:</p>
+ * - Recipe.java
+ * - RecipeSnapshot.java
+ * - VectorNutritionKernel.java (only when the vector module is present)
+ *
+ * <p>Notes:</p>
+ * - A table is a copy. Build a new one after the library changes; for a single running total,
+ *   {@link RecipeCollection#getTotalCalories()} is already kept up to date.
+ * - Totals use the same rule as {@link Ingredient#calculateTotalCalories()}: calories per cup for
+ *   cup measurements and calories per unit for everything else.
+ * - Vector and scalar sums may differ in the last few bits because they add in a different order.
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+public class NutritionAggregator {
+    // Below this many recipes, splitting the work across threads costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 16_384;
+    private static final int CHUNK_SIZE = 4_096;
+
+    private static final Kernel BEST_KERNEL = selectKernel();
+
+    private final Kernel kernel;
+
+    /**
+     * Creates an aggregator that uses vector instructions when they are available.
+     */
+    public NutritionAggregator() {
+        this(BEST_KERNEL);
+    }
+
+    private NutritionAggregator(Kernel kernel) {
+        this.kernel = kernel;
+    }
+
+    /**
+     * Returns an aggregator that always uses the scalar loops, for comparison and benchmarking.
+     *
+     * @return A scalar aggregator.
+     */
+    public static NutritionAggregator scalar() {
+        return new NutritionAggregator(new ScalarKernel());
+    }
+
+    /**
+     * Returns whether this aggregator uses the vector API.
+     *
+     * @return {@code true} if SIMD kernels are in use.
+     */
+    public boolean isVectorized() {
+        return !(kernel instanceof ScalarKernel);
+    }
+
+    /**
+     * Computes the calorie statistics of every recipe in a table.
+     *
+     * @param table The flattened recipes.
+     * @param histogramBins The number of equal-width bins between the lowest and highest calories per serving.
+     * @return The statistics.
+     */
+    public NutritionStats aggregate(NutritionTable table, int histogramBins) {
+        if (histogramBins < 1) {
+            throw new IllegalArgumentException("histogramBins must be at least 1: " + histogramBins);
+        }
+        int recipes = table.recipeCount();
+        double[] totals = new double[recipes];
+        double[] perServing = new double[recipes];
+
+        if (recipes >= PARALLEL_THRESHOLD) {
+            int chunks = (recipes + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                int from = chunk * CHUNK_SIZE;
+                computeTotals(table, totals, perServing, from, Math.min(recipes, from + CHUNK_SIZE));
+            });
+        } else {
+            computeTotals(table, totals, perServing, 0, recipes);
+        }
+
+        double minPerServing = kernel.min(perServing, recipes);
+        double maxPerServing = kernel.max(perServing, recipes);
+        long[] histogram = new long[histogramBins];
+        double binWidth = 0.0;
+        if (recipes > 0) {
+            // A library where every recipe has the same value still gets one usable bin
+            binWidth = maxPerServing > minPerServing ? (maxPerServing - minPerServing) / histogramBins : 1.0;
+            kernel.histogram(perServing, recipes, minPerServing, binWidth, histogram);
+        }
+
+        return new NutritionStats(totals, perServing, kernel.sum(totals, recipes),
+                kernel.min(totals, recipes), kernel.max(totals, recipes),
+                minPerServing, maxPerServing, minPerServing, binWidth, histogram);
+    }
+
+    private void computeTotals(NutritionTable table, double[] totals, double[] perServing, int from, int to) {
+        int[] offsets = table.offsets;
+        for (int recipe = from; recipe < to; recipe++) {
+            totals[recipe] = kernel.dot(table.quantities, table.rates, offsets[recipe], offsets[recipe + 1]);
+        }
+        kernel.divide(totals, table.servings, perServing, from, to);
+    }
+
+    private static Kernel selectKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new VectorNutritionKernel();
+            } catch (LinkageError e) {
+                System.err.println("Vector API unavailable, using scalar nutrition kernel: " + e);
+            }
+        }
+        return new ScalarKernel();
+    }
+
+    /**
+     * The primitive-array operations the aggregator is built from.
+     */
+    interface Kernel {
+        /** Returns the sum of {@code a[i] * b[i]} for {@code from <= i < to}. */
+        double dot(double[] a, double[] b, int from, int to);
+
+        /** Stores {@code numerators[i] / denominators[i]}, or 0 where the denominator is not positive. */
+        void divide(double[] numerators, double[] denominators, double[] out, int from, int to);
+
+        double sum(double[] values, int length);
+
+        /** Returns the smallest value, or 0 if {@code length} is 0. */
+        double min(double[] values, int length);
+
+        /** Returns the largest value, or 0 if {@code length} is 0. */
+        double max(double[] values, int length);
+
+        /** Counts each value into {@code counts[(value - low) / binWidth]}, clamped to the valid bins. */
+        void histogram(double[] values, int length, double low, double binWidth, long[] counts);
+    }
+
+    /**
+     * Plain loops, used when the vector module is not available.
+     */
+    static final class ScalarKernel implements Kernel {
+        @Override
+        public double dot(double[] a, double[] b, int from, int to) {
+            double sum = 0.0;
+            for (int i = from; i < to; i++) {
+                sum += a[i] * b[i];
+            }
+            return sum;
+        }
+
+        @Override
+        public void divide(double[] numerators, double[] denominators, double[] out, int from, int to) {
+            for (int i = from; i < to; i++) {
+                out[i] = denominators[i] > 0 ? numerators[i] / denominators[i] : 0.0;
+            }
+        }
+
+        @Override
+        public double sum(double[] values, int length) {
+            double sum = 0.0;
+            for (int i = 0; i < length; i++) {
+                sum += values[i];
+            }
+            return sum;
+        }
+
+        @Override
+        public double min(double[] values, int length) {
+            if (length == 0) {
+                return 0.0;
+            }
+            double min = values[0];
+            for (int i = 1; i < length; i++) {
+                min = Math.min(min, values[i]);
+            }
+            return min;
+        }
+
+        @Override
+        public double max(double[] values, int length) {
+            if (length == 0) {
+                return 0.0;
+            }
+            double max = values[0];
+            for (int i = 1; i < length; i++) {
+                max = Math.max(max, values[i]);
+            }
+            return max;
+        }
+
+        @Override
+        public void histogram(double[] values, int length, double low, double binWidth, long[] counts) {
+            int lastBin = counts.length - 1;
+            double scale = 1.0 / binWidth;
+            for (int i = 0; i < length; i++) {
+                double bin = Math.min(Math.max((values[i] - low) * scale, 0.0), lastBin);
+                counts[(int) bin]++;
+            }
+        }
+    }
+
+    /**
+     * A recipe library flattened into primitive arrays. Ingredient {@code i} of recipe {@code r} is
+     * stored at index {@code offsets[r] + i} of {@link #quantities} and {@link #rates}.
+     */
+    public static final class NutritionTable {
+        private final String[] names;
+        private final double[] servings;
+        private final int[] offsets;
+        private final double[] quantities;
+        private final double[] rates;
+
+        private NutritionTable(String[] names, double[] servings, int[] offsets, double[] quantities, double[] rates) {
+            this.names = names;
+            this.servings = servings;
+            this.offsets = offsets;
+            this.quantities = quantities;
+            this.rates = rates;
+        }
+
+        /**
+         * Flattens recipes into a table. Lazily loaded recipes have their bodies read.
+         *
+         * @param recipes The recipes.
+         * @return The table.
+         */
+        public static NutritionTable of(Collection<? extends Recipe> recipes) {
+            int ingredientCount = 0;
+            for (Recipe recipe : recipes) {
+                ingredientCount += recipe.getIngredients().size();
+            }
+            Builder builder = new Builder(recipes.size(), ingredientCount);
+            for (Recipe recipe : recipes) {
+                builder.startRecipe(recipe.getName(), recipe.getServings());
+                for (Ingredient ingredient : recipe.getIngredients()) {
+                    double rate = "cup".equals(ingredient.getUnit())
+                            ? ingredient.getCaloriesPerCup() : ingredient.getCaloriesPerUnit();
+                    builder.addIngredient(ingredient.getQuantity(), rate);
+                }
+            }
+            return builder.build();
+        }
+
+        /**
+         * Flattens recipe snapshots into a table.
+         *
+         * @param recipes The snapshots.
+         * @return The table.
+         */
+        public static NutritionTable ofSnapshots(Collection<RecipeSnapshot> recipes) {
+            int ingredientCount = 0;
+            for (RecipeSnapshot recipe : recipes) {
+                ingredientCount += recipe.ingredients().size();
+            }
+            Builder builder = new Builder(recipes.size(), ingredientCount);
+            for (RecipeSnapshot recipe : recipes) {
+                builder.startRecipe(recipe.name(), recipe.servings());
+                for (IngredientSnapshot ingredient : recipe.ingredients()) {
+                    double rate = ingredient.unit() == Ingredient.Unit.CUP
+                            ? ingredient.caloriesPerCup() : ingredient.caloriesPerUnit();
+                    builder.addIngredient(ingredient.quantity(), rate);
+                }
+            }
+            return builder.build();
+        }
+
+        public int recipeCount() {
+            return names.length;
+        }
+
+        public int ingredientCount() {
+            return quantities.length;
+        }
+
+        /**
+         * Returns the name of the recipe at an index, matching the arrays in {@link NutritionStats}.
+         *
+         * @param recipe The recipe index.
+         * @return The recipe name.
+         */
+        public String nameOf(int recipe) {
+            return names[recipe];
+        }
+
+        private static final class Builder {
+            private final String[] names;
+            private final double[] servings;
+            private final int[] offsets;
+            private final double[] quantities;
+            private final double[] rates;
+            private int recipe = -1;
+            private int ingredient;
+
+            Builder(int recipeCount, int ingredientCount) {
+                names = new String[recipeCount];
+                servings = new double[recipeCount];
+                offsets = new int[recipeCount + 1];
+                quantities = new double[ingredientCount];
+                rates = new double[ingredientCount];
+            }
+
+            void startRecipe(String name, int recipeServings) {
+                recipe++;
+                names[recipe] = name;
+                servings[recipe] = recipeServings;
+                offsets[recipe] = ingredient;
+            }
+
+            void addIngredient(double quantity, double rate) {
+                quantities[ingredient] = quantity;
+                rates[ingredient] = rate;
+                ingredient++;
+            }
+
+            NutritionTable build() {
+                offsets[names.length] = ingredient;
+                return new NutritionTable(names, servings, offsets, quantities, rates);
+            }
+        }
+    }
+
+    /**
+     * The statistics for a table. Array entries line up with the table's recipe indexes; the
+     * arrays belong to the caller and are not copied.
+     *
+     * @param recipeTotals The total calories of each recipe.
+     * @param caloriesPerServing The calories per serving of each recipe, 0 where servings is not positive.
+     * @param libraryTotal The sum of all recipe totals.
+     * @param minTotal The smallest recipe total.
+     * @param maxTotal The largest recipe total.
+     * @param minPerServing The smallest calories per serving.
+     * @param maxPerServing The largest calories per serving.
+     * @param histogramLow The lower edge of the first histogram bin.
+     * @param histogramBinWidth The width of each histogram bin.
+     * @param histogram The number of recipes whose calories per serving fall in each bin; the last
+     *                  bin includes its upper edge.
+     */
+    public record NutritionStats(double[] recipeTotals, double[] caloriesPerServing, double libraryTotal,
+                                 double minTotal, double maxTotal, double minPerServing, double maxPerServing,
+                                 double histogramLow, double histogramBinWidth, long[] histogram) {
+    }
+}
@@ -0,0 +1,408 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The PersistentRecipeMap class is an immutable map from keys to {@link Recipe} objects, built as a
+ * hash array mapped trie. Adding or removing a recipe returns a new map that shares every untouched
+ * branch with the old one, so a change copies only the handful of small nodes on the path to the
+ * changed key (at most seven levels of 32-way nodes) instead of the whole library.
+ *
+ * <p>Features:</p>
+ * - Lookups, inserts, and removals in effectively constant time.
+ * - Old versions stay valid and unchanged after new versions are created.
+ * - Safe to share between threads without locking, because no node is ever modified.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * PersistentRecipeMap v1 = PersistentRecipeMap.empty().with("Lola_s_lumpia.json", lumpia);
+ * PersistentRecipeMap v2 = v1.with("Sizzling_Sisig.json", sisig); // v1 still holds one recipe
+ * }</pre>
+ *
+ * <p>Notes:</p>
+ * - The map is immutable, but the {@link Recipe} objects stored in it are not; callers that need
+ *   stable values, like {@link RecipeLibrary}, store copies the rest of the program never sees.
+ *
+ * @author Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+public final class PersistentRecipeMap {
+    private static final int BITS_PER_LEVEL = 5;
+    private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+
+    private static final PersistentRecipeMap EMPTY = new PersistentRecipeMap(BitmapNode.EMPTY, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentRecipeMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @return An empty PersistentRecipeMap.
+     */
+    public static PersistentRecipeMap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the recipe stored under a key.
+     *
+     * @param key The key to look up.
+     * @return The recipe, or {@code null} if the key is not present.
+     */
+    public Recipe get(String key) {
+        return root.get(key, hash(key), 0);
+    }
+
+    /**
+     * Returns whether a key is present.
+     *
+     * @param key The key to look up.
+     * @return {@code true} if the map holds a recipe for the key.
+     */
+    public boolean containsKey(String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns a map with the given recipe stored under the key, replacing any previous recipe.
+     *
+     * @param key The key.
+     * @param recipe The recipe to store; must not be {@code null}.
+     * @return The new map, or this map if it already holds exactly this recipe under the key.
+     */
+    public PersistentRecipeMap with(String key, Recipe recipe) {
+        if (recipe == null) {
+            throw new IllegalArgumentException("Recipe must not be null");
+        }
+        boolean[] added = new boolean[1];
+        Node newRoot = root.put(key, hash(key), recipe, 0, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentRecipeMap(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without the given key.
+     *
+     * @param key The key to remove.
+     * @return The new map, or this map if the key was not present.
+     */
+    public PersistentRecipeMap without(String key) {
+        Node newRoot = root.remove(key, hash(key), 0);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentRecipeMap(newRoot == null ? BitmapNode.EMPTY : newRoot, size - 1);
+    }
+
+    /**
+     * Returns the number of recipes in the map.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Calls the action for every entry. The order follows the key hashes, not insertion order.
+     *
+     * @param action The action to call with each key and recipe.
+     */
+    public void forEach(BiConsumer<String, Recipe> action) {
+        root.forEach(action);
+    }
+
+    /**
+     * Returns all recipes in the map as a new list.
+     *
+     * @return The recipes, in hash order.
+     */
+    public List<Recipe> values() {
+        List<Recipe> values = new ArrayList<>(size);
+        forEach((key, recipe) -> values.add(recipe));
+        return values;
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int index(int hash, int shift) {
+        return (hash >>> shift) & LEVEL_MASK;
+    }
+
+    /**
+     * A node of the trie. Nodes are immutable; every change returns a new node.
+     */
+    private abstract static class Node {
+        abstract Recipe get(String key, int hash, int shift);
+
+        abstract Node put(String key, int hash, Recipe recipe, int shift, boolean[] added);
+
+        /**
+         * Returns the node without the key, this node if the key is absent, or {@code null} if
+         * the node became empty.
+         */
+        abstract Node remove(String key, int hash, int shift);
+
+        abstract void forEach(BiConsumer<String, Recipe> action);
+    }
+
+    /**
+     * A single key and recipe stored directly in a parent slot.
+     */
+    private static final class Leaf {
+        final String key;
+        final int hash;
+        final Recipe recipe;
+
+        Leaf(String key, int hash, Recipe recipe) {
+            this.key = key;
+            this.hash = hash;
+            this.recipe = recipe;
+        }
+    }
+
+    /**
+     * An interior node with up to 32 slots. Only occupied slots are stored; the bitmap records
+     * which of the 32 positions are present, and each slot holds either a Leaf or a child Node.
+     */
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        final int bitmap;
+        final Object[] slots;
+
+        BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private int slotIndex(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Recipe get(String key, int hash, int shift) {
+            int bit = 1 << index(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = slots[slotIndex(bit)];
+            if (slot instanceof Leaf leaf) {
+                return leaf.key.equals(key) ? leaf.recipe : null;
+            }
+            return ((Node) slot).get(key, hash, shift + BITS_PER_LEVEL);
+        }
+
+        @Override
+        Node put(String key, int hash, Recipe recipe, int shift, boolean[] added) {
+            int bit = 1 << index(hash, shift);
+            int position = slotIndex(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] newSlots = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, newSlots, 0, position);
+                newSlots[position] = new Leaf(key, hash, recipe);
+                System.arraycopy(slots, position, newSlots, position + 1, slots.length - position);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, newSlots);
+            }
+
+            Object slot = slots[position];
+            Object newSlot;
+            if (slot instanceof Leaf leaf) {
+                if (leaf.key.equals(key)) {
+                    if (leaf.recipe == recipe) {
+                        return this;
+                    }
+                    newSlot = new Leaf(key, hash, recipe);
+                } else {
+                    added[0] = true;
+                    newSlot = merge(leaf, new Leaf(key, hash, recipe), shift + BITS_PER_LEVEL);
+                }
+            } else {
+                Node child = (Node) slot;
+                Node newChild = child.put(key, hash, recipe, shift + BITS_PER_LEVEL, added);
+                if (newChild == child) {
+                    return this;
+                }
+                newSlot = newChild;
+            }
+            Object[] newSlots = slots.clone();
+            newSlots[position] = newSlot;
+            return new BitmapNode(bitmap, newSlots);
+        }
+
+        @Override
+        Node remove(String key, int hash, int shift) {
+            int bit = 1 << index(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int position = slotIndex(bit);
+            Object slot = slots[position];
+            Object newSlot;
+            if (slot instanceof Leaf leaf) {
+                if (!leaf.key.equals(key)) {
+                    return this;
+                }
+                newSlot = null;
+            } else {
+                Node child = (Node) slot;
+                Node newChild = child.remove(key, hash, shift + BITS_PER_LEVEL);
+                if (newChild == child) {
+                    return this;
+                }
+                newSlot = collapse(newChild);
+            }
+
+            if (newSlot == null) {
+                if (slots.length == 1) {
+                    return null;
+                }
+                Object[] newSlots = new Object[slots.length - 1];
+                System.arraycopy(slots, 0, newSlots, 0, position);
+                System.arraycopy(slots, position + 1, newSlots, position, slots.length - position - 1);
+                return new BitmapNode(bitmap & ~bit, newSlots);
+            }
+            Object[] newSlots = slots.clone();
+            newSlots[position] = newSlot;
+            return new BitmapNode(bitmap, newSlots);
+        }
+
+        @Override
+        void forEach(BiConsumer<String, Recipe> action) {
+            for (Object slot : slots) {
+                if (slot instanceof Leaf leaf) {
+                    action.accept(leaf.key, leaf.recipe);
+                } else {
+                    ((Node) slot).forEach(action);
+                }
+            }
+        }
+
+        /**
+         * Replaces a child holding a single leaf by the leaf itself, keeping the trie shallow.
+         */
+        private static Object collapse(Node child) {
+            if (child == null) {
+                return null;
+            }
+            if (child instanceof BitmapNode node && node.slots.length == 1 && node.slots[0] instanceof Leaf leaf) {
+                return leaf;
+            }
+            if (child instanceof CollisionNode node && node.leaves.length == 1) {
+                return node.leaves[0];
+            }
+            return child;
+        }
+
+        /**
+         * Builds the smallest subtree holding two leaves whose keys differ.
+         */
+        private static Node merge(Leaf first, Leaf second, int shift) {
+            if (first.hash == second.hash) {
+                return new CollisionNode(first.hash, new Leaf[] {first, second});
+            }
+            int firstIndex = index(first.hash, shift);
+            int secondIndex = index(second.hash, shift);
+            if (firstIndex == secondIndex) {
+                return new BitmapNode(1 << firstIndex, new Object[] {merge(first, second, shift + BITS_PER_LEVEL)});
+            }
+            Object[] pair = firstIndex < secondIndex ? new Object[] {first, second} : new Object[] {second, first};
+            return new BitmapNode((1 << firstIndex) | (1 << secondIndex), pair);
+        }
+    }
+
+    /**
+     * Holds leaves whose keys have exactly the same hash.
+     */
+    private static final class CollisionNode extends Node {
+        final int hash;
+        final Leaf[] leaves;
+
+        CollisionNode(int hash, Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        private int find(String key) {
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].key.equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Recipe get(String key, int hash, int shift) {
+            int position = find(key);
+            return position < 0 ? null : leaves[position].recipe;
+        }
+
+        @Override
+        Node put(String key, int hash, Recipe recipe, int shift, boolean[] added) {
+            if (hash != this.hash) {
+                // A different hash ended up here; split into a bitmap node holding both
+                BitmapNode split = new BitmapNode(1 << index(this.hash, shift), new Object[] {this});
+                return split.put(key, hash, recipe, shift, added);
+            }
+            int position = find(key);
+            if (position >= 0) {
+                if (leaves[position].recipe == recipe) {
+                    return this;
+                }
+                Leaf[] newLeaves = leaves.clone();
+                newLeaves[position] = new Leaf(key, hash, recipe);
+                return new CollisionNode(hash, newLeaves);
+            }
+            Leaf[] newLeaves = new Leaf[leaves.length + 1];
+            System.arraycopy(leaves, 0, newLeaves, 0, leaves.length);
+            newLeaves[leaves.length] = new Leaf(key, hash, recipe);
+            added[0] = true;
+            return new CollisionNode(hash, newLeaves);
+        }
+
+        @Override
+        Node remove(String key, int hash, int shift) {
+            int position = find(key);
+            if (position < 0) {
+                return this;
+            }
+            if (leaves.length == 1) {
+                return null;
+            }
+            Leaf[] newLeaves = new Leaf[leaves.length - 1];
+            System.arraycopy(leaves, 0, newLeaves, 0, position);
+            System.arraycopy(leaves, position + 1, newLeaves, position, leaves.length - position - 1);
+            return new CollisionNode(hash, newLeaves);
+        }
+
+        @Override
+        void forEach(BiConsumer<String, Recipe> action) {
+            for (Leaf leaf : leaves) {
+                action.accept(leaf.key, leaf.recipe);
+            }
+        }
+    }
+}
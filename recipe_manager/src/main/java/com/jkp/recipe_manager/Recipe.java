@@ -14,6 +14,10 @@
  * - getPrepTime() - Returns the preparation time for the recipe.
  * - getCookTime() - Returns the cooking time for the recipe.
  * - getTotalRecipeCalories() - Returns the total calories for the recipe.
+ * - getCaloriesPerServing() - Returns the total calories divided by the servings.
+ * - getTotalMinutes() - Returns the prep time plus the cook time in minutes.
+ * - getVersionStamp() - Returns the checksum of the stored file this recipe was read from.
+ * - toSnapshot() - Returns an immutable copy of the recipe for sharing across threads.
  *
  * Mutators (Setters):
  * - setName(String name) - Sets the name of the recipe.
@@ -23,30 +27,62 @@
  * - setPrepTime(String prepTime) - Sets the preparation time.
  * - setCookTime(String cookTime) - Sets the cooking time.
  * - setTotalRecipeCalories(double calories) - Sets the total calories for the recipe.
+ * - setVersionStamp(long versionStamp) - Sets the version stamp checked when the recipe is saved.
+ * - addCaloriesListener(CaloriesListener listener) - Registers a callback for changes to the total calories.
+ *
+ * The total calories are maintained incrementally: adding, removing, or replacing an ingredient
+ * through getIngredients(), and changing an ingredient's quantity, unit, or calories, adjusts the
+ * total by the difference instead of summing every ingredient again.
  * @version 1.0.0
  * @author Jon-Kayla Pointer
  */
 
 package com.jkp.recipe_manager;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 public class Recipe {
     private String name;
-    private ArrayList<Ingredient> ingredients;
+    private IngredientList ingredients;
     private List<String> instructions;
     private int servings;
     private String prepTime;
     private String cookTime;
     private double totalRecipeCalories; 
+    private long versionStamp; // Checksum of the stored file; 0 for recipes never read from or saved to storage
+    private final List<CaloriesListener> caloriesListeners = new CopyOnWriteArrayList<>();
+
+    private static final Pattern CLOCK_TIME = Pattern.compile("(\\d+):(\\d{1,2})");
+    // A number followed by an optional unit; no unit means minutes
+    private static final Pattern TIME_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)\\s*(h(?:ours?|rs?)?\\b|m(?:in(?:ute)?s?)?\\b|)",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Receives changes to a recipe's total calories, for example to keep a library total current.
+     */
+    @FunctionalInterface
+    public interface CaloriesListener {
+        /**
+         * Called after the total calories of a recipe changed.
+         *
+         * @param recipe The recipe that changed.
+         * @param delta The change in total calories.
+         */
+        void caloriesChanged(Recipe recipe, double delta);
+    }
 
     public Recipe(String name, ArrayList<Ingredient> ingredients, List<String> instructions, int servings, String prepTime, String cookTime) {
         this.name = name;
-        this.ingredients = ingredients;
+        this.ingredients = new IngredientList(ingredients);
         this.instructions = instructions;
         this.servings = servings;
         this.prepTime = prepTime;
@@ -82,6 +118,77 @@ public class Recipe {
         return totalRecipeCalories; 
     }
 
+    /**
+     * Returns the calories in one serving.
+     *
+     * @return The total calories divided by the servings, or 0 if servings is not positive.
+     */
+    public double getCaloriesPerServing() {
+        return servings > 0 ? getTotalRecipeCalories() / servings : 0.0;
+    }
+
+    /**
+     * Returns the prep time plus the cook time in minutes. A time that cannot be read counts as 0.
+     *
+     * @return The total time in minutes, or -1 if neither time can be read.
+     */
+    public int getTotalMinutes() {
+        int prep = parseMinutes(prepTime);
+        int cook = parseMinutes(cookTime);
+        if (prep < 0 && cook < 0) {
+            return -1;
+        }
+        return Math.max(prep, 0) + Math.max(cook, 0);
+    }
+
+    /**
+     * Reads a time such as "20 minutes", "1 hour", "1 hr 30 min", "1:30", or "45" (minutes).
+     *
+     * @param time The time text.
+     * @return The time in minutes, or -1 if the text holds no number.
+     */
+    public static int parseMinutes(String time) {
+        if (time == null) {
+            return -1;
+        }
+        Matcher clock = CLOCK_TIME.matcher(time.trim());
+        if (clock.matches()) {
+            return Integer.parseInt(clock.group(1)) * 60 + Integer.parseInt(clock.group(2));
+        }
+        Matcher part = TIME_PART.matcher(time);
+        double minutes = 0;
+        boolean found = false;
+        while (part.find()) {
+            double value = Double.parseDouble(part.group(1));
+            boolean hours = part.group(2).regionMatches(true, 0, "h", 0, 1);
+            minutes += hours ? value * 60 : value;
+            found = true;
+        }
+        return found ? (int) Math.round(minutes) : -1;
+    }
+
+    /**
+     * Returns the version stamp of this recipe: the checksum of the stored file it was last
+     * read from or saved to, or {@link RecipeStorage#NEW_RECIPE} if it has never been stored.
+     * {@link RecipeStorage#saveRecipe(Recipe, String)} refuses to overwrite a file whose
+     * checksum no longer matches this stamp.
+     *
+     * @return The version stamp.
+     */
+    public long getVersionStamp() {
+        return versionStamp;
+    }
+
+    /**
+     * Returns an immutable copy of the current state of this recipe. Caches, indexes, and
+     * background tasks should hold the snapshot rather than this mutable object.
+     *
+     * @return A new {@link RecipeSnapshot}.
+     */
+    public RecipeSnapshot toSnapshot() {
+        return RecipeSnapshot.of(this);
+    }
+
     // Method to calculate total recipe calories
     private double calculateTotalRecipeCalories() {
         double totalCalories = 0.0;
@@ -95,8 +202,16 @@ public class Recipe {
         this.name = name;
     }
 
+    /**
+     * Replaces the ingredients. The list is copied; later changes should be made through
+     * {@link #getIngredients()} so the total calories stay current.
+     *
+     * @param ingredients The new ingredients.
+     */
     public void setIngredients(ArrayList<Ingredient> ingredients) {
-        this.ingredients = ingredients;
+        this.ingredients.detachAll();
+        this.ingredients = new IngredientList(ingredients);
+        setTotalRecipeCalories(calculateTotalRecipeCalories());
     }
 
     public void setInstructions(List<String> instructions) {
@@ -116,9 +231,6 @@ public class Recipe {
     }
     
     public void addIngredient(Ingredient ingredient) {
-        if (this.ingredients == null) {
-            this.ingredients = new ArrayList<>();
-        }
         this.ingredients.add(ingredient);
     }
 
@@ -150,6 +262,125 @@ public class Recipe {
     }
 
     public void setTotalRecipeCalories(double totalRecipeCalories) {
-       this.totalRecipeCalories = totalRecipeCalories  ; 
+        adjustTotalRecipeCalories(totalRecipeCalories - this.totalRecipeCalories);
+    }
+
+    public void addCaloriesListener(CaloriesListener listener) {
+        caloriesListeners.add(listener);
+    }
+
+    public void removeCaloriesListener(CaloriesListener listener) {
+        caloriesListeners.remove(listener);
+    }
+
+    /**
+     * Called by an ingredient of this recipe when its total calories changed.
+     *
+     * @param delta The change in the ingredient's total calories.
+     */
+    void ingredientCaloriesChanged(double delta) {
+        adjustTotalRecipeCalories(delta);
+    }
+
+    private void adjustTotalRecipeCalories(double delta) {
+        if (delta == 0.0) {
+            return;
+        }
+        this.totalRecipeCalories += delta;
+        for (CaloriesListener listener : caloriesListeners) {
+            listener.caloriesChanged(this, delta);
+        }
+    }
+
+    /**
+     * The ingredient list of a recipe. Every structural change claims or releases the ingredient
+     * and adjusts the recipe's total by that ingredient's calories, so callers can edit the list
+     * returned by {@link #getIngredients()} in place. An ingredient still in another recipe's list
+     * is rejected with an {@link IllegalStateException}, since that recipe's total includes it.
+     */
+    private class IngredientList extends AbstractList<Ingredient> implements RandomAccess {
+        private final ArrayList<Ingredient> items;
+
+        IngredientList(List<Ingredient> initial) {
+            this.items = initial == null ? new ArrayList<>() : new ArrayList<>(initial);
+            for (Ingredient ingredient : items) {
+                ingredient.setOwner(Recipe.this);
+            }
+        }
+
+        @Override
+        public Ingredient get(int index) {
+            return items.get(index);
+        }
+
+        @Override
+        public int size() {
+            return items.size();
+        }
+
+        @Override
+        public Ingredient set(int index, Ingredient ingredient) {
+            checkClaimable(ingredient);
+            Ingredient previous = items.set(index, ingredient);
+            release(previous);
+            claim(ingredient);
+            return previous;
+        }
+
+        @Override
+        public void add(int index, Ingredient ingredient) {
+            checkClaimable(ingredient);
+            items.add(index, ingredient);
+            modCount++;
+            claim(ingredient);
+        }
+
+        @Override
+        public Ingredient remove(int index) {
+            Ingredient removed = items.remove(index);
+            modCount++;
+            release(removed);
+            return removed;
+        }
+
+        @Override
+        protected void removeRange(int fromIndex, int toIndex) {
+            List<Ingredient> range = items.subList(fromIndex, toIndex);
+            for (Ingredient ingredient : range) {
+                release(ingredient);
+            }
+            range.clear();
+            modCount++;
+        }
+
+        // Releases ownership without touching the total, when the whole list is replaced
+        void detachAll() {
+            for (Ingredient ingredient : items) {
+                ingredient.releaseOwner(Recipe.this);
+            }
+        }
+
+        // An ingredient counts toward one recipe's total; moving it silently would leave the other total stale
+        private void checkClaimable(Ingredient ingredient) {
+            Recipe owner = ingredient.getOwner();
+            if (owner != null && owner != Recipe.this) {
+                throw new IllegalStateException("Ingredient \"" + ingredient.getName()
+                        + "\" already belongs to recipe \"" + owner.getName() + "\"; remove it there first or add a copy");
+            }
+        }
+
+        private void claim(Ingredient ingredient) {
+            ingredient.setOwner(Recipe.this);
+            adjustTotalRecipeCalories(ingredient.getTotalCalories());
+        }
+
+        private void release(Ingredient ingredient) {
+            ingredient.releaseOwner(Recipe.this);
+            adjustTotalRecipeCalories(-ingredient.getTotalCalories());
+        }
+    }
+
+    public void setVersionStamp(long versionStamp) {
+        this.versionStamp = versionStamp;
     }
 }
@@ -0,0 +1,124 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The RecipeBodyCache class holds the ingredients and instructions of recently opened recipes
+ * when recipes are loaded lazily. It is a bounded least-recently-used cache: once it holds more
+ * bodies than its capacity, the body that was accessed longest ago is evicted and will be read
+ * from disk again the next time it is needed.
+ *
+ * <p>Features:</p>
+ * - Caches fully loaded recipes keyed by file and content checksum, so an edited file is never
+ *   served from a stale entry.
+ * - Evicts least-recently-used bodies once the capacity is reached.
+ * - Supports explicit eviction of a single file or clearing the whole cache.
+ *
+ * <p>Usage:</p>
+ * The cache is owned by {@link RecipeStorage} and used by {@link LazyRecipe}:
+ * <pre>{@code
+ * RecipeStorage.getBodyCache().setCapacity(256);
+ * RecipeStorage.getBodyCache().clear();
+ * }</pre>
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class RecipeBodyCache {
+    private final LinkedHashMap<String, Recipe> bodies = new LinkedHashMap<>(16, 0.75f, true);
+    private int capacity;
+
+    /**
+     * Creates a cache that holds at most {@code capacity} recipe bodies.
+     *
+     * @param capacity The maximum number of bodies to keep.
+     */
+    public RecipeBodyCache(int capacity) {
+        setCapacity(capacity);
+    }
+
+    /**
+     * Returns the cached body for a file, or {@code null} if it is not cached.
+     *
+     * @param filePath The recipe file.
+     * @param checksum The checksum of the file content the body must match.
+     * @return The cached recipe, or {@code null}.
+     */
+    public synchronized Recipe get(Path filePath, long checksum) {
+        return bodies.get(keyFor(filePath, checksum));
+    }
+
+    /**
+     * Stores a body in the cache, evicting the least recently used bodies if necessary.
+     *
+     * @param filePath The recipe file.
+     * @param checksum The checksum of the file content the body was read from.
+     * @param recipe The fully loaded recipe.
+     */
+    public synchronized void put(Path filePath, long checksum, Recipe recipe) {
+        bodies.put(keyFor(filePath, checksum), recipe);
+        trim();
+    }
+
+    /**
+     * Removes every cached body for a file, whatever content checksum it was stored under.
+     *
+     * @param filePath The recipe file.
+     */
+    public synchronized void evict(Path filePath) {
+        String prefix = filePath.toAbsolutePath().normalize() + "#";
+        bodies.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * Removes all cached bodies.
+     */
+    public synchronized void clear() {
+        bodies.clear();
+    }
+
+    /**
+     * Returns the number of bodies currently cached.
+     *
+     * @return The number of cached bodies.
+     */
+    public synchronized int size() {
+        return bodies.size();
+    }
+
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Changes the maximum number of cached bodies, evicting immediately if the cache is now too large.
+     *
+     * @param capacity The new capacity; must be at least 1.
+     */
+    public synchronized void setCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+        trim();
+    }
+
+    private void trim() {
+        Iterator<Map.Entry<String, Recipe>> iterator = bodies.entrySet().iterator();
+        while (bodies.size() > capacity && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static String keyFor(Path filePath, long checksum) {
+        return filePath.toAbsolutePath().normalize() + "#" + checksum;
+    }
+}
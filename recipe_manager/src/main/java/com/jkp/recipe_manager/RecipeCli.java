@@ -0,0 +1,443 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The RecipeCli class is the headless command-line entry point of the Recipe Manager. It runs bulk
+ * operations on a recipe directory through {@link RecipeStorage}, {@link RecipeImporter}, and
+ * {@link RecipeExporter} without opening a window, so it can be used in scripts and batch jobs on
+ * servers with no display. {@link Main} hands over to it whenever arguments are given.
+ *
+ * <p>Features:</p>
+ * - {@code import}: imports JSON Lines, JSON array, ZIP, and gzip files into the directory. Recipes
+ *   already in the directory are kept unless {@code --replace} is given.
+ * - {@code export}: writes the directory to a ZIP or gzip JSON Lines archive.
+ * - {@code validate}: checks every recipe file and lists the ones that cannot be loaded or are
+ *   stored under the wrong file name.
+ * - {@code reindex}: rebuilds the {@link RecipeManifest} of the directory from scratch.
+ * - {@code migrate}: upgrades every recipe file to the current format with {@link RecipeMigrator}.
+ * - {@code search}: finds recipes whose name or ingredients contain all query words.
+ * - {@code scale}: scales a recipe to a number of servings, optionally saving the result.
+ * - {@code stats}: prints recipe counts, calorie statistics, and the most used ingredients.
+ * - {@code serve}: serves the directory over HTTP with {@link RecipeHttpServer} until stopped.
+ * - {@code rebalance}: moves recipe files between the shard directories of a
+ *   {@link ShardedRecipeStorage} after a shard was added or removed.
+ * - Never loads AWT or Swing classes, and runs in headless mode.
+ *
+ * <p>Usage:</p>
+ * <pre>
+ * java -jar recipe_manager.jar [--dir DIRECTORY] COMMAND [ARGUMENTS]
+ *
+ * java -jar recipe_manager.jar --dir /srv/recipes import dump.jsonl --canonicalize
+ * java -jar recipe_manager.jar search chicken rice --limit 20
+ * java -jar recipe_manager.jar scale "Banana Bread" 12 --save
+ * java -jar recipe_manager.jar rebalance /mnt/a/recipes /mnt/b/recipes --drain /mnt/old/recipes
+ * </pre>
+ *
+ * <p>Exit codes:</p>
+ * - 0 when the command succeeded.
+ * - 1 when the command ran but found problems, for example invalid recipe files or rejected rows.
+ * - 2 for usage errors and failures that stopped the command.
+ *
+ * <p>Dependencies:</p>
+ * - RecipeStorage.java
+ * - RecipeImporter.java
+ * - RecipeExporter.java
+ * - RecipeMigrator.java
+ * - NutritionAggregator.java
+ * - RecipeHttpServer.java
+ * - ShardedRecipeStorage.java
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.json.JSONException;
+
+public class RecipeCli {
+    /**
+     * Recipe directory used when no {@code --dir} option is given; the same one the GUI uses.
+     */
+    public static final String DEFAULT_RECIPE_DIRECTORY = "./src/main/java/recipes/";
+
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_PROBLEMS = 1;
+    public static final int EXIT_ERROR = 2;
+
+    private static final int DEFAULT_SEARCH_LIMIT = 50;
+    private static final int TOP_INGREDIENTS = 10;
+    private static final int HISTOGRAM_BINS = 10;
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: recipe_manager [--dir DIRECTORY] COMMAND [ARGUMENTS]",
+            "",
+            "Commands:",
+            "  import FILE... [--canonicalize] [--replace]",
+            "                                    Import .jsonl, .json, .zip, or .gz files",
+            "  export ARCHIVE                    Export to a .zip or gzip JSON Lines archive",
+            "  validate                          List invalid recipe files",
+            "  reindex                           Rebuild the recipe manifest",
+            "  migrate                           Upgrade recipe files to the current format",
+            "  search WORD... [--limit N]        Find recipes by name and ingredients",
+            "  scale NAME SERVINGS [--save]      Scale a recipe to a number of servings",
+            "  stats                             Print library statistics",
+            "  serve [--port N]                  Serve the recipes over HTTP until stopped",
+            "  rebalance SHARD... [--drain DIR[,DIR...]] [--dry-run]",
+            "                                    Move recipes to their shards after shards changed",
+            "",
+            "The directory defaults to " + DEFAULT_RECIPE_DIRECTORY);
+
+    private final PrintStream out;
+    private final PrintStream err;
+    private String directoryPath = DEFAULT_RECIPE_DIRECTORY;
+
+    /**
+     * Creates a command line that prints to the given streams.
+     *
+     * @param out The stream for results.
+     * @param err The stream for errors and usage.
+     */
+    public RecipeCli(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    /**
+     * Runs a command and exits the JVM with its exit code.
+     *
+     * @param args The command-line arguments.
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.exit(new RecipeCli(System.out, System.err).run(args));
+    }
+
+    /**
+     * Runs a command.
+     *
+     * @param args The command-line arguments, starting with options and the command name.
+     * @return The exit code.
+     */
+    public int run(String[] args) {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        try {
+            String directory = takeOption(arguments, "--dir");
+            if (directory != null) {
+                directoryPath = directory;
+            }
+            if (arguments.isEmpty() || arguments.get(0).equals("help") || arguments.get(0).equals("--help")) {
+                out.println(USAGE);
+                return arguments.isEmpty() ? EXIT_ERROR : EXIT_OK;
+            }
+            String command = arguments.remove(0);
+            switch (command) {
+                case "import":
+                    return importFiles(arguments);
+                case "export":
+                    return export(arguments);
+                case "validate":
+                    return validate(arguments);
+                case "reindex":
+                    return reindex(arguments);
+                case "migrate":
+                    return migrate(arguments);
+                case "search":
+                    return search(arguments);
+                case "scale":
+                    return scale(arguments);
+                case "stats":
+                    return stats(arguments);
+                case "serve":
+                    return serve(arguments);
+                case "rebalance":
+                    return rebalance(arguments);
+                default:
+                    throw new IllegalArgumentException("Unknown command: " + command);
+            }
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return EXIT_ERROR;
+        } catch (IOException e) {
+            err.println("Error: " + e.getMessage());
+            return EXIT_ERROR;
+        }
+    }
+
+    private int importFiles(List<String> arguments) throws IOException {
+        boolean canonicalize = takeFlag(arguments, "--canonicalize");
+        boolean replace = takeFlag(arguments, "--replace");
+        requireArguments(arguments, 1, Integer.MAX_VALUE, "import FILE... [--canonicalize] [--replace]");
+        Files.createDirectories(Paths.get(directoryPath));
+
+        RecipeImporter importer = new RecipeImporter(directoryPath);
+        importer.setReplaceExisting(replace);
+        if (canonicalize) {
+            importer.setIngredientMatcher(IngredientMatcher.fromNutrientDatabase(
+                    NutrientDatabase.load(Paths.get(NutrientDatabase.DEFAULT_PATH))));
+        }
+        int exitCode = EXIT_OK;
+        for (String file : arguments) {
+            Path source = Paths.get(file);
+            String fileName = source.getFileName().toString().toLowerCase(Locale.ROOT);
+            RecipeImporter.ImportReport report = fileName.endsWith(".zip") || fileName.endsWith(".gz")
+                    ? importer.importArchive(source)
+                    : importer.importFile(source);
+            out.println(file + ": " + report);
+            if (report.getRejected() > 0) {
+                exitCode = EXIT_PROBLEMS;
+            }
+        }
+        return exitCode;
+    }
+
+    private int export(List<String> arguments) throws IOException {
+        requireArguments(arguments, 1, 1, "export ARCHIVE");
+        RecipeExporter.ExportReport report = RecipeExporter.export(directoryPath, Paths.get(arguments.get(0)));
+        out.println(report);
+        return report.skipped() > 0 ? EXIT_PROBLEMS : EXIT_OK;
+    }
+
+    private int validate(List<String> arguments) throws IOException {
+        requireArguments(arguments, 0, 0, "validate");
+        int valid = 0;
+        int invalid = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(directoryPath), "*.json")) {
+            for (Path file : stream) {
+                String problem = checkRecipeFile(file);
+                if (problem == null) {
+                    valid++;
+                } else {
+                    invalid++;
+                    out.println(file.getFileName() + ": " + problem);
+                }
+            }
+        }
+        out.println(valid + " valid, " + invalid + " invalid");
+        return invalid > 0 ? EXIT_PROBLEMS : EXIT_OK;
+    }
+
+    // Returns why a recipe file is invalid, or null if it is valid
+    private static String checkRecipeFile(Path file) {
+        Recipe recipe;
+        try {
+            recipe = RecipeStorage.loadRecipe(file);
+        } catch (IOException | JSONException | IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        if (recipe.getName().isBlank()) {
+            return "recipe has no name";
+        }
+        if (recipe.getServings() < 1) {
+            return "servings must be at least 1, not " + recipe.getServings();
+        }
+        if (!RecipeStorage.fileNameFor(recipe.getName()).equals(file.getFileName().toString())) {
+            return "stored under the wrong file name for recipe \"" + recipe.getName()
+                    + "\" (expected " + RecipeStorage.fileNameFor(recipe.getName()) + ")";
+        }
+        return null;
+    }
+
+    private int reindex(List<String> arguments) throws IOException {
+        requireArguments(arguments, 0, 0, "reindex");
+        long start = System.nanoTime();
+        Files.deleteIfExists(Paths.get(directoryPath, RecipeManifest.MANIFEST_FILE_NAME));
+        // A lazy load parses every file once to record its manifest entry, then keeps only headers
+        RecipeCollection headers = RecipeStorage.loadAllRecipes(directoryPath, true);
+        out.printf("Indexed %d recipes in %d ms%n", headers.size(), (System.nanoTime() - start) / 1_000_000);
+        return EXIT_OK;
+    }
+
+    private int migrate(List<String> arguments) throws IOException {
+        requireArguments(arguments, 0, 0, "migrate");
+        RecipeMigrator.MigrationReport report = RecipeMigrator.migrateLibrary(directoryPath);
+        for (String failure : report.failures()) {
+            out.println(failure);
+        }
+        out.println(report);
+        return report.failures().isEmpty() ? EXIT_OK : EXIT_PROBLEMS;
+    }
+
+    private int search(List<String> arguments) throws IOException {
+        String limitText = takeOption(arguments, "--limit");
+        int limit = limitText == null ? DEFAULT_SEARCH_LIMIT : parsePositive(limitText, "--limit");
+        requireArguments(arguments, 1, Integer.MAX_VALUE, "search WORD...");
+        List<Recipe> matches = RecipeStorage.loadAllRecipes(directoryPath).search(String.join(" ", arguments));
+
+        for (Recipe recipe : matches.subList(0, Math.min(limit, matches.size()))) {
+            out.printf("%s\t%d servings\t%.0f kcal/serving%n",
+                    recipe.getName(), recipe.getServings(), recipe.getCaloriesPerServing());
+        }
+        out.println(matches.size() + " matches" + (matches.size() > limit ? ", showing " + limit : ""));
+        return EXIT_OK;
+    }
+
+    private int scale(List<String> arguments) throws IOException {
+        boolean save = takeFlag(arguments, "--save");
+        requireArguments(arguments, 2, 2, "scale NAME SERVINGS");
+        String recipeName = arguments.get(0);
+        int servings = parsePositive(arguments.get(1), "SERVINGS");
+
+        Path file = Paths.get(directoryPath, RecipeStorage.fileNameFor(recipeName));
+        if (!Files.exists(file)) {
+            throw new IOException("No recipe named " + recipeName + " in " + directoryPath);
+        }
+        Recipe recipe = RecipeStorage.loadRecipe(file);
+        if (recipe.getServings() < 1) {
+            throw new IOException("Recipe " + recipeName + " has no servings to scale from");
+        }
+        float factor = (float) servings / recipe.getServings();
+        for (Ingredient ingredient : recipe.getIngredients()) {
+            ingredient.setQuantity(ingredient.getQuantity() * factor);
+        }
+        recipe.setServings(servings);
+
+        out.printf("%s (%d servings, %.0f kcal)%n", recipe.getName(), servings, recipe.getTotalRecipeCalories());
+        for (Ingredient ingredient : recipe.getIngredients()) {
+            out.printf("  %s %s %s%s%n", formatQuantity(ingredient.getQuantity()), ingredient.getUnit(),
+                    ingredient.getName(), ingredient.getPreparation().isEmpty() ? "" : ", " + ingredient.getPreparation());
+        }
+        if (save) {
+            RecipeStorage.saveRecipe(recipe, directoryPath);
+            out.println("Saved " + file);
+        }
+        return EXIT_OK;
+    }
+
+    private int stats(List<String> arguments) throws IOException {
+        requireArguments(arguments, 0, 0, "stats");
+        List<Recipe> recipes = RecipeStorage.loadAllRecipes(directoryPath).getRecipes();
+        out.println("Recipes: " + recipes.size());
+        if (recipes.isEmpty()) {
+            return EXIT_OK;
+        }
+
+        NutritionAggregator.NutritionStats nutrition = new NutritionAggregator()
+                .aggregate(NutritionAggregator.NutritionTable.of(recipes), HISTOGRAM_BINS);
+        double perServingSum = 0;
+        for (double perServing : nutrition.caloriesPerServing()) {
+            perServingSum += perServing;
+        }
+        out.printf("Total calories: %.0f%n", nutrition.libraryTotal());
+        out.printf("Calories per recipe: min %.0f, average %.0f, max %.0f%n",
+                nutrition.minTotal(), nutrition.libraryTotal() / recipes.size(), nutrition.maxTotal());
+        out.printf("Calories per serving: min %.0f, average %.0f, max %.0f%n",
+                nutrition.minPerServing(), perServingSum / recipes.size(), nutrition.maxPerServing());
+
+        long minutesSum = 0;
+        int timedRecipes = 0;
+        Map<String, Integer> ingredientCounts = new HashMap<>();
+        for (Recipe recipe : recipes) {
+            int minutes = recipe.getTotalMinutes();
+            if (minutes >= 0) {
+                minutesSum += minutes;
+                timedRecipes++;
+            }
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                ingredientCounts.merge(ingredient.getName().toLowerCase(Locale.ROOT).trim(), 1, Integer::sum);
+            }
+        }
+        if (timedRecipes > 0) {
+            out.printf("Average total time: %d minutes%n", Math.round((double) minutesSum / timedRecipes));
+        }
+        out.println("Distinct ingredients: " + ingredientCounts.size());
+        out.println("Most used ingredients:");
+        ingredientCounts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(TOP_INGREDIENTS)
+                .forEach(entry -> out.printf("  %-24s %d%n", entry.getKey(), entry.getValue()));
+        return EXIT_OK;
+    }
+
+    private int serve(List<String> arguments) throws IOException {
+        String portText = takeOption(arguments, "--port");
+        int port = portText == null ? RecipeHttpServer.DEFAULT_PORT : parsePositive(portText, "--port");
+        requireArguments(arguments, 0, 0, "serve [--port N]");
+
+        RecipeHttpServer server = new RecipeHttpServer(directoryPath);
+        server.start(new InetSocketAddress(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        out.printf("Serving %d recipes from %s at http://localhost:%d/recipes%n",
+                server.getLibrary().snapshot().size(), directoryPath, server.getPort());
+        try {
+            // The server threads do the work; wait here until the process is stopped
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return EXIT_OK;
+    }
+
+    private int rebalance(List<String> arguments) throws IOException {
+        String drain = takeOption(arguments, "--drain");
+        boolean dryRun = takeFlag(arguments, "--dry-run");
+        requireArguments(arguments, 1, Integer.MAX_VALUE, "rebalance SHARD... [--drain DIR[,DIR...]] [--dry-run]");
+        List<String> drained = drain == null ? List.of() : Arrays.asList(drain.split(","));
+
+        ShardedRecipeStorage.RebalanceReport report = new ShardedRecipeStorage(arguments).rebalance(drained, dryRun);
+        out.println(report);
+        return report.skipped() == 0 ? EXIT_OK : EXIT_PROBLEMS;
+    }
+
+    // Removes "--name value" from the arguments and returns the value, or null if absent
+    private static String takeOption(List<String> arguments, String name) {
+        int index = arguments.indexOf(name);
+        if (index < 0) {
+            return null;
+        }
+        if (index + 1 >= arguments.size()) {
+            throw new IllegalArgumentException("Missing value for " + name);
+        }
+        arguments.remove(index);
+        return arguments.remove(index);
+    }
+
+    private static boolean takeFlag(List<String> arguments, String name) {
+        return arguments.remove(name);
+    }
+
+    private static void requireArguments(List<String> arguments, int min, int max, String usage) {
+        for (String argument : arguments) {
+            if (argument.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown option " + argument + " for " + usage);
+            }
+        }
+        if (arguments.size() < min || arguments.size() > max) {
+            throw new IllegalArgumentException("Expected: " + usage);
+        }
+    }
+
+    private static int parsePositive(String text, String name) {
+        try {
+            int value = Integer.parseInt(text);
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(name + " must be a positive whole number: " + text);
+    }
+
+    private static String formatQuantity(float quantity) {
+        if (quantity == Math.rint(quantity)) {
+            return Long.toString((long) quantity);
+        }
+        return String.format(Locale.ROOT, "%.2f", quantity).replaceAll("0+$", "");
+    }
+}
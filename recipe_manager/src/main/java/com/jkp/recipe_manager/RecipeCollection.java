@@ -8,10 +8,22 @@
  * <p>Features:</p>
  * <ul>
  *     <li>Adding a Recipe to the collection</li>
+ *     <li>Removing a Recipe from the collection</li>
  *     <li>Retrieving the list of stored recipes</li>
  *     <li>Setting a new list of recipes</li>
+ *     <li>Keeping a running total of the calories of every recipe in the collection</li>
+ *     <li>Searching recipes by words in their names and ingredients</li>
+ *     <li>Reading recipes a page at a time in a stable order with {@link RecipePager}</li>
  * </ul>
  * 
+ * <p>The library total is updated by the difference whenever a recipe is added or removed, or
+ * one of its ingredients changes, so reading it never walks the collection. Recipes should be
+ * added and removed through this class rather than through the list returned by
+ * {@link #getRecipes()}, which is not tracked.</p>
+ * 
+ * <p>This class is not thread-safe. Use {@link ConcurrentRecipeCollection} when recipes are
+ * read and modified from more than one thread.</p>
+ * 
  * @author Jon-Kayla Pointer
  * @version 1.0.0
  */
@@ -20,6 +32,11 @@
 package com.jkp.recipe_manager;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.DoubleAdder;
 /**
  * The RecipeCollection class provides a container for managing Recipe objects.
  */
@@ -30,12 +47,32 @@ public class RecipeCollection {
      */
     private ArrayList<Recipe> recipes;
 
+    /**
+     * The sum of the total calories of every recipe in the collection. A DoubleAdder because
+     * recipes may report changes from any thread when the collection is shared.
+     */
+    private final DoubleAdder totalCalories = new DoubleAdder();
+    private final Recipe.CaloriesListener caloriesListener = (recipe, delta) -> totalCalories.add(delta);
+
     /**
      * Constructs a new RecipeCollection with an empty list of recipes.
      */
     public RecipeCollection() {
         this.recipes = new ArrayList<>();
         
+    }
+
+    /**
+     * Constructs a collection backed by the given list. A subclass that stores its recipes itself
+     * passes {@code null} and must then override every method that reads or changes the list
+     * directly: {@link #addRecipe}, {@link #removeRecipe}, {@link #size}, {@link #getRecipes}, and
+     * {@link #setRecipes}. Everything else reads through {@link #getRecipes()}.
+     *
+     * @param recipes The backing list, or {@code null} for a subclass with its own storage.
+     */
+
+    RecipeCollection(ArrayList<Recipe> recipes) {
+        this.recipes = recipes;
     }
      /**
      * Adds a Recipe to the collection.
@@ -45,6 +82,32 @@ public class RecipeCollection {
 
     public void addRecipe(Recipe recipe) {
         recipes.add(recipe);
+        track(recipe);
+    }
+
+    /**
+     * Removes a Recipe from the collection.
+     * 
+     * @param recipe The Recipe object to remove.
+     * @return true if the recipe was in the collection.
+     */
+
+    public boolean removeRecipe(Recipe recipe) {
+        if (!recipes.remove(recipe)) {
+            return false;
+        }
+        untrack(recipe);
+        return true;
+    }
+
+    /**
+     * Returns the number of recipes in the collection.
+     * 
+     * @return The number of recipes.
+     */
+
+    public int size() {
+        return recipes.size();
     }
     
     /**
@@ -64,7 +127,123 @@ public class RecipeCollection {
      */
     
     public void setRecipes(ArrayList<Recipe> recipes) {
+        untrackAll(this.recipes);
         this.recipes = recipes;
+        trackAll(recipes);
+    }
+
+    /**
+     * Returns the sum of the total calories of every recipe in the collection.
+     * 
+     * @return The library calorie total.
+     */
+
+    public double getTotalCalories() {
+        return totalCalories.sum();
+    }
+
+    /**
+     * Returns one page of this collection's recipes, ordered by storage file name.
+     * 
+     * @param pageToken The token from the previous page, or {@code null} for the first page.
+     * @param pageSize The number of recipes per page.
+     * @return The page, with the token for the next page if there is one.
+     * @throws IllegalArgumentException If the token or page size is invalid.
+     */
+
+    public RecipePager.Page page(String pageToken, int pageSize) {
+        return RecipePager.page(getRecipes(), pageToken, pageSize);
+    }
+
+    /**
+     * Finds the recipes in this collection that contain every word of a query.
+     * 
+     * @param query The words to search for, separated by whitespace.
+     * @return The matching recipes, ordered as described in {@link #search(Collection, String)}.
+     */
+
+    public List<Recipe> search(String query) {
+        return search(getRecipes(), query);
+    }
+
+    /**
+     * Finds the recipes whose name and ingredient names together contain every word of a query,
+     * ignoring case. Recipes whose name alone contains every word come first; each group is sorted
+     * by name.
+     * 
+     * @param recipes The recipes to search.
+     * @param query The words to search for, separated by whitespace.
+     * @return A new list of the matching recipes; empty if the query has no words.
+     */
+
+    public static List<Recipe> search(Collection<? extends Recipe> recipes, String query) {
+        String[] words = query.toLowerCase(Locale.ROOT).trim().split("\\s+");
+        List<Recipe> nameMatches = new ArrayList<>();
+        List<Recipe> ingredientMatches = new ArrayList<>();
+        if (words[0].isEmpty()) {
+            return nameMatches;
+        }
+        for (Recipe recipe : recipes) {
+            String name = recipe.getName().toLowerCase(Locale.ROOT);
+            if (containsAll(name, words)) {
+                nameMatches.add(recipe);
+                continue;
+            }
+            StringBuilder text = new StringBuilder(name);
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                text.append(' ').append(ingredient.getName().toLowerCase(Locale.ROOT));
+            }
+            if (containsAll(text, words)) {
+                ingredientMatches.add(recipe);
+            }
+        }
+        Comparator<Recipe> byName = Comparator.comparing(Recipe::getName, String.CASE_INSENSITIVE_ORDER);
+        nameMatches.sort(byName);
+        ingredientMatches.sort(byName);
+        nameMatches.addAll(ingredientMatches);
+        return nameMatches;
+    }
+
+    private static boolean containsAll(CharSequence text, String[] words) {
+        String value = text.toString();
+        for (String word : words) {
+            if (!value.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Includes a recipe in the library total and follows its later changes.
+     * 
+     * @param recipe The recipe that joined the collection.
+     */
+    protected void track(Recipe recipe) {
+        recipe.addCaloriesListener(caloriesListener);
+        totalCalories.add(recipe.getTotalRecipeCalories());
+    }
+
+    /**
+     * Removes a recipe from the library total and stops following it.
+     * 
+     * @param recipe The recipe that left the collection.
+     */
+    protected void untrack(Recipe recipe) {
+        recipe.removeCaloriesListener(caloriesListener);
+        totalCalories.add(-recipe.getTotalRecipeCalories());
+    }
+
+    protected void trackAll(Collection<? extends Recipe> added) {
+        for (Recipe recipe : added) {
+            track(recipe);
+        }
+    }
+
+    protected void untrackAll(Collection<? extends Recipe> removed) {
+        for (Recipe recipe : removed) {
+            untrack(recipe);
+        }
     }
 
 }
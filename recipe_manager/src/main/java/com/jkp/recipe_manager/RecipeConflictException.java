@@ -0,0 +1,50 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The RecipeConflictException is thrown by {@link RecipeStorage#saveRecipe(Recipe, String)} and
+ * {@link RecipeStorage#deleteRecipe(Recipe, String)} when the recipe file on disk was changed by
+ * someone else after the recipe was read. Going ahead would otherwise silently discard the other
+ * change. The caller should reload the recipe, reapply its edits, and try again.
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class RecipeConflictException extends IOException {
+    private final Path filePath;
+    private final long expectedStamp;
+    private final long actualStamp;
+
+    /**
+     * Creates a conflict for a recipe file.
+     *
+     * @param filePath The recipe file that changed.
+     * @param expectedStamp The version stamp the saving recipe was read with.
+     * @param actualStamp The checksum of the file currently on disk.
+     */
+    public RecipeConflictException(Path filePath, long expectedStamp, long actualStamp) {
+        super("Recipe file " + filePath.getFileName() + " was changed by someone else since it was opened;"
+                + " reload the recipe and try again");
+        this.filePath = filePath;
+        this.expectedStamp = expectedStamp;
+        this.actualStamp = actualStamp;
+    }
+
+    public Path getFilePath() {
+        return filePath;
+    }
+
+    public long getExpectedStamp() {
+        return expectedStamp;
+    }
+
+    public long getActualStamp() {
+        return actualStamp;
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The RecipeExporter class writes a whole recipe directory into a single compressed archive.
+ * Two formats are supported: a ZIP archive holding one entry per recipe file, and a gzip-compressed
+ * JSON Lines file holding one {@code {"recipe": {...}}} object per line. Recipes are written to the
+ * output stream one at a time as the directory is walked, so memory use stays bounded no matter how
+ * large the library is.
+ *
+ * <p>Features:</p>
+ * - ZIP export copies each recipe file byte for byte without parsing it.
+ * - Gzip JSON Lines export re-serializes each recipe compactly, skipping files that do not parse.
+ * - Archives can be read back with {@link RecipeImporter#importArchive(Path)}.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * RecipeExporter.ExportReport report = RecipeExporter.export("/path/to/recipes", Paths.get("library.zip"));
+ * RecipeExporter.export("/path/to/recipes", Paths.get("library.jsonl.gz"));
+ * }</pre>
+ *
+ * <p>Dependencies:</p>
+ * - RecipeStorage.java
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+public class RecipeExporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Exports a recipe directory, choosing the format from the archive's file name:
+     * names ending in {@code .zip} produce a ZIP archive, anything else gzip JSON Lines.
+     *
+     * @param directoryPath The recipe directory to export.
+     * @param archive The archive file to create or overwrite.
+     * @return The export report.
+     * @throws IOException If the directory cannot be read or the archive cannot be written.
+     */
+    public static ExportReport export(String directoryPath, Path archive) throws IOException {
+        if (isZip(archive)) {
+            return exportZip(directoryPath, archive);
+        }
+        return exportJsonLinesGzip(directoryPath, archive);
+    }
+
+    /**
+     * Writes every recipe file in the directory into a ZIP archive. Entry names are the file paths
+     * relative to the directory, so extracting the archive recreates the library.
+     *
+     * @param directoryPath The recipe directory to export.
+     * @param archive The ZIP file to create or overwrite.
+     * @return The export report.
+     * @throws IOException If the directory cannot be read or the archive cannot be written.
+     */
+    public static ExportReport exportZip(String directoryPath, Path archive) throws IOException {
+        long startNanos = System.nanoTime();
+        Path directory = Paths.get(directoryPath);
+        long exported = 0;
+        try (Stream<Path> files = recipeFiles(directory);
+             ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(archive), BUFFER_SIZE))) {
+            Iterator<Path> iterator = files.iterator();
+            while (iterator.hasNext()) {
+                Path file = iterator.next();
+                zip.putNextEntry(new ZipEntry(directory.relativize(file).toString().replace('\\', '/')));
+                Files.copy(file, zip);
+                zip.closeEntry();
+                exported++;
+            }
+        }
+        return new ExportReport(exported, 0, Files.size(archive), System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Writes every recipe in the directory to a gzip-compressed JSON Lines file. Files that cannot
+     * be parsed are skipped, logged to the console, and counted in the report.
+     *
+     * @param directoryPath The recipe directory to export.
+     * @param archive The {@code .jsonl.gz} file to create or overwrite.
+     * @return The export report.
+     * @throws IOException If the directory cannot be read or the archive cannot be written.
+     */
+    public static ExportReport exportJsonLinesGzip(String directoryPath, Path archive) throws IOException {
+        long startNanos = System.nanoTime();
+        long exported = 0;
+        long skipped = 0;
+        try (Stream<Path> files = recipeFiles(Paths.get(directoryPath));
+             OutputStream out = new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(archive), BUFFER_SIZE), BUFFER_SIZE)) {
+            Iterator<Path> iterator = files.iterator();
+            while (iterator.hasNext()) {
+                Path file = iterator.next();
+                JSONObject row = new JSONObject();
+                try {
+                    row.put("recipe", RecipeStorage.parseRecipeJson(Files.readAllBytes(file)));
+                } catch (JSONException e) {
+                    System.err.println("Skipping recipe " + file + ": " + e.getMessage());
+                    skipped++;
+                    continue;
+                }
+                out.write(row.toString().getBytes(StandardCharsets.UTF_8));
+                out.write('\n');
+                exported++;
+            }
+        }
+        return new ExportReport(exported, skipped, Files.size(archive), System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns whether an archive path names a ZIP archive.
+     *
+     * @param archive The archive path.
+     * @return {@code true} if the file name ends in {@code .zip}.
+     */
+    static boolean isZip(Path archive) {
+        return archive.getFileName().toString().toLowerCase().endsWith(".zip");
+    }
+
+    private static Stream<Path> recipeFiles(Path directory) throws IOException {
+        return Files.walk(directory)
+                .filter(Files::isRegularFile)
+                .filter(path -> path.toString().endsWith(".json"));
+    }
+
+    /**
+     * The outcome of an export run.
+     *
+     * @param exported The number of recipes written to the archive.
+     * @param skipped The number of recipe files that could not be parsed and were left out.
+     * @param archiveBytes The size of the finished archive in bytes.
+     * @param elapsedNanos The time the export took.
+     */
+    public record ExportReport(long exported, long skipped, long archiveBytes, long elapsedNanos) {
+        @Override
+        public String toString() {
+            return String.format("Exported %d recipes (%d skipped), %d bytes in %.2f s",
+                    exported, skipped, archiveBytes, elapsedNanos / 1_000_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,457 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The RecipeHttpServer class serves a recipe directory as a small JSON API over HTTP, so other
+ * tools can read and update the library without sharing its files. It is built on the JDK's
+ * {@code com.sun.net.httpserver} and handles every exchange on its own virtual thread, so thousands
+ * of concurrent requests cost little more than their sockets, and it needs nothing but a JDK to
+ * run or to test locally.
+ *
+ * <p>Features:</p>
+ * - {@code GET /recipes?page_size=n&page_token=t}: lists recipes with their servings, calories,
+ *   and total time, a page at a time in file name order; each page but the last carries a
+ *   {@code next_page_token} for the next request.
+ * - {@code GET /recipes/{name}}: returns one recipe and its version stamp from a
+ *   {@link RecipeResponseCache}, gzip-compressed when the client accepts it, with an ETag;
+ *   a matching {@code If-None-Match} is answered with {@code 304 Not Modified}.
+ * - {@code PUT /recipes/{name}}: saves a recipe through {@link RecipeStorage}, answering
+ *   {@code 409 Conflict} when the stored recipe changed since the given version was read.
+ * - {@code GET /search?q=words&limit=n}: finds recipes by name and ingredients.
+ * - Reads come from an immutable {@link RecipeLibrary} snapshot and never wait for writers.
+ * - Saves made elsewhere in the same process are picked up through a
+ *   {@link RecipeStorage.StorageListener}.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * try (RecipeHttpServer server = new RecipeHttpServer("./src/main/java/recipes/")) {
+ *     server.start(new InetSocketAddress(8080));
+ *     ...
+ * }
+ * }</pre>
+ * <pre>
+ * curl http://localhost:8080/recipes/Banana%20Bread
+ * curl -X PUT -d '{"version": 1234, "recipe": {...}}' http://localhost:8080/recipes/Banana%20Bread
+ * </pre>
+ *
+ * <p>Dependencies:</p>
+ * - RecipeStorage.java
+ * - RecipeLibrary.java
+ * - RecipeCollection.java
+ * - RecipeResponseCache.java
+ * - RecipePager.java
+ *
+ * <p>Notes:</p>
+ * - A save without a {@code version} (or with version 0) overwrites the stored recipe, the same
+ *   as saving a new recipe with {@link RecipeStorage#saveRecipe(Recipe, String)}.
+ * - Recipes are keyed by their storage file name, so names that differ only in punctuation refer
+ *   to the same recipe.
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class RecipeHttpServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 8080;
+
+    // Connections waiting to be accepted; large so bursts of clients are queued, not refused
+    private static final int BACKLOG = 4096;
+    private static final int MAX_BODY_BYTES = 1024 * 1024;
+    private static final int DEFAULT_SEARCH_LIMIT = 50;
+    private static final String RECIPES_PATH = "/recipes";
+    private static final String SEARCH_PATH = "/search";
+
+    private final String directoryPath;
+    private final Path directory;
+    private final RecipeLibrary library;
+    private final RecipeStorage.StorageListener storageListener = new LibraryUpdater();
+    private final RecipeResponseCache responseCache = new RecipeResponseCache(RecipeHttpServer::recipeResponse);
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Creates a server for a recipe directory, loading every recipe in it.
+     *
+     * @param directoryPath The recipe directory to serve.
+     * @throws IOException If the directory cannot be read.
+     */
+    public RecipeHttpServer(String directoryPath) throws IOException {
+        this(directoryPath, RecipeLibrary.fromCollection(RecipeStorage.loadAllRecipes(directoryPath)));
+    }
+
+    /**
+     * Creates a server for a recipe directory whose recipes are already loaded.
+     *
+     * @param directoryPath The recipe directory saves are written to.
+     * @param library The recipes of the directory; updated by the server on every save.
+     */
+    public RecipeHttpServer(String directoryPath, RecipeLibrary library) {
+        this.directoryPath = directoryPath;
+        this.directory = Paths.get(directoryPath).toAbsolutePath().normalize();
+        this.library = library;
+    }
+
+    /**
+     * Starts serving on the given address. Use port 0 to pick a free port, then
+     * {@link #getPort()} to find it.
+     *
+     * @param address The address to listen on.
+     * @throws IOException If the address cannot be bound.
+     * @throws IllegalStateException If the server is already running.
+     */
+    public synchronized void start(InetSocketAddress address) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Server is already running");
+        }
+        HttpServer created = HttpServer.create(address, BACKLOG);
+        created.createContext(RECIPES_PATH, exchange -> handle(exchange, this::handleRecipes));
+        created.createContext(SEARCH_PATH, exchange -> handle(exchange, this::handleSearch));
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        created.setExecutor(executor);
+        RecipeStorage.addStorageListener(storageListener);
+        RecipeStorage.addStorageListener(responseCache);
+        created.start();
+        server = created;
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return The bound port.
+     * @throws IllegalStateException If the server is not running.
+     */
+    public synchronized int getPort() {
+        if (server == null) {
+            throw new IllegalStateException("Server is not running");
+        }
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the library the server reads from.
+     *
+     * @return The served library.
+     */
+    public RecipeLibrary getLibrary() {
+        return library;
+    }
+
+    /**
+     * Returns the cache of encoded recipe responses.
+     *
+     * @return The response cache.
+     */
+    public RecipeResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Stops the server, letting requests in progress finish for up to a second.
+     */
+    @Override
+    public synchronized void close() {
+        if (server == null) {
+            return;
+        }
+        RecipeStorage.removeStorageListener(storageListener);
+        RecipeStorage.removeStorageListener(responseCache);
+        server.stop(1);
+        executor.close();
+        server = null;
+        executor = null;
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        /**
+         * Handles a request.
+         *
+         * @param exchange The exchange.
+         * @return The response to send, or {@code null} if the handler already sent one.
+         */
+        Response handle(HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * A response status and its JSON body.
+     */
+    private record Response(int status, JSONObject body) {
+    }
+
+    private static void handle(HttpExchange exchange, Handler handler) throws IOException {
+        Response response;
+        try {
+            response = handler.handle(exchange);
+        } catch (RecipeConflictException e) {
+            response = error(409, e.getMessage());
+            response.body().put("version", e.getActualStamp());
+        } catch (JSONException | IllegalArgumentException e) {
+            response = error(400, e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Request " + exchange.getRequestMethod() + " " + exchange.getRequestURI()
+                    + " failed: " + e.getMessage());
+            response = error(500, "Could not process the request: " + e.getMessage());
+        }
+        if (response == null) {
+            return;
+        }
+        try {
+            byte[] body = response.body().toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.status(), body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Response handleRecipes(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        if (path.equals(RECIPES_PATH) || path.equals(RECIPES_PATH + "/")) {
+            if (!method.equals("GET")) {
+                return methodNotAllowed(exchange, "GET");
+            }
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            int pageSize = RecipePager.DEFAULT_PAGE_SIZE;
+            if (query.containsKey("page_size")) {
+                pageSize = parsePositive(query.get("page_size"), "page_size");
+            }
+            RecipePager.Page page = RecipePager.page(library.snapshot().getRecipes().values(),
+                    query.get("page_token"), pageSize);
+            JSONObject body = summaries(page.recipes());
+            if (page.hasNext()) {
+                body.put("next_page_token", page.nextPageToken());
+            }
+            return new Response(200, body);
+        }
+
+        // Contexts match by string prefix, so "/recipesfoo" also arrives here
+        if (!path.startsWith(RECIPES_PATH + "/")) {
+            return error(404, "Not found: " + path);
+        }
+        String recipeName = path.substring(RECIPES_PATH.length() + 1);
+        switch (method) {
+            case "GET":
+                Recipe recipe = library.snapshot().get(recipeName);
+                if (recipe == null) {
+                    return error(404, "No recipe named " + recipeName);
+                }
+                sendCached(exchange, 200, responseCache.get(recipe));
+                return null;
+            case "PUT":
+                return saveRecipe(exchange, recipeName);
+            default:
+                return methodNotAllowed(exchange, "GET, PUT");
+        }
+    }
+
+    private Response saveRecipe(HttpExchange exchange, String recipeName) throws IOException {
+        JSONObject request = new JSONObject(readBody(exchange));
+        JSONObject recipeJson = request.getJSONObject("recipe");
+        RecipeMigrator.upgrade(recipeJson);
+        Recipe recipe = Recipe.fromJson(recipeJson);
+        if (!RecipeStorage.fileNameFor(recipe.getName()).equals(RecipeStorage.fileNameFor(recipeName))) {
+            throw new IllegalArgumentException("Recipe name \"" + recipe.getName()
+                    + "\" does not match the request path \"" + recipeName + "\"");
+        }
+        recipe.setVersionStamp(request.optLong("version", RecipeStorage.NEW_RECIPE));
+        boolean existed = library.snapshot().get(recipe.getName()) != null;
+
+        // The storage listener puts the saved recipe into the library
+        RecipeStorage.saveRecipe(recipe, directoryPath);
+        Recipe stored = library.snapshot().get(recipe.getName());
+        sendCached(exchange, existed ? 200 : 201, responseCache.get(stored != null ? stored : recipe));
+        return null;
+    }
+
+    /**
+     * Sends a cached recipe response, compressed if the client accepts gzip, or {@code 304 Not
+     * Modified} if the client already has it.
+     */
+    private static void sendCached(HttpExchange exchange, int status, RecipeResponseCache.Entry entry) throws IOException {
+        try {
+            boolean compressed = entry.getGzip() != null && acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            Headers headers = exchange.getResponseHeaders();
+            headers.set("ETag", compressed ? entry.getGzipEtag() : entry.getEtag());
+            headers.set("Cache-Control", "no-cache");
+            headers.set("Vary", "Accept-Encoding");
+            if (exchange.getRequestMethod().equals("GET") && entry.matches(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            byte[] body = compressed ? entry.getGzip() : entry.getJson();
+            headers.set("Content-Type", "application/json; charset=utf-8");
+            if (compressed) {
+                headers.set("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // True unless gzip is absent or refused with q=0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim().replace(" ", "");
+                    if (parameter.matches("q=0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Response handleSearch(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        if (!path.equals(SEARCH_PATH) && !path.equals(SEARCH_PATH + "/")) {
+            return error(404, "Not found: " + path);
+        }
+        if (!exchange.getRequestMethod().equals("GET")) {
+            return methodNotAllowed(exchange, "GET");
+        }
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String words = query.getOrDefault("q", "");
+        int limit = DEFAULT_SEARCH_LIMIT;
+        if (query.containsKey("limit")) {
+            limit = parsePositive(query.get("limit"), "limit");
+        }
+        List<Recipe> matches = RecipeCollection.search(library.snapshot().getRecipes().values(), words);
+        JSONObject body = summaries(matches.subList(0, Math.min(limit, matches.size())));
+        body.put("total", matches.size());
+        return new Response(200, body);
+    }
+
+    private static JSONObject summaries(List<Recipe> recipes) {
+        JSONArray array = new JSONArray();
+        for (Recipe recipe : recipes) {
+            JSONObject summary = new JSONObject();
+            summary.put("name", recipe.getName());
+            summary.put("servings", recipe.getServings());
+            summary.put("calories_per_serving", Math.round(recipe.getCaloriesPerServing() * 10) / 10.0);
+            summary.put("total_minutes", recipe.getTotalMinutes());
+            array.put(summary);
+        }
+        JSONObject body = new JSONObject();
+        body.put("recipes", array);
+        body.put("count", recipes.size());
+        return body;
+    }
+
+    private static JSONObject recipeResponse(Recipe recipe) {
+        JSONObject body = new JSONObject();
+        body.put("recipe", RecipeStorage.recipeToJson(recipe));
+        body.put("version", recipe.getVersionStamp());
+        return body;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream input = exchange.getRequestBody()) {
+            byte[] body = input.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body is larger than " + MAX_BODY_BYTES + " bytes");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static int parsePositive(String text, String name) {
+        try {
+            int value = Integer.parseInt(text);
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(name + " must be a positive whole number: " + text);
+    }
+
+    private static Response methodNotAllowed(HttpExchange exchange, String allowed) {
+        exchange.getResponseHeaders().set("Allow", allowed);
+        return error(405, "Method " + exchange.getRequestMethod() + " is not allowed; use " + allowed);
+    }
+
+    private static Response error(int status, String message) {
+        JSONObject body = new JSONObject();
+        body.put("error", message);
+        return new Response(status, body);
+    }
+
+    /**
+     * Keeps the library current when recipes in the served directory are saved or deleted,
+     * whether through the API or anywhere else in the process.
+     */
+    private final class LibraryUpdater implements RecipeStorage.StorageListener {
+        @Override
+        public void recipeSaved(Recipe recipe, Path filePath) {
+            if (inDirectory(filePath)) {
+                // The library stores a copy, so later edits to the caller's object cannot race with requests
+                library.put(recipe);
+            }
+        }
+
+        @Override
+        public void recipeDeleted(Recipe recipe, Path filePath) {
+            if (inDirectory(filePath)) {
+                library.remove(recipe.getName());
+            }
+        }
+
+        private boolean inDirectory(Path filePath) {
+            return directory.equals(filePath.toAbsolutePath().normalize().getParent());
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The RecipeIOService class runs {@link RecipeStorage} operations off the calling thread so the
+ * Swing event dispatch thread never blocks on disk. Every operation runs on its own virtual
+ * thread and returns a {@link CompletableFuture}, so thousands of concurrent file operations cost
+ * only a few platform threads.
+ *
+ * <p>Features:</p>
+ * - Load, load-all, save, and delete operations that return futures.
+ * - Bounded concurrency: at most {@code maxConcurrent} operations touch the disk at once, and
+ *   the rest wait on a semaphore instead of flooding the file system with open files.
+ * - Per-operation timeouts: a future that runs past its timeout completes with a
+ *   {@link TimeoutException} and its virtual thread is interrupted.
+ * - One shared service per directory through {@link #forDirectory(String)}, used by the GUI
+ *   windows so they share the concurrency limit.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * RecipeIOService io = RecipeIOService.forDirectory("/path/to/recipes");
+ * io.save(recipe).whenComplete((ignored, error) -> SwingUtilities.invokeLater(() -> ...));
+ *
+ * try (RecipeIOService batch = new RecipeIOService("/path/to/recipes", 16, Duration.ofMinutes(5))) {
+ *     batch.loadAll(false).join();
+ * }
+ * }</pre>
+ * Callbacks run on the virtual thread that finished the operation; Swing code must hop back to
+ * the event dispatch thread with {@code SwingUtilities.invokeLater}.
+ *
+ * <p>Dependencies:</p>
+ * - RecipeStorage.java
+ *
+ * <p>Notes:</p>
+ * - I/O failures complete the future exceptionally with the original {@link IOException}, for
+ *   example a {@link RecipeConflictException} from a save.
+ * - Closing the service waits for operations already submitted to finish. Shared services from
+ *   {@link #forDirectory(String)} are never closed; they hold no threads while idle.
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class RecipeIOService implements AutoCloseable {
+    public static final int DEFAULT_MAX_CONCURRENT = 256;
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final Map<Path, RecipeIOService> SHARED = new ConcurrentHashMap<>();
+
+    private final String directoryPath;
+    private final int maxConcurrent;
+    private final Duration timeout;
+    private final Semaphore permits;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * An I/O operation run by the service.
+     *
+     * @param <T> The result type.
+     */
+    @FunctionalInterface
+    public interface Operation<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * Creates a service for a recipe directory with the default limits.
+     *
+     * @param directoryPath The recipe directory.
+     */
+    public RecipeIOService(String directoryPath) {
+        this(directoryPath, DEFAULT_MAX_CONCURRENT, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Creates a service for a recipe directory.
+     *
+     * @param directoryPath The recipe directory.
+     * @param maxConcurrent The most operations allowed to run at once.
+     * @param timeout The default time allowed for one operation, including time spent waiting
+     *                for a permit.
+     */
+    public RecipeIOService(String directoryPath, int maxConcurrent, Duration timeout) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be at least 1");
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+        this.directoryPath = directoryPath;
+        this.maxConcurrent = maxConcurrent;
+        this.timeout = timeout;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Returns the shared service for a recipe directory, creating it with the default limits on
+     * first use. The shared service must not be closed.
+     *
+     * @param directoryPath The recipe directory.
+     * @return The shared service for the directory.
+     */
+    public static RecipeIOService forDirectory(String directoryPath) {
+        return SHARED.computeIfAbsent(Paths.get(directoryPath).toAbsolutePath().normalize(),
+                unused -> new RecipeIOService(directoryPath));
+    }
+
+    public String getDirectoryPath() {
+        return directoryPath;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Loads one recipe by name.
+     *
+     * @param recipeName The recipe name.
+     * @return A future for the loaded recipe.
+     */
+    public CompletableFuture<Recipe> load(String recipeName) {
+        Path filePath = Paths.get(directoryPath, RecipeStorage.fileNameFor(recipeName));
+        return submit(() -> RecipeStorage.loadRecipe(filePath), timeout);
+    }
+
+    /**
+     * Loads every recipe in the directory.
+     *
+     * @param lazy Whether to load headers only, see {@link RecipeStorage#loadAllRecipes(String, boolean)}.
+     * @return A future for the loaded collection.
+     */
+    public CompletableFuture<RecipeCollection> loadAll(boolean lazy) {
+        return submit(() -> RecipeStorage.loadAllRecipes(directoryPath, lazy), timeout);
+    }
+
+    /**
+     * Saves a recipe.
+     *
+     * @param recipe The recipe to save.
+     * @return A future that completes when the file has been written.
+     */
+    public CompletableFuture<Void> save(Recipe recipe) {
+        return submit(() -> {
+            RecipeStorage.saveRecipe(recipe, directoryPath);
+            return null;
+        }, timeout);
+    }
+
+    /**
+     * Deletes a recipe's file.
+     *
+     * @param recipe The recipe to delete.
+     * @return A future for whether a file was deleted.
+     */
+    public CompletableFuture<Boolean> delete(Recipe recipe) {
+        return submit(() -> RecipeStorage.deleteRecipe(recipe, directoryPath), timeout);
+    }
+
+    /**
+     * Runs any I/O operation under the service's concurrency limit.
+     *
+     * @param operation The operation to run.
+     * @param operationTimeout The time allowed for this operation.
+     * @param <T> The result type.
+     * @return A future for the operation's result.
+     */
+    public <T> CompletableFuture<T> submit(Operation<T> operation, Duration operationTimeout) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            try {
+                if (!result.isDone()) {
+                    result.complete(operation.run());
+                }
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                permits.release();
+            }
+        });
+        result.orTimeout(operationTimeout.toNanos(), TimeUnit.NANOSECONDS).whenComplete((value, error) -> {
+            if (error instanceof TimeoutException || result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Stops accepting new operations and waits for submitted ones to finish.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
@@ -0,0 +1,501 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The RecipeImporter class bulk-loads large recipe dumps into a recipe directory. It accepts
+ * JSON Lines files (one {@code {"recipe": {...}}} object per line) and files holding a single
+ * top-level JSON array of such objects. Input is parsed as a stream, so a dump with hundreds of
+ * thousands of recipes never has to fit in memory at once.
+ *
+ * <p>Features:</p>
+ * - Streams JSON Lines and top-level JSON arrays one row at a time.
+ * - Validates every row with the same rules used when loading recipes ({@link Recipe#fromJson}).
+ * - Serializes and writes accepted recipes in batches, writing each batch in parallel through
+ *   {@link RecipeStorage}, so every file is written atomically and storage listeners see it.
+ * - Rejects rows that would replace a recipe already in the library, unless replacing is enabled,
+ *   and rows whose names map to the same file as an earlier row of the same run.
+ * - Produces an {@link ImportReport} with counts, throughput, and the reasons rows were rejected.
+ * - Reads back ZIP and gzip JSON Lines archives written by {@link RecipeExporter}.
+ * - Optionally records canonical ingredient names with an {@link IngredientMatcher}.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * RecipeImporter importer = new RecipeImporter("/path/to/recipes/directory");
+ * RecipeImporter.ImportReport report = importer.importFile(Paths.get("dump.jsonl"));
+ * System.out.println(report);
+ * }</pre>
+ *
+ * <p>Dependencies:</p>
+ * - Recipe.java
+ * - RecipeStorage.java
+ *
+ * <p>Notes:</p>
+ * - A syntax error inside a JSON array cannot be skipped safely, so it stops the import; rows
+ *   imported before the error are kept and the error is listed in the report.
+ * - In JSON Lines input a malformed line only rejects that line.
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+public class RecipeImporter {
+    /**
+     * Default number of recipes serialized and written together.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    // Only the lowest-numbered rejections are kept in detail so a bad dump cannot exhaust memory
+    static final int MAX_REPORTED_REJECTIONS = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String directoryPath;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private IngredientMatcher ingredientMatcher;
+    private boolean replaceExisting;
+
+    /**
+     * Creates an importer that writes recipes into the given directory.
+     *
+     * @param directoryPath The recipe directory to import into.
+     */
+    public RecipeImporter(String directoryPath) {
+        this.directoryPath = directoryPath;
+    }
+
+    /**
+     * Sets how many accepted recipes are buffered before they are written.
+     *
+     * @param batchSize The batch size; must be at least 1.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sets a matcher used to record the canonical name of every imported ingredient, so the same
+     * ingredient can be grouped across the library however it is spelled. Names as written are
+     * kept; ingredients with no match get no canonical name.
+     *
+     * @param ingredientMatcher The matcher, or {@code null} to record no canonical names.
+     */
+    public void setIngredientMatcher(IngredientMatcher ingredientMatcher) {
+        this.ingredientMatcher = ingredientMatcher;
+    }
+
+    /**
+     * Sets whether imported recipes replace recipes already stored under the same file name. By
+     * default such rows are rejected and the stored recipe is kept.
+     *
+     * @param replaceExisting {@code true} to replace existing recipes.
+     */
+    public void setReplaceExisting(boolean replaceExisting) {
+        this.replaceExisting = replaceExisting;
+    }
+
+    /**
+     * Imports a file, detecting its format from the first non-whitespace character:
+     * {@code [} for a JSON array, anything else for JSON Lines.
+     *
+     * @param source The file to import.
+     * @return The import report.
+     * @throws IOException If the file cannot be read or a batch cannot be written.
+     */
+    public ImportReport importFile(Path source) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            reader.mark(1);
+            int c = reader.read();
+            while (c != -1 && Character.isWhitespace(c)) {
+                reader.mark(1);
+                c = reader.read();
+            }
+            reader.reset();
+            return c == '[' ? importJsonArray(reader) : importJsonLines(reader);
+        }
+    }
+
+    /**
+     * Imports recipes from JSON Lines input, one {@code {"recipe": {...}}} object per line.
+     * Blank lines are skipped; malformed or invalid lines are rejected individually.
+     *
+     * @param input The JSON Lines input.
+     * @return The import report.
+     * @throws IOException If the input cannot be read or a batch cannot be written.
+     */
+    public ImportReport importJsonLines(Reader input) throws IOException {
+        BufferedReader reader = input instanceof BufferedReader buffered ? buffered : new BufferedReader(input);
+        ImportSession session = new ImportSession();
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                session.accept(lineNumber, new JSONObject(line));
+            } catch (JSONException e) {
+                session.reject(lineNumber, "Malformed JSON: " + e.getMessage());
+            }
+        }
+        return session.finish();
+    }
+
+    /**
+     * Imports recipes from a single top-level JSON array of {@code {"recipe": {...}}} objects.
+     * The array is read one element at a time, so only the current element is held in memory.
+     *
+     * @param input The JSON array input.
+     * @return The import report.
+     * @throws IOException If the input cannot be read or a batch cannot be written.
+     */
+    public ImportReport importJsonArray(Reader input) throws IOException {
+        ImportSession session = new ImportSession();
+        JSONTokener tokener = new JSONTokener(input);
+        long element = 0;
+        try {
+            if (tokener.nextClean() != '[') {
+                throw tokener.syntaxError("Expected a top-level JSON array");
+            }
+            if (tokener.nextClean() != ']') {
+                tokener.back();
+                while (true) {
+                    element++;
+                    Object value = tokener.nextValue();
+                    if (value instanceof JSONObject rowJson) {
+                        session.accept(element, rowJson);
+                    } else {
+                        session.reject(element, "Array element is not a JSON object");
+                    }
+                    char separator = tokener.nextClean();
+                    if (separator == ']') {
+                        break;
+                    }
+                    if (separator != ',') {
+                        throw tokener.syntaxError("Expected ',' or ']' after array element");
+                    }
+                }
+            }
+        } catch (JSONException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            session.reject(element, "Import stopped, malformed JSON: " + e.getMessage());
+        }
+        return session.finish();
+    }
+
+    /**
+     * Imports an archive written by {@link RecipeExporter}. ZIP archives are read entry by entry,
+     * each {@code .json} entry holding one recipe file; any other archive is treated as
+     * gzip-compressed JSON Lines.
+     *
+     * @param archive The archive to import.
+     * @return The import report. For ZIP archives, row numbers are 1-based entry indexes.
+     * @throws IOException If the archive cannot be read or a batch cannot be written.
+     */
+    public ImportReport importArchive(Path archive) throws IOException {
+        if (!RecipeExporter.isZip(archive)) {
+            try (Reader reader = new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(archive), BUFFER_SIZE), StandardCharsets.UTF_8)) {
+                return importJsonLines(new BufferedReader(reader, BUFFER_SIZE));
+            }
+        }
+
+        ImportSession session = new ImportSession();
+        try (ZipInputStream zip = new ZipInputStream(new BufferedInputStream(Files.newInputStream(archive), BUFFER_SIZE))) {
+            ZipEntry entry;
+            long entryIndex = 0;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory() || !entry.getName().endsWith(".json")) {
+                    continue;
+                }
+                entryIndex++;
+                try {
+                    session.accept(entryIndex, new JSONObject(new String(zip.readAllBytes(), StandardCharsets.UTF_8)));
+                } catch (JSONException e) {
+                    session.reject(entryIndex, entry.getName() + ": malformed JSON: " + e.getMessage());
+                }
+            }
+        }
+        return session.finish();
+    }
+
+    /**
+     * Validates one input row and returns the recipe it describes.
+     *
+     * @param rowJson The row, in the {@code {"recipe": {...}}} shape.
+     * @return The validated recipe.
+     * @throws JSONException If required fields are missing or have the wrong type.
+     * @throws IllegalArgumentException If a value is out of range, such as an unknown unit.
+     */
+    static Recipe validate(JSONObject rowJson) {
+        Recipe recipe = parseRow(rowJson);
+        checkRecipe(recipe);
+        return recipe;
+    }
+
+    /**
+     * Upgrades one input row to the current format and builds the recipe it describes.
+     *
+     * @param rowJson The row, in the {@code {"recipe": {...}}} shape.
+     * @return The recipe, not yet checked by {@link #checkRecipe(Recipe)}.
+     * @throws JSONException If required fields are missing or have the wrong type.
+     * @throws IllegalArgumentException If a value is out of range, such as an unknown unit.
+     */
+    static Recipe parseRow(JSONObject rowJson) {
+        JSONObject recipeJson = rowJson.getJSONObject("recipe");
+        RecipeMigrator.upgrade(recipeJson);
+        return Recipe.fromJson(recipeJson);
+    }
+
+    /**
+     * Checks the rules a parsed recipe must meet before it is imported.
+     *
+     * @param recipe The parsed recipe.
+     * @throws IllegalArgumentException If the name is blank or servings is less than 1.
+     */
+    static void checkRecipe(Recipe recipe) {
+        if (recipe.getName().isBlank()) {
+            throw new IllegalArgumentException("Recipe name is blank");
+        }
+        if (recipe.getServings() < 1) {
+            throw new IllegalArgumentException("Servings must be at least 1: " + recipe.getServings());
+        }
+    }
+
+    /**
+     * Stores one imported recipe through {@link RecipeStorage}, replacing an existing file only if
+     * asked to.
+     *
+     * @param recipe The recipe to store.
+     * @param directoryPath The recipe directory.
+     * @param replaceExisting {@code true} to replace a recipe stored under the same file name.
+     * @throws FileAlreadyExistsException If the recipe exists and may not be replaced.
+     * @throws IOException If the file cannot be written.
+     */
+    static void store(Recipe recipe, String directoryPath, boolean replaceExisting) throws IOException {
+        if (replaceExisting) {
+            RecipeStorage.saveRecipe(recipe, directoryPath);
+        } else {
+            RecipeStorage.createRecipe(recipe, directoryPath);
+        }
+    }
+
+    /**
+     * Tracks one import run: buffers accepted recipes, writes full batches, and collects statistics.
+     */
+    private class ImportSession {
+        private final long startNanos = System.nanoTime();
+        private final List<Pending> batch = new ArrayList<>(batchSize);
+        private final RejectionLog rejections = new RejectionLog();
+        // File names written in this run, with the row that wrote them
+        private final Map<String, Long> writtenFiles = new HashMap<>();
+        private long rowsRead;
+        private long imported;
+        private long rejected;
+
+        ImportSession() throws IOException {
+            Files.createDirectories(Paths.get(directoryPath));
+        }
+
+        void accept(long row, JSONObject rowJson) throws IOException {
+            rowsRead++;
+            Recipe recipe;
+            try {
+                recipe = validate(rowJson);
+            } catch (JSONException | IllegalArgumentException e) {
+                rejected++;
+                addRejection(row, e.getMessage());
+                return;
+            }
+            String fileName = RecipeStorage.fileNameFor(recipe.getName());
+            Long earlierRow = writtenFiles.putIfAbsent(fileName, row);
+            if (earlierRow != null) {
+                rejected++;
+                addRejection(row, "Same file name as row " + earlierRow + ": " + fileName);
+                return;
+            }
+            if (ingredientMatcher != null) {
+                ingredientMatcher.canonicalize(recipe);
+            }
+            batch.add(new Pending(row, recipe));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String reason) {
+            rowsRead++;
+            rejected++;
+            addRejection(row, reason);
+        }
+
+        ImportReport finish() throws IOException {
+            flush();
+            return new ImportReport(rowsRead, imported, rejected, rejections.inRowOrder(), System.nanoTime() - startNanos);
+        }
+
+        private void addRejection(long row, String reason) {
+            rejections.add(row, reason);
+        }
+
+        private void flush() throws IOException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            // Rows of one batch have distinct file names, so their writes never touch the same file
+            List<Pending> existing = Collections.synchronizedList(new ArrayList<>());
+            try {
+                batch.parallelStream().forEach(pending -> {
+                    try {
+                        store(pending.recipe(), directoryPath, replaceExisting);
+                    } catch (FileAlreadyExistsException e) {
+                        existing.add(pending);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            existing.sort(Comparator.comparingLong(Pending::row));
+            for (Pending pending : existing) {
+                rejected++;
+                addRejection(pending.row(), "Recipe already exists: " + RecipeStorage.fileNameFor(pending.recipe().getName()));
+            }
+            imported += batch.size() - existing.size();
+            batch.clear();
+        }
+    }
+
+    private record Pending(long row, Recipe recipe) {
+    }
+
+    /**
+     * Keeps the {@link #MAX_REPORTED_REJECTIONS} rejections with the lowest row numbers, in
+     * whatever order they arrive. Batched writes and parallel parsing reject rows out of order, so
+     * simply keeping the first ones to arrive would list an arbitrary selection. Not thread-safe.
+     */
+    static final class RejectionLog {
+        // A max-heap on the row number, so the highest kept row is dropped when a lower one arrives
+        private final PriorityQueue<Rejection> lowest =
+                new PriorityQueue<>(Comparator.comparingLong(Rejection::row).reversed());
+
+        void add(long row, String reason) {
+            if (lowest.size() == MAX_REPORTED_REJECTIONS && row >= lowest.peek().row()) {
+                return;
+            }
+            lowest.add(new Rejection(row, reason));
+            if (lowest.size() > MAX_REPORTED_REJECTIONS) {
+                lowest.poll();
+            }
+        }
+
+        List<Rejection> inRowOrder() {
+            List<Rejection> sorted = new ArrayList<>(lowest);
+            sorted.sort(Comparator.comparingLong(Rejection::row));
+            return sorted;
+        }
+    }
+
+    /**
+     * A rejected input row and the reason it was rejected.
+     *
+     * @param row The 1-based line number (JSON Lines) or element index (JSON array).
+     * @param reason Why the row was rejected.
+     */
+    public record Rejection(long row, String reason) {
+    }
+
+    /**
+     * The outcome of an import run.
+     */
+    public static class ImportReport {
+        private final long rowsRead;
+        private final long imported;
+        private final long rejected;
+        private final List<Rejection> rejections;
+        private final long elapsedNanos;
+
+        ImportReport(long rowsRead, long imported, long rejected, List<Rejection> rejections, long elapsedNanos) {
+            this.rowsRead = rowsRead;
+            this.imported = imported;
+            this.rejected = rejected;
+            this.rejections = Collections.unmodifiableList(rejections);
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getRowsRead() {
+            return rowsRead;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * Returns the rejected rows in input order. At most the 1000 rejected rows with the lowest
+         * row numbers are listed, whatever order they were rejected in; {@link #getRejected()}
+         * always holds the full count.
+         *
+         * @return The rejected rows.
+         */
+        public List<Rejection> getRejections() {
+            return rejections;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns the number of input rows processed per second.
+         *
+         * @return The throughput in rows per second.
+         */
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Read %d rows: %d imported, %d rejected in %.2f s (%.0f rows/s)",
+                    rowsRead, imported, rejected, elapsedNanos / 1_000_000_000.0, getRowsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The RecipeLibrary class holds a versioned recipe library that long-running readers, such as
+ * exports, reports, and searches, can read from a stable snapshot while edits keep arriving.
+ * Each change produces a new immutable {@link Snapshot} with the next version number; snapshots
+ * share structure through {@link PersistentRecipeMap}, so taking a snapshot is O(1) and a write
+ * copies only the few trie nodes on the path to the changed recipe.
+ *
+ * <p>Features:</p>
+ * - {@link #snapshot()} returns the current version without locking or copying.
+ * - Writers publish new versions with compare-and-set and retry on contention, so readers are
+ *   never blocked and writers never copy the whole library.
+ * - Recipes are keyed by their storage file name, matching how {@link RecipeStorage} stores them.
+ * - Recipes are copied on the way in, so later edits to the caller's objects (for example by the
+ *   GUI's editor) never change a published snapshot.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * RecipeLibrary library = RecipeLibrary.fromCollection(RecipeStorage.loadAllRecipes(path));
+ * RecipeLibrary.Snapshot view = library.snapshot();  // Stable for as long as it is held
+ * library.put(editedRecipe);                          // Does not affect view
+ * }</pre>
+ *
+ * <p>Notes:</p>
+ * - Recipes returned from a snapshot are shared by every reader of that snapshot and must be
+ *   treated as read-only; copy one with {@code recipe.toSnapshot().toRecipe()} before editing it.
+ *
+ * <p>Dependencies:</p>
+ * - PersistentRecipeMap.java
+ * - RecipeStorage.java
+ *
+ * @author Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+public class RecipeLibrary {
+    private final AtomicReference<Snapshot> current;
+
+    /**
+     * Creates an empty library at version 0.
+     */
+    public RecipeLibrary() {
+        this.current = new AtomicReference<>(new Snapshot(0, PersistentRecipeMap.empty()));
+    }
+
+    /**
+     * Creates a library holding a copy of every recipe in a collection. Recipes whose names map to
+     * the same storage file keep only the last one, as they would on disk.
+     *
+     * @param collection The recipes to start with.
+     * @return A new library at version 1.
+     */
+    public static RecipeLibrary fromCollection(RecipeCollection collection) {
+        PersistentRecipeMap recipes = PersistentRecipeMap.empty();
+        for (Recipe recipe : collection.getRecipes()) {
+            recipes = recipes.with(keyFor(recipe.getName()), copyOf(recipe));
+        }
+        RecipeLibrary library = new RecipeLibrary();
+        library.current.set(new Snapshot(1, recipes));
+        return library;
+    }
+
+    /**
+     * Returns the current version of the library. The snapshot never changes, no matter how many
+     * writes happen after it was taken.
+     *
+     * @return The current snapshot.
+     */
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Adds or replaces a recipe. The library stores a copy, so the caller may keep editing the
+     * recipe without affecting any snapshot.
+     *
+     * @param recipe The recipe to store.
+     * @return The snapshot that includes the change.
+     */
+    public Snapshot put(Recipe recipe) {
+        String key = keyFor(recipe.getName());
+        Recipe copy = copyOf(recipe);
+        return update(recipes -> recipes.with(key, copy));
+    }
+
+    /**
+     * Removes the recipe with the given name.
+     *
+     * @param recipeName The name of the recipe to remove.
+     * @return The snapshot that includes the change.
+     */
+    public Snapshot remove(String recipeName) {
+        String key = keyFor(recipeName);
+        return update(recipes -> recipes.without(key));
+    }
+
+    /**
+     * Applies a change to the recipe map and publishes the result as a new version. The change may
+     * run more than once if another writer publishes first, so it must not have side effects.
+     *
+     * @param change A function from the current map to the new map.
+     * @return The snapshot that includes the change, or the current snapshot if nothing changed.
+     */
+    public Snapshot update(UnaryOperator<PersistentRecipeMap> change) {
+        while (true) {
+            Snapshot base = current.get();
+            PersistentRecipeMap next = change.apply(base.recipes);
+            if (next == base.recipes) {
+                return base;
+            }
+            Snapshot updated = new Snapshot(base.version + 1, next);
+            if (current.compareAndSet(base, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    private static Recipe copyOf(Recipe recipe) {
+        return recipe.toSnapshot().toRecipe();
+    }
+
+    private static String keyFor(String recipeName) {
+        return RecipeStorage.fileNameFor(recipeName);
+    }
+
+    /**
+     * An immutable, versioned view of the library.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final PersistentRecipeMap recipes;
+
+        private Snapshot(long version, PersistentRecipeMap recipes) {
+            this.version = version;
+            this.recipes = recipes;
+        }
+
+        /**
+         * Returns the version number; every published change increases it by one.
+         *
+         * @return The version of this snapshot.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Returns the recipe with the given name in this snapshot.
+         *
+         * @param recipeName The recipe name.
+         * @return The recipe, or {@code null} if it is not in this snapshot.
+         */
+        public Recipe get(String recipeName) {
+            return recipes.get(keyFor(recipeName));
+        }
+
+        public int size() {
+            return recipes.size();
+        }
+
+        /**
+         * Returns the underlying persistent map.
+         *
+         * @return The recipe map of this snapshot.
+         */
+        public PersistentRecipeMap getRecipes() {
+            return recipes;
+        }
+
+        /**
+         * Returns the recipes sorted by name, for stable output in reports and exports.
+         *
+         * @return A new list of recipes sorted by name.
+         */
+        public List<Recipe> sortedByName() {
+            List<Recipe> sorted = new ArrayList<>(recipes.values());
+            sorted.sort(Comparator.comparing(Recipe::getName, String.CASE_INSENSITIVE_ORDER));
+            return sorted;
+        }
+
+        /**
+         * Copies this snapshot into a {@link RecipeCollection} for code that expects one. The
+         * collection gets its own copies, because adding a recipe to a collection registers a
+         * listener on it and the snapshot's recipes are shared with every other reader.
+         *
+         * @return A new collection holding copies of this snapshot's recipes.
+         */
+        public RecipeCollection toCollection() {
+            RecipeCollection collection = new RecipeCollection();
+            recipes.forEach((key, recipe) -> collection.addRecipe(copyOf(recipe)));
+            return collection;
+        }
+    }
+}
@@ -10,6 +10,7 @@
  * - Displays a list of available recipes.
  * - Allows users to view detailed information about a selected recipe.
  * - Enables the addition and editing of recipes and their ingredients.
+ * - Suggests recipes similar to the selected one ("More Like This").
  * - Provides a responsive layout that adapts to different screen sizes.
  * - Manages the loading and saving of recipes using file-based storage.
  * 
@@ -24,12 +25,14 @@
  * - Viewing recipes
  * - Adding new recipes
  * - Editing existing recipes
+ * - Finding similar recipes
  * - Navigating through the recipe list
  * 
  * <p>Dependencies:</p>
  * - Recipe.java
  * - RecipeCollection.java
  * - RecipeStorage.java
+ * - RecipeRecommender.java
  * - Ingredient.java
  * 
  * <p>Notes:</p>
@@ -59,6 +62,10 @@ import java.awt.event.ActionListener;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 import javax.swing.DefaultListModel;
 import javax.swing.JButton;
@@ -70,6 +77,7 @@ import javax.swing.JScrollPane;
 import javax.swing.JSplitPane;
 import javax.swing.JTextArea;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 
 public class RecipeManagerGUI extends JFrame {
     private String RecipePaths = "./src/main/java/recipes/";
@@ -79,6 +87,8 @@ public class RecipeManagerGUI extends JFrame {
     private JTextArea recipeDetailsArea; // Area to display selected recipe details
     private JPanel homePanel; // To hold the home screen panel
     private JSplitPane splitPane; // Split pane for displaying recipes and details
+    private RecipeRecommender recommender; // Built on first use, then kept current by storage events
+    private boolean recommenderLoading; // A RecommenderLoader is building the recommender
 
     public RecipeManagerGUI() {
         // Initialize the GUI components
@@ -139,6 +149,11 @@ public class RecipeManagerGUI extends JFrame {
         editRecipeButton.setForeground(Color.BLACK);
         editRecipeButton.addActionListener(new EditRecipeAction());
         topPanel.add(editRecipeButton);
+        JButton moreLikeThisButton = new JButton("More Like This");
+        moreLikeThisButton.setBackground(new Color(226, 117, 137)); // Pink
+        moreLikeThisButton.setForeground(Color.BLACK);
+        moreLikeThisButton.addActionListener(new MoreLikeThisAction());
+        topPanel.add(moreLikeThisButton);
 
         add(topPanel, BorderLayout.NORTH);
 
@@ -211,6 +226,9 @@ public class RecipeManagerGUI extends JFrame {
             if (selectedIndex != -1) {
                 // Fetch the selected recipe
                 Recipe selectedRecipe = recipeCollection.getRecipes().get(selectedIndex);
+                if (selectedRecipe instanceof LazyRecipe lazyRecipe) {
+                    lazyRecipe.materialize(); // The editor changes the ingredient and instruction lists in place
+                }
                 // Create an instance of EditRecipe and show the dialog
                 EditRecipe editRecipe = new EditRecipe(selectedRecipe);
                 editRecipe.addListener(() -> new LoadRecipesAction().actionPerformed(null));
@@ -260,6 +278,134 @@ public class RecipeManagerGUI extends JFrame {
         }
     }
 
+    /**
+     * This class handles the "More Like This" action: it lists the recipes most similar to the
+     * selected recipe in the details area, ranked by shared ingredients.
+     *
+     * <p>Key Features:</p>
+     * - Validates the selection of a recipe.
+     * - Builds the {@link RecipeRecommender} in the background the first time it is needed, then
+     *   shows the recommendations for whichever recipe is selected when it is ready.
+     * - Shows up to ten similar recipes with their match percentage.
+     *
+     * @see RecipeRecommender
+     * @see RecommenderLoader
+     */
+
+
+    private class MoreLikeThisAction implements ActionListener {
+        public void actionPerformed(ActionEvent e) {
+            int selectedIndex = recipeList.getSelectedIndex();
+            if (selectedIndex == -1) {
+                JOptionPane.showMessageDialog(null, "Please select a recipe.");
+                return;
+            }
+            if (recommender == null) {
+                if (!recommenderLoading) {
+                    recommenderLoading = true;
+                    new RecommenderLoader(new ArrayList<>(recipeCollection.getRecipes())).execute();
+                }
+                recipeDetailsArea.setText("Finding similar recipes...\n");
+                return;
+            }
+            showSimilarRecipes(recipeCollection.getRecipes().get(selectedIndex));
+        }
+    }
+
+    private void showSimilarRecipes(Recipe selectedRecipe) {
+        StringBuilder details = new StringBuilder();
+        details.append("Recipes like ").append(selectedRecipe.getName()).append(":\n");
+        int rank = 1;
+        for (RecipeRecommender.Recommendation recommendation : recommender.recommend(selectedRecipe, 10)) {
+            details.append(rank++).append(". ").append(recommendation.recipeName())
+                    .append(" (").append(Math.round(recommendation.score() * 100)).append("% match)\n");
+        }
+        if (rank == 1) {
+            details.append("No recipes share ingredients with this one.\n");
+        }
+        recipeDetailsArea.setText(details.toString());
+    }
+
+    /**
+     * Builds the {@link RecipeRecommender} off the Event Dispatch Thread, since indexing reads the
+     * body of every lazily loaded recipe from disk.
+     *
+     * <p>Key Features:</p>
+     * - Indexes a copy of the recipe list, so the list can change while it runs.
+     * - Records recipes saved or deleted during the build and applies them to the finished
+     *   recommender before it takes over as the storage listener, so no change is lost.
+     * - Shows the recommendations for the selected recipe once the recommender is ready.
+     */
+
+
+    private class RecommenderLoader extends SwingWorker<RecipeRecommender, Void>
+            implements RecipeStorage.StorageListener {
+        private final List<Recipe> recipes;
+        private final List<Consumer<RecipeRecommender>> missedChanges = new ArrayList<>();
+        private RecipeRecommender built;
+
+        RecommenderLoader(List<Recipe> recipes) {
+            this.recipes = recipes;
+            RecipeStorage.addStorageListener(this);
+        }
+
+        @Override
+        protected RecipeRecommender doInBackground() {
+            RecipeRecommender loaded = new RecipeRecommender();
+            for (Recipe recipe : recipes) {
+                loaded.put(recipe);
+            }
+            return loaded;
+        }
+
+        @Override
+        public void recipeSaved(Recipe recipe, Path filePath) {
+            apply(loaded -> loaded.put(recipe));
+        }
+
+        @Override
+        public void recipeDeleted(Recipe recipe, Path filePath) {
+            apply(loaded -> loaded.remove(recipe.getName()));
+        }
+
+        // Changes that arrive while the recommender takes over are applied directly; both are idempotent
+        private synchronized void apply(Consumer<RecipeRecommender> change) {
+            if (built != null) {
+                change.accept(built);
+            } else {
+                missedChanges.add(change);
+            }
+        }
+
+        @Override
+        protected void done() {
+            recommenderLoading = false;
+            RecipeRecommender loaded;
+            try {
+                loaded = get();
+            } catch (InterruptedException | ExecutionException ex) {
+                RecipeStorage.removeStorageListener(this);
+                recipeDetailsArea.setText("Could not find similar recipes: " + ex.getMessage() + "\n");
+                return;
+            }
+            synchronized (this) {
+                for (Consumer<RecipeRecommender> change : missedChanges) {
+                    change.accept(loaded);
+                }
+                missedChanges.clear();
+                built = loaded;
+            }
+            RecipeStorage.addStorageListener(loaded);
+            RecipeStorage.removeStorageListener(this);
+            recommender = loaded;
+
+            int selectedIndex = recipeList.getSelectedIndex();
+            if (selectedIndex != -1) {
+                showSimilarRecipes(recipeCollection.getRecipes().get(selectedIndex));
+            }
+        }
+    }
+
     /**
      * Displays the details of a selected recipe in the user interface. It retrieves the recipe from 
      * the file specified by the provided path, then formats and displays its name, preparation time, 
@@ -336,25 +482,7 @@ public class RecipeManagerGUI extends JFrame {
     private void showAddRecipeDialog() {
         AddRecipe addRecipe = new AddRecipe();
         addRecipe.showAddRecipeDialog(); 
-        try {
-            recipeCollection = RecipeStorage.loadAllRecipes(RecipePaths);
-            listModel.clear();
-            for (Recipe recipe : recipeCollection.getRecipes()) {
-                listModel.addElement(recipe.getName());
-            }
-            recipeList.revalidate();
-            recipeList.repaint();   recipeList.revalidate();
-            recipeList.repaint();
-            JOptionPane.showMessageDialog(null, "Loaded all Recipes!");
-             // Check if an item is selected
-            if (!listModel.isEmpty()) {
-                recipeList.setSelectedIndex(0); // Optionally select the first recipe
-                new ViewRecipeAction().actionPerformed(null); // Call the view action
-            }
-            showRecipeScreen();
-        } catch (IOException ex) {
-            JOptionPane.showMessageDialog(null, "Error loading recipes: " + ex.getMessage());
-        }
+        reloadRecipes();
     
         // Add listener to reload recipes after adding
 
@@ -378,7 +506,7 @@ public class RecipeManagerGUI extends JFrame {
      * and displays a message indicating whether the loading process was successful.
      * 
      * <p>Key Features:</p>
-     * - Loads all recipes from the disk by calling {@link RecipeStorage#loadAllRecipes(String)}.
+     * - Loads all recipes from the disk in the background by calling {@link #reloadRecipes()}.
      * - Clears and updates the list of recipes in the UI, ensuring it reflects the current data.
      * - Automatically selects the first recipe from the list and displays its details.
      * - Provides feedback to the user, notifying them if the recipe load operation was successful or if an error occurred.
@@ -396,28 +524,43 @@ public class RecipeManagerGUI extends JFrame {
 
     private class LoadRecipesAction implements ActionListener {
         public void actionPerformed(ActionEvent e) {
-            // Load recipes from disk and populate listModel
-            try {
-                recipeCollection = RecipeStorage.loadAllRecipes(RecipePaths);
-                listModel.clear();
-                for (Recipe recipe : recipeCollection.getRecipes()) {
-                    listModel.addElement(recipe.getName());
-                }
-                recipeList.revalidate();
-                recipeList.repaint();   recipeList.revalidate();
-                recipeList.repaint();
-                JOptionPane.showMessageDialog(null, "Loaded all Recipes!");
-                 // Check if an item is selected
-                if (!listModel.isEmpty()) {
-                    recipeList.setSelectedIndex(0); // Optionally select the first recipe
-                    new ViewRecipeAction().actionPerformed(null); // Call the view action
-                }
-                showRecipeScreen();
-            } catch (IOException ex) {
-                JOptionPane.showMessageDialog(null, "Error loading recipes: " + ex.getMessage());
-            }
+            reloadRecipes();
         }
     }
+
+    /**
+     * Loads the recipe headers from disk on a {@link RecipeIOService} thread, then shows them in the
+     * recipe list on the Event Dispatch Thread, so a large library never freezes the window.
+     *
+     * <p>Steps:</p>
+     * - Loads all recipes lazily: headers only, bodies load on demand.
+     * - Clears and refills the recipe list once the load has finished.
+     * - Selects the first recipe and displays its details.
+     * - Tells the user whether the load succeeded.
+     */
+    private void reloadRecipes() {
+        RecipeIOService.forDirectory(RecipePaths).loadAll(true).whenComplete((loaded, error) ->
+                SwingUtilities.invokeLater(() -> {
+                    if (error != null) {
+                        JOptionPane.showMessageDialog(null, "Error loading recipes: " + error.getMessage());
+                        return;
+                    }
+                    recipeCollection = loaded;
+                    listModel.clear();
+                    for (Recipe recipe : recipeCollection.getRecipes()) {
+                        listModel.addElement(recipe.getName());
+                    }
+                    recipeList.revalidate();
+                    recipeList.repaint();
+                    JOptionPane.showMessageDialog(null, "Loaded all Recipes!");
+                    // Check if an item is selected
+                    if (!listModel.isEmpty()) {
+                        recipeList.setSelectedIndex(0); // Optionally select the first recipe
+                        new ViewRecipeAction().actionPerformed(null); // Call the view action
+                    }
+                    showRecipeScreen();
+                }));
+    }
     /**
      * Displays the recipe screen by clearing the current home screen and adding the 
      * split pane layout to the main frame. This method is typically used to transition 
@@ -0,0 +1,302 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The RecipeManifest class keeps a record of every recipe file in a recipe directory so that
+ * {@link RecipeStorage} can tell which files changed since they were last read. Each entry stores
+ * the file's relative path, size, last-modified time, a content checksum, and a small header
+ * (name, servings, times, and total calories) describing the recipe inside the file.
+ *
+ * <p>Features:</p>
+ * - Detects unchanged files from their size and modified time alone (one stat per file, or the
+ *   attributes returned with the directory listing).
+ * - Keeps each file's CRC32C checksum, which is the version stamp of the recipe, so an unchanged
+ *   file needs no checksum pass, and its header, so a lazy load of an unchanged file reads nothing.
+ * - Persists entries to a {@code recipes.manifest} file inside the recipe directory.
+ * - Holds headers only: recipe bodies are not cached here, so memory stays proportional to the
+ *   number of files rather than their content.
+ *
+ * <p>Usage:</p>
+ * The manifest is managed by {@link RecipeStorage} and is normally not used directly:
+ * <pre>{@code
+ * RecipeManifest manifest = RecipeManifest.load(directory);
+ * RecipeManifest.Entry entry = manifest.lookup(path, attributes);
+ * }</pre>
+ *
+ * <p>Notes:</p>
+ * - The manifest file does not end in {@code .json}, so it is never mistaken for a recipe.
+ * - A missing or unreadable manifest is treated as empty; it is rebuilt on the next load.
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+public class RecipeManifest {
+    /**
+     * Name of the manifest file written into each recipe directory.
+     */
+    public static final String MANIFEST_FILE_NAME = "recipes.manifest";
+
+    private static final int MANIFEST_VERSION = 1;
+
+    private final Path directory;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private boolean dirty;
+
+    private RecipeManifest(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Loads the manifest stored in the given recipe directory. If the directory has no manifest
+     * yet, or the manifest cannot be read, an empty manifest is returned.
+     *
+     * @param directory The recipe directory.
+     * @return The manifest for the directory.
+     */
+    public static RecipeManifest load(Path directory) {
+        RecipeManifest manifest = new RecipeManifest(directory);
+        Path manifestPath = directory.resolve(MANIFEST_FILE_NAME);
+        try {
+            String data = Files.readString(manifestPath, StandardCharsets.UTF_8);
+            JSONObject json = new JSONObject(data);
+            if (json.optInt("version", 0) != MANIFEST_VERSION) {
+                return manifest;
+            }
+            JSONArray entryArray = json.getJSONArray("entries");
+            for (int i = 0; i < entryArray.length(); i++) {
+                Entry entry = Entry.fromJson(entryArray.getJSONObject(i));
+                manifest.entries.put(entry.fileName, entry);
+            }
+        } catch (NoSuchFileException e) {
+            // No manifest yet; it will be created on the next save
+        } catch (IOException | JSONException e) {
+            System.err.println("Ignoring unreadable recipe manifest " + manifestPath + ": " + e.getMessage());
+            manifest.entries.clear();
+        }
+        return manifest;
+    }
+
+    /**
+     * Returns the key used for a recipe file, which is its path relative to the recipe directory.
+     *
+     * @param file The recipe file.
+     * @return The manifest key for the file.
+     */
+    public String keyFor(Path file) {
+        return directory.relativize(file).toString().replace('\\', '/');
+    }
+
+    /**
+     * Returns the entry for a file if its size and modified time still match the given attributes.
+     *
+     * @param file The recipe file.
+     * @param attributes The file's current attributes.
+     * @return The matching entry, or {@code null} if the file is new or has changed on disk.
+     */
+    public Entry lookup(Path file, BasicFileAttributes attributes) {
+        Entry entry = entries.get(keyFor(file));
+        if (entry != null
+                && entry.size == attributes.size()
+                && entry.modifiedMillis == attributes.lastModifiedTime().toMillis()) {
+            return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the entry for a file regardless of whether it is still current.
+     *
+     * @param file The recipe file.
+     * @return The last recorded entry, or {@code null} if none exists.
+     */
+    public Entry get(Path file) {
+        return entries.get(keyFor(file));
+    }
+
+    /**
+     * Records the current state of a recipe file and the header of the recipe read from it.
+     *
+     * @param file The recipe file.
+     * @param attributes The file's attributes at the time it was read.
+     * @param content The raw bytes read from the file.
+     * @param recipe The recipe parsed from the file.
+     * @return The updated entry.
+     */
+    public Entry record(Path file, BasicFileAttributes attributes, byte[] content, Recipe recipe) {
+        String key = keyFor(file);
+        Entry entry = new Entry(key, attributes.size(), attributes.lastModifiedTime().toMillis(), checksum(content));
+        entry.setHeader(recipe);
+        entries.put(key, entry);
+        dirty = true;
+        return entry;
+    }
+
+    /**
+     * Drops entries for files that were not seen during the last directory scan.
+     *
+     * @param seenKeys The keys of all recipe files currently in the directory.
+     */
+    public void retainOnly(Set<String> seenKeys) {
+        if (entries.keySet().retainAll(seenKeys)) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Removes the entry for a file, for example after it was deleted.
+     *
+     * @param file The recipe file.
+     */
+    public void remove(Path file) {
+        if (entries.remove(keyFor(file)) != null) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Writes the manifest to the recipe directory if any entry changed since it was loaded.
+     * The file is written to a temporary file first and then moved into place.
+     *
+     * @throws IOException If the manifest cannot be written.
+     */
+    public void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        JSONArray entryArray = new JSONArray();
+        for (Entry entry : entries.values()) {
+            entryArray.put(entry.toJson());
+        }
+        JSONObject json = new JSONObject();
+        json.put("version", MANIFEST_VERSION);
+        json.put("entries", entryArray);
+
+        Path manifestPath = directory.resolve(MANIFEST_FILE_NAME);
+        Path tempPath = directory.resolve(MANIFEST_FILE_NAME + ".tmp");
+        Files.write(tempPath, json.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(tempPath, manifestPath, StandardCopyOption.REPLACE_EXISTING);
+        dirty = false;
+    }
+
+    /**
+     * Computes the CRC32C checksum used to identify recipe file content.
+     *
+     * @param content The bytes to checksum.
+     * @return The checksum value.
+     */
+    public static long checksum(byte[] content) {
+        CRC32C crc = new CRC32C();
+        crc.update(content);
+        return crc.getValue();
+    }
+
+    /**
+     * A single manifest entry describing one recipe file.
+     */
+    public static class Entry {
+        private final String fileName;
+        private final long size;
+        private final long modifiedMillis;
+        private final long checksum;
+        private String name;
+        private int servings;
+        private String prepTime;
+        private String cookTime;
+        private double totalCalories;
+
+        private Entry(String fileName, long size, long modifiedMillis, long checksum) {
+            this.fileName = fileName;
+            this.size = size;
+            this.modifiedMillis = modifiedMillis;
+            this.checksum = checksum;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getModifiedMillis() {
+            return modifiedMillis;
+        }
+
+        public long getChecksum() {
+            return checksum;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getServings() {
+            return servings;
+        }
+
+        public String getPrepTime() {
+            return prepTime;
+        }
+
+        public String getCookTime() {
+            return cookTime;
+        }
+
+        public double getTotalCalories() {
+            return totalCalories;
+        }
+
+        private void setHeader(Recipe recipe) {
+            this.name = recipe.getName();
+            this.servings = recipe.getServings();
+            this.prepTime = recipe.getPrepTime();
+            this.cookTime = recipe.getCookTime();
+            this.totalCalories = recipe.getTotalRecipeCalories();
+        }
+
+        private JSONObject toJson() {
+            JSONObject json = new JSONObject();
+            json.put("file", fileName);
+            json.put("size", size);
+            json.put("modified", modifiedMillis);
+            json.put("checksum", checksum);
+            json.put("name", name);
+            json.put("servings", servings);
+            json.put("prep_time", prepTime);
+            json.put("cook_time", cookTime);
+            json.put("total_calories", totalCalories);
+            return json;
+        }
+
+        private static Entry fromJson(JSONObject json) {
+            Entry entry = new Entry(json.getString("file"), json.getLong("size"),
+                    json.getLong("modified"), json.getLong("checksum"));
+            entry.name = json.optString("name", null);
+            entry.servings = json.optInt("servings", 0);
+            entry.prepTime = json.optString("prep_time", "");
+            entry.cookTime = json.optString("cook_time", "");
+            entry.totalCalories = json.optDouble("total_calories", 0.0);
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The RecipeMigrator class upgrades stored recipes from older versions of the recipe file format
+ * to the current {@link RecipeStorage#FORMAT_VERSION}. Each recipe object carries a
+ * {@code format_version} field; files written before the field existed are treated as version 1.
+ * Migrations are applied one version step at a time, so a new format change only needs a single
+ * new {@link Migration}.
+ *
+ * <p>Features:</p>
+ * - Upgrades a single recipe JSON object in memory, used whenever a recipe is read.
+ * - Migrates a whole recipe directory in parallel without going through the GUI.
+ * - Writes migrated files next to the originals first and only replaces the originals once every
+ *   file migrated successfully, each with an atomic move.
+ * - Replaces each original under {@link RecipeStorage}'s per-file save lock and only if it is
+ *   unchanged since it was read, so a concurrent save is never lost; the directory's manifest and
+ *   storage listeners are updated as for a save.
+ * - Runnable from the command line with {@code recipe_manager migrate} (see {@link RecipeCli}).
+ *
+ * <p>Format history:</p>
+ * - Version 1: no {@code format_version} field; {@code calories_per_cup} was ignored on read.
+ * - Version 2: adds {@code format_version}; {@code calories_per_cup} is read back for cup
+ *   ingredients.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * RecipeMigrator.MigrationReport report = RecipeMigrator.migrateLibrary("/path/to/recipes");
+ * }</pre>
+ *
+ * <p>Dependencies:</p>
+ * - RecipeStorage.java
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+public class RecipeMigrator {
+    private static final String STAGED_SUFFIX = ".migrating";
+
+    /**
+     * A single upgrade step from one format version to the next.
+     */
+    public interface Migration {
+        /**
+         * Returns the version this step upgrades from; the result is {@code fromVersion() + 1}.
+         *
+         * @return The source format version.
+         */
+        int fromVersion();
+
+        /**
+         * Upgrades a {@code recipe} JSON object in place.
+         *
+         * @param recipeJson The recipe object to upgrade.
+         */
+        void migrate(JSONObject recipeJson);
+    }
+
+    // Must contain one step for every version below RecipeStorage.FORMAT_VERSION
+    private static final List<Migration> MIGRATIONS = List.of(new CaloriesPerCupMigration());
+
+    /**
+     * Returns the format version of a {@code recipe} JSON object.
+     *
+     * @param recipeJson The recipe object.
+     * @return The stored {@code format_version}, or 1 if the field is missing.
+     */
+    public static int versionOf(JSONObject recipeJson) {
+        return recipeJson.optInt("format_version", 1);
+    }
+
+    /**
+     * Upgrades a {@code recipe} JSON object in place to the current format version.
+     *
+     * @param recipeJson The recipe object to upgrade.
+     * @return {@code true} if the object was changed.
+     * @throws IllegalArgumentException If the recipe was written by a newer, unknown format version.
+     */
+    public static boolean upgrade(JSONObject recipeJson) {
+        int version = versionOf(recipeJson);
+        if (version > RecipeStorage.FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported recipe format version " + version
+                    + " (newest supported is " + RecipeStorage.FORMAT_VERSION + ")");
+        }
+        if (version == RecipeStorage.FORMAT_VERSION) {
+            return false;
+        }
+        while (version < RecipeStorage.FORMAT_VERSION) {
+            migrationFrom(version).migrate(recipeJson);
+            version++;
+            recipeJson.put("format_version", version);
+        }
+        return true;
+    }
+
+    private static Migration migrationFrom(int version) {
+        for (Migration migration : MIGRATIONS) {
+            if (migration.fromVersion() == version) {
+                return migration;
+            }
+        }
+        throw new IllegalStateException("No migration registered from format version " + version);
+    }
+
+    /**
+     * Migrates every recipe file in a directory to the current format version. Files are read,
+     * upgraded, and staged in parallel; if any file fails, the staged files are removed and no
+     * original is touched. Otherwise each original is replaced by its staged file with an atomic move,
+     * unless it was saved again after it was read; such files are left as the save wrote them and
+     * reported separately. If replacing a file fails, the remaining staged files are removed and the
+     * manifest is still saved before the error is thrown.
+     *
+     * @param directoryPath The recipe directory to migrate.
+     * @return The migration report.
+     * @throws IOException If the directory cannot be listed or a staged file cannot be moved into place.
+     */
+    public static MigrationReport migrateLibrary(String directoryPath) throws IOException {
+        long startNanos = System.nanoTime();
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(Paths.get(directoryPath))) {
+            files = stream.filter(Files::isRegularFile)
+                          .filter(path -> path.toString().endsWith(".json"))
+                          .collect(Collectors.toList());
+        }
+
+        AtomicLong upToDate = new AtomicLong();
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        List<Staged> staged = files.parallelStream()
+                .map(file -> {
+                    try {
+                        Staged stagedFile = stage(file);
+                        if (stagedFile == null) {
+                            upToDate.incrementAndGet();
+                        }
+                        return stagedFile;
+                    } catch (IOException | JSONException | IllegalArgumentException e) {
+                        failures.add(file + ": " + e.getMessage());
+                        return null;
+                    }
+                })
+                .filter(stagedFile -> stagedFile != null)
+                .collect(Collectors.toList());
+
+        if (!failures.isEmpty()) {
+            for (Staged stagedFile : staged) {
+                Files.deleteIfExists(stagedFile.path());
+            }
+            return new MigrationReport(files.size(), 0, upToDate.get(), 0, failures, System.nanoTime() - startNanos);
+        }
+
+        Path directory = Paths.get(directoryPath);
+        RecipeManifest manifest = RecipeStorage.manifestFor(directory);
+        long migrated = 0;
+        long changed = 0;
+        try {
+            for (Staged stagedFile : staged) {
+                if (RecipeStorage.replaceIfUnchanged(stagedFile.original(), stagedFile.originalStamp(), stagedFile.path())) {
+                    migrated++;
+                    synchronized (manifest) {
+                        manifest.remove(stagedFile.original()); // Recorded again by the next load
+                    }
+                } else {
+                    changed++;
+                }
+            }
+        } finally {
+            // Removes copies that were not moved into place, including all remaining ones after an error
+            for (Staged stagedFile : staged) {
+                try {
+                    Files.deleteIfExists(stagedFile.path());
+                } catch (IOException e) {
+                    System.err.println("Failed to remove staged file " + stagedFile.path() + ": " + e.getMessage());
+                }
+            }
+            synchronized (manifest) {
+                try {
+                    manifest.save();
+                } catch (IOException e) {
+                    System.err.println("Failed to write recipe manifest for " + directoryPath + ": " + e.getMessage());
+                }
+            }
+        }
+        return new MigrationReport(files.size(), migrated, upToDate.get(), changed, failures, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Upgrades one recipe file into a staged copy next to it.
+     *
+     * @param file The recipe file.
+     * @return The staged copy, or {@code null} if the recipe is already current.
+     */
+    private static Staged stage(Path file) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        JSONObject completeJson = new JSONObject(new String(data));
+        JSONObject recipeJson = completeJson.getJSONObject("recipe");
+        if (!upgrade(recipeJson)) {
+            return null;
+        }
+        Recipe.fromJson(recipeJson); // Make sure the upgraded recipe still loads before staging it
+        Path stagedFile = file.resolveSibling(file.getFileName() + STAGED_SUFFIX);
+        Files.write(stagedFile, completeJson.toString(2).getBytes());
+        return new Staged(file, RecipeManifest.checksum(data), stagedFile);
+    }
+
+    // A migrated copy waiting to replace its original, and the stamp of the original it was made from
+    private record Staged(Path original, long originalStamp, Path path) {
+    }
+
+    /**
+     * Version 1 to 2: version 1 readers ignored {@code calories_per_cup} and used
+     * {@code calories_per_unit} for cup ingredients. The value is copied across so recipes keep the
+     * calories they always showed now that {@code calories_per_cup} is read back.
+     */
+    private static class CaloriesPerCupMigration implements Migration {
+        @Override
+        public int fromVersion() {
+            return 1;
+        }
+
+        @Override
+        public void migrate(JSONObject recipeJson) {
+            JSONArray ingredients = recipeJson.optJSONArray("ingredients");
+            if (ingredients == null) {
+                return;
+            }
+            for (int i = 0; i < ingredients.length(); i++) {
+                JSONObject ingredient = ingredients.optJSONObject(i);
+                if (ingredient == null) {
+                    continue;
+                }
+                double caloriesPerUnit = ingredient.optDouble("calories_per_unit", 0.0);
+                if ("cup".equalsIgnoreCase(ingredient.optString("unit")) || !ingredient.has("calories_per_cup")) {
+                    ingredient.put("calories_per_cup", caloriesPerUnit);
+                }
+            }
+        }
+    }
+
+    /**
+     * The outcome of a library migration.
+     *
+     * @param scanned The number of recipe files found.
+     * @param migrated The number of files rewritten in the current format.
+     * @param upToDate The number of files that were already current.
+     * @param changed The number of files left alone because they were saved again while the
+     *                migration ran; the save wrote them in the current format.
+     * @param failures Files that could not be migrated, with the reason; when non-empty nothing was rewritten.
+     * @param elapsedNanos The time the migration took.
+     */
+    public record MigrationReport(long scanned, long migrated, long upToDate, long changed, List<String> failures,
+                                  long elapsedNanos) {
+        @Override
+        public String toString() {
+            return String.format("Scanned %d recipes: %d migrated, %d already current, %d changed during migration, %d failed in %.2f s",
+                    scanned, migrated, upToDate, changed, failures.size(), elapsedNanos / 1_000_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,353 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The RecipePager class reads recipes a page at a time in a stable order, so UI lists, exports,
+ * and API clients can walk libraries of any size without holding all of them. Recipes are ordered
+ * by their storage file name, which is unique per recipe, and a page token records the last key
+ * of a page. The next page starts after that key rather than at a position, so recipes added or
+ * removed between requests never cause a recipe to be skipped or returned twice.
+ *
+ * <p>Features:</p>
+ * - {@link #page(Collection, String, int)} pages through recipes already in memory.
+ * - {@link #page(String, String, int)} pages through a recipe directory, reading only the recipe
+ *   files on the requested page.
+ * - {@link #iterate(String, int)} and {@link #stream(String, int)} walk a whole directory lazily,
+ *   keeping at most one page of recipes in memory.
+ * - Selecting a page keeps only the smallest keys seen so far, so memory is bounded by the page
+ *   size, not the library size.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * RecipePager.Page page = RecipePager.page(directoryPath, null, 100);
+ * while (true) {
+ *     show(page.recipes());
+ *     if (!page.hasNext()) break;
+ *     page = RecipePager.page(directoryPath, page.nextPageToken(), 100);
+ * }
+ *
+ * try (Stream<Recipe> recipes = RecipePager.stream(directoryPath, 500)) {
+ *     recipes.forEach(exporter::write);
+ * }
+ * }</pre>
+ *
+ * <p>Dependencies:</p>
+ * - RecipeStorage.java
+ *
+ * <p>Notes:</p>
+ * - Page tokens are opaque to clients; they are the URL-safe Base64 form of the last key.
+ * - Two recipes whose names map to the same file name are one recipe on disk; in memory the one
+ *   with the smaller name is returned first and the other on the same or the next page.
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.json.JSONException;
+
+public final class RecipePager {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    // The iterator lists this many pages' worth of file names per directory scan, so walking a
+    // directory takes a scan per few pages instead of one per page
+    private static final int PAGES_PER_SCAN = 16;
+
+    private static final Comparator<Keyed<Recipe>> RECIPE_ORDER =
+            Comparator.comparing((Keyed<Recipe> keyed) -> keyed.key())
+                    .thenComparing(keyed -> keyed.value().getName());
+
+    /**
+     * One page of recipes.
+     *
+     * @param recipes The recipes on this page, in key order.
+     * @param nextPageToken The token for the next page, or {@code null} if this is the last page.
+     */
+    public record Page(List<Recipe> recipes, String nextPageToken) {
+        public Page {
+            recipes = List.copyOf(recipes);
+        }
+
+        public boolean hasNext() {
+            return nextPageToken != null;
+        }
+    }
+
+    private record Keyed<T>(String key, T value) {
+    }
+
+    // The position a page token points after; name is set only for in-memory pages
+    private record Cursor(String key, String name) {
+    }
+
+    private RecipePager() {
+    }
+
+    /**
+     * Returns one page of recipes held in memory, for example a {@link RecipeCollection} or a
+     * {@link RecipeLibrary} snapshot.
+     *
+     * @param recipes The recipes to page through.
+     * @param pageToken The token from the previous page, or {@code null} for the first page.
+     * @param pageSize The number of recipes per page, from 1 to {@link #MAX_PAGE_SIZE}.
+     * @return The page.
+     * @throws IllegalArgumentException If the token or page size is invalid.
+     */
+    public static Page page(Collection<? extends Recipe> recipes, String pageToken, int pageSize) {
+        checkPageSize(pageSize);
+        Cursor after = decodeToken(pageToken);
+
+        // Largest key on top, so the heap keeps the pageSize + 1 smallest keys after the cursor;
+        // the extra one tells whether there is a next page
+        PriorityQueue<Keyed<Recipe>> smallest = new PriorityQueue<>(pageSize + 2, RECIPE_ORDER.reversed());
+        for (Recipe recipe : recipes) {
+            Keyed<Recipe> keyed = new Keyed<>(RecipeStorage.fileNameFor(recipe.getName()), recipe);
+            if (after != null && compareToCursor(keyed, after) <= 0) {
+                continue;
+            }
+            offer(smallest, keyed, pageSize + 1, RECIPE_ORDER);
+        }
+        List<Keyed<Recipe>> selected = drainSorted(smallest, RECIPE_ORDER);
+        boolean hasNext = selected.size() > pageSize;
+        List<Recipe> page = new ArrayList<>(Math.min(pageSize, selected.size()));
+        for (Keyed<Recipe> keyed : selected.subList(0, Math.min(pageSize, selected.size()))) {
+            page.add(keyed.value());
+        }
+        String next = null;
+        if (hasNext) {
+            Keyed<Recipe> last = selected.get(pageSize - 1);
+            next = encodeToken(last.key(), last.value().getName());
+        }
+        return new Page(page, next);
+    }
+
+    /**
+     * Returns one page of recipes from a recipe directory. The directory listing is scanned once and
+     * only the files on the page are read. Files that cannot be loaded are logged and left out, so a
+     * page may hold fewer recipes than the page size even when there is a next page.
+     *
+     * @param directoryPath The recipe directory.
+     * @param pageToken The token from the previous page, or {@code null} for the first page.
+     * @param pageSize The number of recipes per page, from 1 to {@link #MAX_PAGE_SIZE}.
+     * @return The page.
+     * @throws IllegalArgumentException If the token or page size is invalid.
+     * @throws IOException If the directory cannot be read.
+     */
+    public static Page page(String directoryPath, String pageToken, int pageSize) throws IOException {
+        checkPageSize(pageSize);
+        Path directory = Paths.get(directoryPath);
+        Cursor after = decodeToken(pageToken);
+        List<Keyed<Path>> files = nextFiles(directory, after != null ? after.key() : null, pageSize + 1);
+        boolean hasNext = files.size() > pageSize;
+        List<Keyed<Path>> pageFiles = files.subList(0, Math.min(pageSize, files.size()));
+        String next = hasNext ? encodeToken(pageFiles.get(pageSize - 1).key(), null) : null;
+        return new Page(loadAll(pageFiles), next);
+    }
+
+    /**
+     * Returns an iterator over every recipe in a directory in key order. Recipe files are read a
+     * page at a time as the iterator advances, and the directory listing is scanned again only after
+     * several pages, so memory stays bounded by the page size. Files that cannot be loaded are
+     * logged and skipped.
+     *
+     * @param directoryPath The recipe directory.
+     * @param pageSize The number of recipes read at a time, from 1 to {@link #MAX_PAGE_SIZE}.
+     * @return A lazy iterator; {@link Iterator#next()} throws {@link UncheckedIOException} if the
+     *         directory cannot be read.
+     */
+    public static Iterator<Recipe> iterate(String directoryPath, int pageSize) {
+        checkPageSize(pageSize);
+        return new DirectoryIterator(Paths.get(directoryPath), pageSize);
+    }
+
+    /**
+     * Returns a sequential stream over every recipe in a directory in key order, read lazily as
+     * described in {@link #iterate(String, int)}.
+     *
+     * @param directoryPath The recipe directory.
+     * @param pageSize The number of recipes read at a time, from 1 to {@link #MAX_PAGE_SIZE}.
+     * @return A lazy, ordered stream.
+     */
+    public static Stream<Recipe> stream(String directoryPath, int pageSize) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterate(directoryPath, pageSize),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Reads the recipe files of the next page, in parallel because they are independent.
+     */
+    private static List<Recipe> loadAll(List<Keyed<Path>> files) {
+        return files.parallelStream()
+                .map(file -> {
+                    try {
+                        return RecipeStorage.loadRecipe(file.value());
+                    } catch (IOException | JSONException | IllegalArgumentException e) {
+                        System.err.println("Error loading recipe from " + file.value() + ": " + e.getMessage());
+                        return null;
+                    }
+                })
+                .filter(recipe -> recipe != null)
+                .toList();
+    }
+
+    /**
+     * Scans a directory tree for the {@code count} recipe files with the smallest keys after the
+     * cursor. Keys are the file paths relative to the directory.
+     */
+    private static List<Keyed<Path>> nextFiles(Path directory, String after, int count) throws IOException {
+        Comparator<Keyed<Path>> order = Comparator.comparing(Keyed::key);
+        PriorityQueue<Keyed<Path>> smallest = new PriorityQueue<>(count + 1, order.reversed());
+        // find() passes the attributes read with the listing, so no file is stat'ed twice
+        try (Stream<Path> files = Files.find(directory, Integer.MAX_VALUE,
+                (path, attributes) -> attributes.isRegularFile() && path.toString().endsWith(".json"))) {
+            Iterator<Path> iterator = files.iterator();
+            while (iterator.hasNext()) {
+                Path file = iterator.next();
+                String key = directory.relativize(file).toString().replace('\\', '/');
+                if (after == null || key.compareTo(after) > 0) {
+                    offer(smallest, new Keyed<>(key, file), count, order);
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return drainSorted(smallest, order);
+    }
+
+    // Adds to a max-heap that keeps the limit smallest elements
+    private static <T> void offer(PriorityQueue<T> heap, T element, int limit, Comparator<T> order) {
+        if (heap.size() < limit) {
+            heap.add(element);
+        } else if (order.compare(element, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(element);
+        }
+    }
+
+    private static <T> List<T> drainSorted(PriorityQueue<T> heap, Comparator<T> order) {
+        List<T> sorted = new ArrayList<>(heap);
+        sorted.sort(order);
+        return sorted;
+    }
+
+    private static int compareToCursor(Keyed<Recipe> keyed, Cursor after) {
+        int byKey = keyed.key().compareTo(after.key());
+        if (byKey != 0 || after.name() == null) {
+            return byKey;
+        }
+        return keyed.value().getName().compareTo(after.name());
+    }
+
+    private static void checkPageSize(int pageSize) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ": " + pageSize);
+        }
+    }
+
+    // A token holds the last key and, for in-memory pages, the last name to order recipes that
+    // share a file name; the two are separated by a NUL, which neither can contain
+    private static String encodeToken(String key, String name) {
+        String cursor = name == null ? key : key + '\0' + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeToken(String pageToken) {
+        if (pageToken == null || pageToken.isEmpty()) {
+            return null;
+        }
+        String cursor;
+        try {
+            cursor = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token: " + pageToken);
+        }
+        int separator = cursor.indexOf('\0');
+        return separator < 0
+                ? new Cursor(cursor, null)
+                : new Cursor(cursor.substring(0, separator), cursor.substring(separator + 1));
+    }
+
+    /**
+     * Walks a directory in key order, listing up to {@link #PAGES_PER_SCAN} pages of file names per
+     * scan and reading one page of recipes at a time.
+     */
+    private static final class DirectoryIterator implements Iterator<Recipe> {
+        private final Path directory;
+        private final int pageSize;
+        private List<Keyed<Path>> pendingFiles = List.of();
+        private int nextFile;
+        private String lastKey;
+        private boolean directoryExhausted;
+        private List<Recipe> page = List.of();
+        private int nextRecipe;
+
+        DirectoryIterator(Path directory, int pageSize) {
+            this.directory = directory;
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (nextRecipe >= page.size()) {
+                if (!loadNextPage()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Recipe next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.get(nextRecipe++);
+        }
+
+        private boolean loadNextPage() {
+            if (nextFile >= pendingFiles.size()) {
+                if (directoryExhausted) {
+                    return false;
+                }
+                int scanSize = pageSize * PAGES_PER_SCAN;
+                try {
+                    pendingFiles = nextFiles(directory, lastKey, scanSize);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                nextFile = 0;
+                directoryExhausted = pendingFiles.size() < scanSize;
+                if (pendingFiles.isEmpty()) {
+                    return false;
+                }
+                lastKey = pendingFiles.get(pendingFiles.size() - 1).key();
+            }
+            int end = Math.min(nextFile + pageSize, pendingFiles.size());
+            page = loadAll(pendingFiles.subList(nextFile, end));
+            nextFile = end;
+            nextRecipe = 0;
+            return true;
+        }
+    }
+}
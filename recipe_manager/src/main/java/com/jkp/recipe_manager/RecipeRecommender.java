@@ -0,0 +1,399 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The RecipeRecommender class answers "more like this" queries: given a recipe, it returns the
+ * recipes in the library whose ingredients are most alike, optionally also favoring recipes with
+ * similar calories per serving and total time.
+ *
+ * <p>Features:</p>
+ * - Describes each recipe as a sparse TF-IDF vector over ingredient names, so a shared rare
+ *   ingredient (saffron) counts for more than a shared common one (salt).
+ * - Ranks by cosine similarity, blended with calorie and time closeness when
+ *   {@link #setFeatureWeights(double, double)} gives them a weight.
+ * - Uses an inverted index from ingredient to recipes, so only recipes sharing an ingredient are
+ *   scored. Query ingredients are processed rarest first; once {@link #DEFAULT_MAX_ACCUMULATORS}
+ *   recipes have partial scores, common ingredients only add to recipes already found, which keeps
+ *   a query fast even when "salt" appears in most of the library.
+ * - Updates incrementally: register the recommender with
+ *   {@link RecipeStorage#addStorageListener(RecipeStorage.StorageListener)} and every saved or
+ *   deleted recipe is re-indexed without rebuilding. Once replaced and deleted recipes outnumber
+ *   the live ones the index is renumbered without them, so it stays the size of the library no
+ *   matter how many saves a session makes.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * RecipeRecommender recommender = RecipeRecommender.fromCollection(collection);
+ * RecipeStorage.addStorageListener(recommender);
+ * List<RecipeRecommender.Recommendation> similar = recommender.recommend(recipe, 10);
+ * }</pre>
+ *
+ * <p>Dependencies:</p>
+ * - IngredientMatcher.java
+ * - Recipe.java
+ * - RecipeStorage.java
+ *
+ * <p>Notes:</p>
+ * - Recipes are keyed by their storage file name, like {@link RecipeLibrary}.
+ * - Recipes sharing no ingredient with the query are never recommended.
+ * - Building the index reads every recipe's ingredients, which loads the bodies of lazy recipes.
+ * - All methods are synchronized, so saves on other threads can update the index during queries.
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+public class RecipeRecommender implements RecipeStorage.StorageListener {
+    /**
+     * Number of recipes that may receive a partial score before common ingredients stop adding new ones.
+     */
+    public static final int DEFAULT_MAX_ACCUMULATORS = 5000;
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private List<Postings> postings = new ArrayList<>();
+    private final Map<String, Integer> slotsByKey = new HashMap<>();
+    private List<Document> documents = new ArrayList<>();
+    private int liveCount;
+    private int deadCount;
+    private int maxAccumulators = DEFAULT_MAX_ACCUMULATORS;
+    private double calorieWeight;
+    private double timeWeight;
+    private IngredientMatcher ingredientMatcher;
+
+    /**
+     * Builds a recommender holding every recipe in a collection.
+     *
+     * @param collection The recipes to index.
+     * @return The recommender.
+     */
+    public static RecipeRecommender fromCollection(RecipeCollection collection) {
+        RecipeRecommender recommender = new RecipeRecommender();
+        for (Recipe recipe : collection.getRecipes()) {
+            recommender.put(recipe);
+        }
+        return recommender;
+    }
+
+    /**
+     * Sets how much calories per serving and total time count next to shared ingredients. The
+     * ingredient similarity gets the remaining weight. Both default to 0.
+     *
+     * @param calorieWeight The weight of calorie closeness.
+     * @param timeWeight The weight of time closeness.
+     */
+    public synchronized void setFeatureWeights(double calorieWeight, double timeWeight) {
+        if (calorieWeight < 0 || timeWeight < 0 || calorieWeight + timeWeight >= 1) {
+            throw new IllegalArgumentException("Weights must be non-negative and sum to less than 1: "
+                    + calorieWeight + ", " + timeWeight);
+        }
+        this.calorieWeight = calorieWeight;
+        this.timeWeight = timeWeight;
+    }
+
+    /**
+     * Sets how many recipes may receive a partial score in one query. Higher values find more
+     * distant matches at the cost of speed.
+     *
+     * @param maxAccumulators The limit; must be at least 1.
+     */
+    public synchronized void setMaxAccumulators(int maxAccumulators) {
+        if (maxAccumulators < 1) {
+            throw new IllegalArgumentException("Accumulator limit must be at least 1: " + maxAccumulators);
+        }
+        this.maxAccumulators = maxAccumulators;
+    }
+
+    /**
+     * Sets a matcher used to reduce ingredient names to canonical names, so "Roma tomatoes" and
+     * "tomato" count as the same ingredient. Set it before adding recipes.
+     *
+     * @param ingredientMatcher The matcher, or {@code null} to compare names as written.
+     */
+    public synchronized void setIngredientMatcher(IngredientMatcher ingredientMatcher) {
+        this.ingredientMatcher = ingredientMatcher;
+    }
+
+    public synchronized int size() {
+        return liveCount;
+    }
+
+    /**
+     * Adds a recipe, replacing any recipe stored under the same file name.
+     *
+     * @param recipe The recipe to index.
+     */
+    public synchronized void put(Recipe recipe) {
+        String key = RecipeStorage.fileNameFor(recipe.getName());
+        remove(recipe.getName());
+        Set<String> names = ingredientNames(recipe);
+        int[] terms = new int[names.size()];
+        int i = 0;
+        for (String name : names) {
+            int term = termIds.computeIfAbsent(name, unused -> {
+                postings.add(new Postings());
+                return postings.size() - 1;
+            });
+            terms[i++] = term;
+        }
+        int slot = documents.size();
+        documents.add(new Document(recipe.getName(), terms, recipe.getCaloriesPerServing(), recipe.getTotalMinutes()));
+        for (int term : terms) {
+            postings.get(term).add(slot);
+        }
+        slotsByKey.put(key, slot);
+        liveCount++;
+    }
+
+    /**
+     * Removes the recipe stored under a recipe name's file name.
+     *
+     * @param recipeName The name of the recipe.
+     * @return {@code true} if a recipe was removed.
+     */
+    public synchronized boolean remove(String recipeName) {
+        Integer slot = slotsByKey.remove(RecipeStorage.fileNameFor(recipeName));
+        if (slot == null) {
+            return false;
+        }
+        for (int term : documents.get(slot).terms()) {
+            postings.get(term).live--;
+        }
+        documents.set(slot, null); // Postings still list the slot until the next compaction renumbers
+        liveCount--;
+        deadCount++;
+        if (deadCount > 1024 && deadCount > liveCount) {
+            compact();
+        }
+        return true;
+    }
+
+    @Override
+    public void recipeSaved(Recipe recipe, Path filePath) {
+        put(recipe);
+    }
+
+    @Override
+    public void recipeDeleted(Recipe recipe, Path filePath) {
+        remove(recipe.getName());
+    }
+
+    /**
+     * Returns the recipes most similar to an indexed recipe.
+     *
+     * @param recipeName The name of the indexed recipe.
+     * @param limit The most recommendations to return.
+     * @return The recommendations, best first; empty if the recipe is not indexed.
+     */
+    public synchronized List<Recommendation> recommend(String recipeName, int limit) {
+        Integer slot = slotsByKey.get(RecipeStorage.fileNameFor(recipeName));
+        if (slot == null) {
+            return List.of();
+        }
+        Document document = documents.get(slot);
+        return recommend(document.terms(), 0, document.caloriesPerServing(), document.minutes(), slot, limit);
+    }
+
+    /**
+     * Returns the recipes most similar to a recipe, which need not be indexed. The recipe itself,
+     * or the indexed recipe with the same file name, is never recommended.
+     *
+     * @param recipe The recipe to find similar recipes for.
+     * @param limit The most recommendations to return.
+     * @return The recommendations, best first.
+     */
+    public synchronized List<Recommendation> recommend(Recipe recipe, int limit) {
+        Integer self = slotsByKey.get(RecipeStorage.fileNameFor(recipe.getName()));
+        List<Integer> known = new ArrayList<>();
+        int unknown = 0;
+        for (String name : ingredientNames(recipe)) {
+            Integer term = termIds.get(name);
+            if (term != null) {
+                known.add(term);
+            } else {
+                unknown++;
+            }
+        }
+        int[] terms = known.stream().mapToInt(Integer::intValue).toArray();
+        return recommend(terms, unknown, recipe.getCaloriesPerServing(), recipe.getTotalMinutes(),
+                self != null ? self : -1, limit);
+    }
+
+    private List<Recommendation> recommend(int[] queryTerms, int unknownTerms, double calories, int minutes,
+                                           int self, int limit) {
+        if (limit < 1 || queryTerms.length == 0) {
+            return List.of();
+        }
+        // Rarest ingredients first: they carry the most weight and have the shortest posting lists
+        int[] terms = queryTerms.clone();
+        double[] idf = new double[postings.size()];
+        double queryNorm = unknownTerms * square(idf(0));
+        for (int term : terms) {
+            idf[term] = idf(postings.get(term).live);
+            queryNorm += square(idf[term]);
+        }
+        Integer[] order = Arrays.stream(terms).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.comparingInt(term -> postings.get(term).live));
+
+        Map<Integer, double[]> accumulators = new HashMap<>();
+        for (int term : order) {
+            double weight = square(idf[term]);
+            Postings list = postings.get(term);
+            for (int i = 0; i < list.size; i++) {
+                int slot = list.slots[i];
+                if (slot == self || documents.get(slot) == null) {
+                    continue;
+                }
+                double[] dot = accumulators.get(slot);
+                if (dot != null) {
+                    dot[0] += weight;
+                } else if (accumulators.size() < maxAccumulators) {
+                    accumulators.put(slot, new double[] {weight});
+                }
+            }
+        }
+
+        double ingredientWeight = 1 - calorieWeight - timeWeight;
+        double queryLength = Math.sqrt(queryNorm);
+        PriorityQueue<Recommendation> best = new PriorityQueue<>(Comparator.comparingDouble(Recommendation::score));
+        for (Map.Entry<Integer, double[]> entry : accumulators.entrySet()) {
+            Document document = documents.get(entry.getKey());
+            double documentNorm = 0;
+            for (int term : document.terms()) {
+                documentNorm += square(idf(postings.get(term).live));
+            }
+            double cosine = entry.getValue()[0] / (queryLength * Math.sqrt(documentNorm));
+            double score = ingredientWeight * cosine
+                    + calorieWeight * closeness(calories, document.caloriesPerServing())
+                    + timeWeight * closeness(minutes, document.minutes());
+            if (best.size() < limit) {
+                best.add(new Recommendation(document.name(), score, cosine));
+            } else if (score > best.peek().score()) {
+                best.poll();
+                best.add(new Recommendation(document.name(), score, cosine));
+            }
+        }
+        List<Recommendation> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Recommendation::score).reversed()
+                .thenComparing(Recommendation::recipeName));
+        return result;
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log((liveCount + 1.0) / (documentFrequency + 1.0)) + 1.0;
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+
+    // 1 for equal values, falling toward 0 as they differ; 0 when either value is unknown
+    private static double closeness(double a, double b) {
+        if (a <= 0 || b <= 0) {
+            return 0.0;
+        }
+        return Math.min(a, b) / Math.max(a, b);
+    }
+
+    private Set<String> ingredientNames(Recipe recipe) {
+        Set<String> names = new LinkedHashSet<>();
+        for (Ingredient ingredient : recipe.getIngredients()) {
+            String name = ingredientMatcher != null
+                    ? ingredientMatcher.canonicalName(ingredient.getName())
+                    : IngredientMatcher.normalize(ingredient.getName());
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    // Drops removed recipes and ingredients no recipe uses any more, then renumbers what is left,
+    // so the index shrinks back to the live library instead of growing with every save
+    private void compact() {
+        int[] newSlots = new int[documents.size()];
+        List<Document> liveDocuments = new ArrayList<>(liveCount);
+        for (int slot = 0; slot < documents.size(); slot++) {
+            Document document = documents.get(slot);
+            newSlots[slot] = document != null ? liveDocuments.size() : -1;
+            if (document != null) {
+                liveDocuments.add(document);
+            }
+        }
+
+        int[] newTerms = new int[postings.size()];
+        List<Postings> livePostings = new ArrayList<>();
+        for (int term = 0; term < postings.size(); term++) {
+            Postings list = postings.get(term);
+            if (list.live == 0) {
+                newTerms[term] = -1;
+                continue;
+            }
+            int kept = 0;
+            for (int i = 0; i < list.size; i++) {
+                int slot = newSlots[list.slots[i]];
+                if (slot >= 0) {
+                    list.slots[kept++] = slot;
+                }
+            }
+            list.size = kept;
+            list.slots = Arrays.copyOf(list.slots, Math.max(4, kept));
+            newTerms[term] = livePostings.size();
+            livePostings.add(list);
+        }
+
+        for (Document document : liveDocuments) {
+            int[] terms = document.terms();
+            for (int i = 0; i < terms.length; i++) {
+                terms[i] = newTerms[terms[i]];
+            }
+        }
+        termIds.values().removeIf(term -> newTerms[term] < 0);
+        termIds.replaceAll((name, term) -> newTerms[term]);
+        slotsByKey.replaceAll((key, slot) -> newSlots[slot]);
+        documents = liveDocuments;
+        postings = livePostings;
+        deadCount = 0;
+    }
+
+    /**
+     * One recommended recipe.
+     *
+     * @param recipeName The recipe's name.
+     * @param score The blended score, from 0 to 1.
+     * @param ingredientSimilarity The cosine similarity of the ingredient vectors, from 0 to 1.
+     */
+    public record Recommendation(String recipeName, double score, double ingredientSimilarity) {
+    }
+
+    private record Document(String name, int[] terms, double caloriesPerServing, int minutes) {
+    }
+
+    // The slots of the recipes using one ingredient; live excludes removed recipes still listed
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private int size;
+        private int live;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+            live++;
+        }
+    }
+}
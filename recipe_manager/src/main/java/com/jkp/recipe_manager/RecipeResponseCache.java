@@ -0,0 +1,307 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The RecipeResponseCache class keeps recipes already encoded as response bytes, so serving a
+ * recipe that has not changed costs a hash lookup and a buffer write instead of building and
+ * serializing its JSON again. Each entry holds the UTF-8 JSON body, optionally a gzip-compressed
+ * copy made once when the entry is created, and an ETag computed from the body, which lets clients
+ * revalidate with {@code If-None-Match} and receive {@code 304 Not Modified} without a body.
+ *
+ * <p>Features:</p>
+ * - Encodes each recipe once with the caller's encoder and reuses the bytes until it changes.
+ * - Pre-compresses bodies with gzip when enabled and when compression makes them smaller.
+ * - Strong ETags from a checksum of the body, with {@code If-None-Match} matching. The gzip body
+ *   has its own tag, since the two are different representations.
+ * - Drops entries when recipes are saved or deleted, as a {@link RecipeStorage.StorageListener}.
+ * - Never serves an entry for a different recipe object than the one asked for, so a recipe
+ *   replaced in memory is re-encoded even before the listener runs.
+ * - Bounded by total bytes.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * RecipeResponseCache cache = new RecipeResponseCache(recipe -> toJson(recipe));
+ * RecipeStorage.addStorageListener(cache);
+ * RecipeResponseCache.Entry entry = cache.get(recipe);
+ * if (entry.matches(request.getHeader("If-None-Match"))) {
+ *     // 304 Not Modified
+ * }
+ * }</pre>
+ *
+ * <p>Dependencies:</p>
+ * - RecipeStorage.java
+ * - RecipeManifest.java
+ *
+ * <p>Notes:</p>
+ * - Lookups are lock-free so many request threads can read at once. The byte limit is enforced
+ *   by evicting arbitrary entries, not the least recently used ones as {@link RecipeBodyCache}
+ *   does, because tracking access order would make every read a write.
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+import org.json.JSONObject;
+
+public class RecipeResponseCache implements RecipeStorage.StorageListener {
+    /**
+     * Default limit on the bytes held by all entries together.
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    // Below this, the gzip header and the CPU time cost more than the bytes saved
+    static final int MIN_GZIP_BYTES = 512;
+
+    private final Function<Recipe, JSONObject> encoder;
+    private final long maxBytes;
+    private final boolean gzip;
+    // Keyed by recipe name; entries are also checked against the recipe object, so a lookup needs
+    // no file name sanitizing
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong bytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a cache of at most {@link #DEFAULT_MAX_BYTES} that also keeps gzip bodies.
+     *
+     * @param encoder Builds the response JSON of a recipe.
+     */
+    public RecipeResponseCache(Function<Recipe, JSONObject> encoder) {
+        this(encoder, DEFAULT_MAX_BYTES, true);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param encoder Builds the response JSON of a recipe.
+     * @param maxBytes The limit on the bytes held by all entries; must be positive.
+     * @param gzip {@code true} to keep a gzip-compressed copy of each body.
+     */
+    public RecipeResponseCache(Function<Recipe, JSONObject> encoder, long maxBytes, boolean gzip) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxBytes);
+        }
+        this.encoder = encoder;
+        this.maxBytes = maxBytes;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Returns the encoded response for a recipe, encoding it if it is not cached or the cached
+     * entry was made from a different recipe object or version.
+     *
+     * @param recipe The recipe to encode.
+     * @return The cache entry.
+     */
+    public Entry get(Recipe recipe) {
+        String key = recipe.getName();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.source == recipe && entry.versionStamp == recipe.getVersionStamp()) {
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        Entry encoded = encode(recipe);
+        Entry previous = entries.put(key, encoded);
+        bytes.addAndGet(encoded.size() - (previous != null ? previous.size() : 0));
+        if (bytes.get() > maxBytes) {
+            trim();
+        }
+        return encoded;
+    }
+
+    /**
+     * Drops the entry of a recipe.
+     *
+     * @param recipeName The recipe name.
+     */
+    public void invalidate(String recipeName) {
+        Entry removed = entries.remove(recipeName);
+        if (removed != null) {
+            bytes.addAndGet(-removed.size());
+        }
+    }
+
+    /**
+     * Drops all entries.
+     */
+    public void clear() {
+        for (String key : entries.keySet()) {
+            Entry removed = entries.remove(key);
+            if (removed != null) {
+                bytes.addAndGet(-removed.size());
+            }
+        }
+    }
+
+    @Override
+    public void recipeSaved(Recipe recipe, Path filePath) {
+        invalidate(recipe.getName());
+    }
+
+    @Override
+    public void recipeDeleted(Recipe recipe, Path filePath) {
+        invalidate(recipe.getName());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the bytes held by all entries, counting both the plain and the gzip bodies.
+     *
+     * @return The cached bytes.
+     */
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    // Evicts until a quarter of the budget is free, so trimming does not run on every miss
+    private void trim() {
+        long target = maxBytes - maxBytes / 4;
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (bytes.get() > target && iterator.hasNext()) {
+            Map.Entry<String, Entry> candidate = iterator.next();
+            if (entries.remove(candidate.getKey(), candidate.getValue())) {
+                bytes.addAndGet(-candidate.getValue().size());
+            }
+        }
+    }
+
+    private Entry encode(Recipe recipe) {
+        byte[] json = encoder.apply(recipe).toString().getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = null;
+        if (gzip && json.length >= MIN_GZIP_BYTES) {
+            compressed = gzip(json);
+            if (compressed.length >= json.length) {
+                compressed = null;
+            }
+        }
+        String tag = String.format("%08x-%x", RecipeManifest.checksum(json), json.length);
+        return new Entry(recipe, recipe.getVersionStamp(), json, compressed, quote(tag), quote(tag + "-gzip"));
+    }
+
+    private static String quote(String tag) {
+        return "\"" + tag + "\"";
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 2);
+        try (GZIPOutputStream output = new GZIPOutputStream(buffer)) {
+            output.write(data);
+        } catch (IOException e) {
+            // Writing to memory does not fail
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * An encoded response. The byte arrays are shared between requests and must not be modified.
+     */
+    public static final class Entry {
+        private final Recipe source;
+        private final long versionStamp;
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String etag;
+        private final String gzipEtag;
+
+        private Entry(Recipe source, long versionStamp, byte[] json, byte[] gzip, String etag, String gzipEtag) {
+            this.source = source;
+            this.versionStamp = versionStamp;
+            this.json = json;
+            this.gzip = gzip;
+            this.etag = etag;
+            this.gzipEtag = gzipEtag;
+        }
+
+        /**
+         * Returns the UTF-8 JSON body.
+         *
+         * @return The body bytes.
+         */
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * Returns the gzip-compressed body.
+         *
+         * @return The compressed bytes, or {@code null} if the body was not compressed.
+         */
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        /**
+         * Returns the entity tag of the body, including its quotes.
+         *
+         * @return The ETag header value.
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * Returns the entity tag of the gzip body, including its quotes.
+         *
+         * @return The ETag header value for the compressed body.
+         */
+        public String getGzipEtag() {
+            return gzipEtag;
+        }
+
+        /**
+         * Returns whether an {@code If-None-Match} header names either body of this entry, so the
+         * client's copy is current. Weak tags ({@code W/"..."}) match too, as they may for a GET.
+         *
+         * @param ifNoneMatch The header value, or {@code null} if the request had none.
+         * @return {@code true} if the client's copy matches.
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag) || tag.equals(gzipEtag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long size() {
+            return json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
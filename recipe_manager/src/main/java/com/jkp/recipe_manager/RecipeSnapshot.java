@@ -0,0 +1,230 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The RecipeSnapshot record is an immutable copy of a {@link Recipe}. Its ingredient and
+ * instruction lists are unmodifiable and hold {@link IngredientSnapshot} values, so a snapshot can
+ * be shared between caches, indexes, and parallel computations without copying or locking.
+ * Edits are made with a {@link Builder}; the builder copies only the lists it changes, and lists
+ * that were not touched are shared with the original snapshot.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * RecipeSnapshot snapshot = recipe.toSnapshot();
+ * RecipeSnapshot forSix = snapshot.toBuilder().servings(6).build();  // Shares both lists
+ * Recipe editable = forSix.toRecipe();                               // For the editing dialogs
+ * }</pre>
+ *
+ * @param name The name of the recipe.
+ * @param ingredients The ingredients; unmodifiable.
+ * @param instructions The instructions; unmodifiable.
+ * @param servings The number of servings.
+ * @param prepTime The preparation time.
+ * @param cookTime The cooking time.
+ * @param versionStamp The version stamp of the stored file, see {@link Recipe#getVersionStamp()}.
+ *
+ * <p>Dependencies:</p>
+ * - IngredientSnapshot.java
+ * - Recipe.java
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public record RecipeSnapshot(String name, List<IngredientSnapshot> ingredients, List<String> instructions,
+                             int servings, String prepTime, String cookTime, long versionStamp) {
+
+    public RecipeSnapshot {
+        if (name == null) {
+            throw new IllegalArgumentException("Recipe name must not be null");
+        }
+        // List.copyOf returns its argument unchanged when it is already an unmodifiable copy,
+        // so lists shared between snapshots are not copied again
+        ingredients = List.copyOf(ingredients);
+        instructions = List.copyOf(instructions);
+    }
+
+    /**
+     * Creates a snapshot of the current state of a mutable recipe.
+     *
+     * @param recipe The recipe to copy.
+     * @return The snapshot.
+     */
+    public static RecipeSnapshot of(Recipe recipe) {
+        List<IngredientSnapshot> ingredients = new ArrayList<>(recipe.getIngredients().size());
+        for (Ingredient ingredient : recipe.getIngredients()) {
+            ingredients.add(IngredientSnapshot.of(ingredient));
+        }
+        return new RecipeSnapshot(recipe.getName(), ingredients, recipe.getInstructions(), recipe.getServings(),
+                recipe.getPrepTime(), recipe.getCookTime(), recipe.getVersionStamp());
+    }
+
+    /**
+     * Returns the total calories of all ingredients.
+     *
+     * @return The total recipe calories.
+     */
+    public double totalCalories() {
+        double total = 0.0;
+        for (IngredientSnapshot ingredient : ingredients) {
+            total += ingredient.totalCalories();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the calories in one serving.
+     *
+     * @return The total calories divided by the servings, or 0 if servings is not positive.
+     */
+    public double caloriesPerServing() {
+        return servings > 0 ? totalCalories() / servings : 0.0;
+    }
+
+    /**
+     * Creates a new mutable {@link Recipe} with the values of this snapshot, for example to hand
+     * to {@link EditRecipe}.
+     *
+     * @return A new Recipe with its own ingredient and instruction lists.
+     */
+    public Recipe toRecipe() {
+        ArrayList<Ingredient> mutableIngredients = new ArrayList<>(ingredients.size());
+        for (IngredientSnapshot ingredient : ingredients) {
+            mutableIngredients.add(ingredient.toIngredient());
+        }
+        Recipe recipe = new Recipe(name, mutableIngredients, new ArrayList<>(instructions), servings, prepTime, cookTime);
+        recipe.setVersionStamp(versionStamp);
+        return recipe;
+    }
+
+    /**
+     * Returns a builder initialized with the values of this snapshot.
+     *
+     * @return A new builder.
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * Returns a builder for a new recipe with no ingredients or instructions.
+     *
+     * @param name The name of the recipe.
+     * @return A new builder.
+     */
+    public static Builder builder(String name) {
+        return new Builder(new RecipeSnapshot(name, List.of(), List.of(), 1, "", "", RecipeStorage.NEW_RECIPE));
+    }
+
+    /**
+     * Collects changes for a new {@link RecipeSnapshot}.
+     */
+    public static final class Builder {
+        private String name;
+        private List<IngredientSnapshot> ingredients;
+        private List<String> instructions;
+        private int servings;
+        private String prepTime;
+        private String cookTime;
+        private long versionStamp;
+        private boolean ingredientsCopied;
+        private boolean instructionsCopied;
+
+        private Builder(RecipeSnapshot base) {
+            this.name = base.name;
+            this.ingredients = base.ingredients;
+            this.instructions = base.instructions;
+            this.servings = base.servings;
+            this.prepTime = base.prepTime;
+            this.cookTime = base.cookTime;
+            this.versionStamp = base.versionStamp;
+        }
+
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder servings(int servings) {
+            this.servings = servings;
+            return this;
+        }
+
+        public Builder prepTime(String prepTime) {
+            this.prepTime = prepTime;
+            return this;
+        }
+
+        public Builder cookTime(String cookTime) {
+            this.cookTime = cookTime;
+            return this;
+        }
+
+        public Builder versionStamp(long versionStamp) {
+            this.versionStamp = versionStamp;
+            return this;
+        }
+
+        public Builder ingredients(List<IngredientSnapshot> ingredients) {
+            this.ingredients = ingredients;
+            this.ingredientsCopied = false;
+            return this;
+        }
+
+        public Builder addIngredient(IngredientSnapshot ingredient) {
+            editableIngredients().add(ingredient);
+            return this;
+        }
+
+        public Builder setIngredient(int index, IngredientSnapshot ingredient) {
+            editableIngredients().set(index, ingredient);
+            return this;
+        }
+
+        public Builder removeIngredient(int index) {
+            editableIngredients().remove(index);
+            return this;
+        }
+
+        public Builder instructions(List<String> instructions) {
+            this.instructions = instructions;
+            this.instructionsCopied = false;
+            return this;
+        }
+
+        public Builder addInstruction(String instruction) {
+            editableInstructions().add(instruction);
+            return this;
+        }
+
+        public Builder removeInstruction(int index) {
+            editableInstructions().remove(index);
+            return this;
+        }
+
+        public RecipeSnapshot build() {
+            return new RecipeSnapshot(name, ingredients, instructions, servings, prepTime, cookTime, versionStamp);
+        }
+
+        private List<IngredientSnapshot> editableIngredients() {
+            if (!ingredientsCopied) {
+                ingredients = new ArrayList<>(ingredients);
+                ingredientsCopied = true;
+            }
+            return ingredients;
+        }
+
+        private List<String> editableInstructions() {
+            if (!instructionsCopied) {
+                instructions = new ArrayList<>(instructions);
+                instructionsCopied = true;
+            }
+            return instructions;
+        }
+    }
+}
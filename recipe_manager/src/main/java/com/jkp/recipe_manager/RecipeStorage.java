@@ -11,6 +11,12 @@
  * - Saves updated or new recipes to storage.
  * - Provides methods for retrieving all recipes or a specific recipe by its name.
  * - Handles the conversion between recipe objects and their storage representations (e.g., serialization).
+ * - Keeps a {@link RecipeManifest} per directory, so a lazy load reads no unchanged files and a
+ *   full load skips checksumming them.
+ * - Supports a lazy mode that loads recipe headers only and reads bodies on first access.
+ * - Writes a {@code format_version} into every recipe and upgrades older files on read.
+ * - Rejects saves and deletes that would overwrite a change made since the recipe was read.
+ * - Notifies registered {@link StorageListener}s after each save and delete, so indexes can update.
  * 
  * <p>Usage:</p>
  * The RecipeStorage class should be used whenever you need to load or save recipes. The typical usage 
@@ -25,6 +31,7 @@
  * <p>Dependencies:</p>
  * - Recipe.java
  * - RecipeCollection.java
+ * - RecipeManifest.java
  * 
  * <p>Notes:</p>
  * - The class uses file-based storage (e.g., JSON) for recipes. You can extend the class to support 
@@ -40,14 +47,89 @@
 package com.jkp.recipe_manager;
 
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 
 public class RecipeStorage {
+    /**
+     * Version of the recipe file format written by {@link #saveRecipe(Recipe, String)}.
+     * Older files are upgraded on read by {@link RecipeMigrator}.
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    /**
+     * Version stamp of a recipe that has never been read from or saved to storage.
+     */
+    public static final long NEW_RECIPE = 0L;
+
+    // Striped locks make the conflict check and write of one file atomic without a global lock.
+    // ReentrantLock rather than synchronized so virtual threads blocked on file I/O are not pinned.
+    private static final ReentrantLock[] SAVE_LOCKS = new ReentrantLock[64];
+    static {
+        for (int i = 0; i < SAVE_LOCKS.length; i++) {
+            SAVE_LOCKS[i] = new ReentrantLock();
+        }
+    }
+
+    // Manifests are shared per directory so repeated loads reuse each unchanged file's size, modified
+    // time, stamp, and header instead of checksumming it again or, for lazy loads, reading it at all
+    private static final Map<Path, RecipeManifest> MANIFESTS = new ConcurrentHashMap<>();
+    // Bodies of lazily loaded recipes; sized for what a user typically opens in one session
+    private static final RecipeBodyCache BODY_CACHE = new RecipeBodyCache(64);
+    private static final List<StorageListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Receives recipes saved or deleted through {@link #saveRecipe(Recipe, String)} and
+     * {@link #deleteRecipe(Recipe, String)}, for example to keep a search index current.
+     * Bulk imports by {@link RecipeImporter} and {@link IngestPipeline} save through
+     * {@link #saveRecipe(Recipe, String)} or {@link #createRecipe(Recipe, String)}, so every
+     * imported recipe is reported too.
+     */
+    public interface StorageListener {
+        /**
+         * Called after a recipe was written.
+         *
+         * @param recipe The saved recipe.
+         * @param filePath The file it was written to.
+         */
+        void recipeSaved(Recipe recipe, Path filePath);
+
+        /**
+         * Called after a recipe's file was deleted.
+         *
+         * @param recipe The deleted recipe.
+         * @param filePath The file that was deleted.
+         */
+        default void recipeDeleted(Recipe recipe, Path filePath) {
+        }
+    }
+
+    public static void addStorageListener(StorageListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeStorageListener(StorageListener listener) {
+        LISTENERS.remove(listener);
+    }
 
     /**
      * Loads all recipes from JSON files in the specified directory and returns them as a {@link RecipeCollection}.
@@ -67,36 +149,156 @@ public class RecipeStorage {
      */
 
     public static RecipeCollection loadAllRecipes(String directoryPath) throws IOException {
+        return loadAllRecipes(directoryPath, false);
+    }
+
+    /**
+     * Loads all recipes from JSON files in the specified directory, optionally in lazy mode.
+     * In lazy mode each recipe is a {@link LazyRecipe} holding only its header (name, servings,
+     * times, and total calories); ingredients and instructions are read on first access and kept
+     * in the evictable {@link RecipeBodyCache}. Headers for unchanged files come straight from the
+     * {@link RecipeManifest}, so a lazy load of an unchanged library reads no recipe files at all.
+     *
+     * <p>Usage:</p>
+     * <pre>{@code
+     * RecipeCollection headers = loadAllRecipes("/path/to/recipes/directory", true);
+     * }</pre>
+     *
+     * @param directoryPath The path to the directory containing the JSON recipe files.
+     * @param lazy {@code true} to load headers only, {@code false} to load every recipe fully.
+     * @return A {@link RecipeCollection} containing all the loaded recipes.
+     * @throws IOException If there is an error reading the directory.
+     */
+    public static RecipeCollection loadAllRecipes(String directoryPath, boolean lazy) throws IOException {
         RecipeCollection collection = new RecipeCollection();
-        
-        // Get all JSON files in the directory
-        try (var stream = Files.walk(Paths.get(directoryPath))) {
-            stream.filter(Files::isRegularFile)
-                  .filter(path -> path.toString().endsWith(".json"))
-                  .forEach(path -> {
-                      try {
-                          Recipe recipe = loadRecipe(path);
-                          collection.addRecipe(recipe);
-                      } catch (IOException | IllegalArgumentException e) { // Handle both IO and parsing issues
-                          System.err.println("Error loading recipe from " + path + ": " + e.getMessage());
-                      }
-                  });
-        } catch (IOException e) {
-            System.err.println("Failed to access directory " + directoryPath + ": " + e.getMessage());
-            throw e;
+        Path directory = Paths.get(directoryPath);
+        RecipeManifest manifest = manifestFor(directory);
+
+        synchronized (manifest) {
+            Set<String> seenKeys = new HashSet<>();
+            try {
+                // Walk the directory; the visitor receives each file's attributes with the listing
+                Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path path, BasicFileAttributes attributes) {
+                        if (attributes.isRegularFile() && path.toString().endsWith(".json")) {
+                            seenKeys.add(manifest.keyFor(path));
+                            try {
+                                collection.addRecipe(lazy
+                                        ? loadRecipeHeader(path, attributes, manifest)
+                                        : loadRecipe(path, attributes, manifest));
+                            } catch (IOException | IllegalArgumentException | JSONException e) { // Handle both IO and parsing issues
+                                System.err.println("Error loading recipe from " + path + ": " + e.getMessage());
+                            }
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path path, IOException e) throws IOException {
+                        if (path.equals(directory)) {
+                            throw e;
+                        }
+                        System.err.println("Error loading recipe from " + path + ": " + e.getMessage());
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                System.err.println("Failed to access directory " + directoryPath + ": " + e.getMessage());
+                throw e;
+            }
+
+            manifest.retainOnly(seenKeys);
+            try {
+                manifest.save();
+            } catch (IOException e) {
+                System.err.println("Failed to write recipe manifest for " + directoryPath + ": " + e.getMessage());
+            }
         }
         return collection;
     }
 
     // Load a single recipe from a JSON file
     public static Recipe loadRecipe(Path filePath) throws IOException {
-        String data = new String(Files.readAllBytes(filePath));
-        JSONObject jsonObject = new JSONObject(data);
+        byte[] data = Files.readAllBytes(filePath);
+        Recipe recipe = Recipe.fromJson(parseRecipeJson(data));
+        recipe.setVersionStamp(RecipeManifest.checksum(data));
+        return recipe;
+    }
+
+    /**
+     * Loads a single recipe fully. The file is always read and parsed; when its size and modified
+     * time match its manifest entry, the stamp is taken from the entry instead of checksumming the
+     * content, and the manifest is left unchanged. Otherwise the manifest entry is refreshed.
+     *
+     * @param filePath The recipe file to load.
+     * @param attributes The file attributes returned with the directory listing.
+     * @param manifest The manifest for the recipe directory.
+     * @return The loaded {@link Recipe}.
+     * @throws IOException If the file cannot be read.
+     */
+    private static Recipe loadRecipe(Path filePath, BasicFileAttributes attributes, RecipeManifest manifest) throws IOException {
+        RecipeManifest.Entry entry = manifest.lookup(filePath, attributes);
+        byte[] data = Files.readAllBytes(filePath);
+        Recipe recipe = Recipe.fromJson(parseRecipeJson(data));
+        if (entry == null) {
+            entry = manifest.record(filePath, attributes, data, recipe);
+        }
+        recipe.setVersionStamp(entry.getChecksum());
+        return recipe;
+    }
+
+    /**
+     * Loads only the header of a recipe as a {@link LazyRecipe}. The manifest entry is used directly
+     * when the file is unchanged; otherwise the file is parsed once to refresh the entry, and only
+     * the header is kept.
+     *
+     * @param filePath The recipe file to load.
+     * @param attributes The file attributes returned with the directory listing.
+     * @param manifest The manifest for the recipe directory.
+     * @return A {@link LazyRecipe} for the file.
+     * @throws IOException If the file cannot be read.
+     */
+    private static Recipe loadRecipeHeader(Path filePath, BasicFileAttributes attributes, RecipeManifest manifest) throws IOException {
+        RecipeManifest.Entry entry = manifest.lookup(filePath, attributes);
+        if (entry == null) {
+            byte[] data = Files.readAllBytes(filePath);
+            entry = manifest.record(filePath, attributes, data, Recipe.fromJson(parseRecipeJson(data)));
+        }
+        return new LazyRecipe(filePath, entry);
+    }
+
+    /**
+     * Returns the cache holding the ingredients and instructions of lazily loaded recipes.
+     *
+     * @return The shared {@link RecipeBodyCache}.
+     */
+    public static RecipeBodyCache getBodyCache() {
+        return BODY_CACHE;
+    }
+
+    /**
+     * Parses the raw bytes of a recipe file and returns the inner {@code recipe} object,
+     * upgraded to the current {@link #FORMAT_VERSION}.
+     *
+     * @param data The bytes read from a recipe file.
+     * @return The {@code recipe} JSON object.
+     */
+    static JSONObject parseRecipeJson(byte[] data) {
+        JSONObject jsonObject = new JSONObject(new String(data));
         JSONObject recipeJson = jsonObject.getJSONObject("recipe");
-        String name = recipeJson.getString("name");
-        
+        RecipeMigrator.upgrade(recipeJson);
+        return recipeJson;
+    }
 
-        return Recipe.fromJson(recipeJson);
+    /**
+     * Returns the shared {@link RecipeManifest} for a recipe directory, loading it from disk on first use.
+     *
+     * @param directory The recipe directory.
+     * @return The manifest for the directory.
+     */
+    static RecipeManifest manifestFor(Path directory) {
+        return MANIFESTS.computeIfAbsent(directory.toAbsolutePath().normalize(), RecipeManifest::load);
     }
 
     /**
@@ -105,6 +307,14 @@ public class RecipeStorage {
      * ingredients, instructions, servings, prep time, and cook time. The file name 
      * is sanitized by replacing non-alphanumeric characters with underscores.
      * 
+     * <p>Saves use optimistic concurrency control. A recipe that was read from storage carries 
+     * a version stamp (see {@link Recipe#getVersionStamp()}); if the file it is saved to exists 
+     * and no longer has that checksum, someone else changed it in the meantime and the save is 
+     * rejected with a {@link RecipeConflictException}. The check and the write happen under a 
+     * per-file lock, so saves of different recipes never wait for each other. Recipes that were 
+     * never stored ({@link #NEW_RECIPE}) keep the previous last-writer-wins behaviour. On success 
+     * the recipe's stamp is updated to the checksum of the newly written file.</p>
+     * 
      * <p>Usage:</p>
      * To save a recipe, call this method with the {@code Recipe} object to be saved 
      * and the target directory path:
@@ -114,26 +324,307 @@ public class RecipeStorage {
      *
      * @param recipe The {@link Recipe} object to be saved.
      * @param directoryPath The path to the directory where the recipe file should be stored.
+     * @throws RecipeConflictException If the stored file changed since the recipe was read.
      * @throws IOException If an error occurs during the file writing process.
      */
     public static void saveRecipe(Recipe recipe, String directoryPath) throws IOException {
-            String fileName = recipe.getName().replaceAll("[^a-zA-Z0-9]", "_") + ".json"; // Sanitize file name
-            Path filePath = Paths.get(directoryPath, fileName);
-            
-            JSONObject recipeJson = new JSONObject();
-            JSONObject completeJson = new JSONObject();
-
-            recipeJson.put("name", recipe.getName());
-            recipeJson.put("ingredients", new JSONArray());
-            for (Ingredient ingredient : recipe.getIngredients()) {
-                recipeJson.getJSONArray("ingredients").put(ingredientToJson(ingredient));
+            Path filePath = Paths.get(directoryPath, fileNameFor(recipe.getName()));
+            byte[] content = toFileBytes(recipe);
+            long expectedStamp = recipe.getVersionStamp();
+
+            ReentrantLock lock = lockFor(filePath);
+            lock.lock();
+            try {
+                checkStamp(filePath, expectedStamp);
+                writeAtomically(filePath, content);
+                BODY_CACHE.evict(filePath); // Bodies of the previous content can never be requested again
+                recipe.setVersionStamp(RecipeManifest.checksum(content));
+            } finally {
+                lock.unlock();
+            }
+            notifySaved(recipe, filePath);
+    }
+
+    /**
+     * Saves a recipe only if no file is stored under its name yet, for imports that must not
+     * replace recipes already in the library. The existence check and the write happen under the
+     * same per-file lock as {@link #saveRecipe(Recipe, String)}, and listeners are notified the same way.
+     *
+     * @param recipe The recipe to save.
+     * @param directoryPath The directory to save the recipe in.
+     * @throws FileAlreadyExistsException If the directory already holds a file for this recipe name.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void createRecipe(Recipe recipe, String directoryPath) throws IOException {
+        Path filePath = Paths.get(directoryPath, fileNameFor(recipe.getName()));
+        byte[] content = toFileBytes(recipe);
+
+        ReentrantLock lock = lockFor(filePath);
+        lock.lock();
+        try {
+            if (Files.exists(filePath)) {
+                throw new FileAlreadyExistsException(filePath.toString());
+            }
+            writeAtomically(filePath, content);
+            BODY_CACHE.evict(filePath);
+            recipe.setVersionStamp(RecipeManifest.checksum(content));
+        } finally {
+            lock.unlock();
+        }
+        notifySaved(recipe, filePath);
+    }
+
+    /**
+     * Moves a rewritten copy of a stored recipe file over the original, provided the original still
+     * has the stamp it had when the copy was made. Used by {@link RecipeMigrator}: the check and the
+     * move happen under the same per-file lock as {@link #saveRecipe(Recipe, String)}, so a save that
+     * lands in between is never overwritten, and listeners are notified as for a save.
+     *
+     * @param filePath The stored recipe file.
+     * @param expectedStamp The stamp of the content the replacement was made from.
+     * @param replacement The file to move over the original.
+     * @return {@code true} if the file was replaced, {@code false} if it changed in the meantime and
+     *         was left as it is; the replacement is not removed in that case.
+     * @throws IOException If the file cannot be read or moved.
+     */
+    static boolean replaceIfUnchanged(Path filePath, long expectedStamp, Path replacement) throws IOException {
+        Recipe recipe = null;
+        ReentrantLock lock = lockFor(filePath);
+        lock.lock();
+        try {
+            if (currentStamp(filePath) != expectedStamp) {
+                return false;
+            }
+            moveAtomically(replacement, filePath);
+            BODY_CACHE.evict(filePath);
+            if (!LISTENERS.isEmpty()) {
+                recipe = loadRecipe(filePath);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (recipe != null) {
+            notifySaved(recipe, filePath);
+        }
+        return true;
+    }
+
+    /**
+     * Moves a recipe file into another directory, for {@link ShardedRecipeStorage#rebalance}. The
+     * content is copied to a temporary file inside the target directory and renamed into place, so
+     * the target is never seen half written even when the directories are on different disks; the
+     * source is deleted only after that. Both files are locked like {@link #saveRecipe(Recipe, String)}
+     * for the whole move, so an existing target is never replaced and a concurrent save is never
+     * lost. Both directories' manifests drop their entries for the file, and listeners see a delete
+     * from the source followed by a save to the target.
+     *
+     * @param source The recipe file to move.
+     * @param targetDirectory The directory to move it into.
+     * @return {@code true} if the file was moved, {@code false} if the target directory already
+     *         holds a file of the same name; nothing is changed in that case.
+     * @throws IOException If the file cannot be copied or deleted.
+     */
+    static boolean moveRecipeFile(Path source, Path targetDirectory) throws IOException {
+        Path target = targetDirectory.resolve(source.getFileName());
+        // Always lock in stripe order, so two moves in opposite directions cannot deadlock
+        ReentrantLock first = lockFor(source);
+        ReentrantLock second = lockFor(target);
+        if (stripeFor(target) < stripeFor(source)) {
+            first = second;
+            second = lockFor(source);
+        }
+        byte[] content;
+        first.lock();
+        second.lock();
+        try {
+            if (Files.exists(target)) {
+                return false;
+            }
+            content = Files.readAllBytes(source);
+            writeAtomically(target, content);
+            Files.delete(source);
+            BODY_CACHE.evict(source);
+        } finally {
+            second.unlock();
+            first.unlock();
+        }
+        for (Path file : List.of(source, target)) {
+            RecipeManifest manifest = manifestFor(file.getParent());
+            synchronized (manifest) {
+                manifest.remove(file);
+            }
+        }
+        if (!LISTENERS.isEmpty()) {
+            Recipe recipe = Recipe.fromJson(parseRecipeJson(content));
+            recipe.setVersionStamp(RecipeManifest.checksum(content));
+            for (StorageListener listener : LISTENERS) {
+                try {
+                    listener.recipeDeleted(recipe, source);
+                } catch (RuntimeException e) {
+                    System.err.println("Storage listener failed for " + source + ": " + e.getMessage());
+                }
             }
-            recipeJson.put("instructions", new JSONArray(recipe.getInstructions()));
-            recipeJson.put("servings", recipe.getServings());
-            recipeJson.put("prep_time", recipe.getPrepTime());
-            recipeJson.put("cook_time", recipe.getCookTime());
-            completeJson.put("recipe",recipeJson);
-            Files.write(filePath, completeJson.toString(2).getBytes());
+            notifySaved(recipe, target);
+        }
+        return true;
+    }
+
+    private static void notifySaved(Recipe recipe, Path filePath) {
+        for (StorageListener listener : LISTENERS) {
+            try {
+                listener.recipeSaved(recipe, filePath);
+            } catch (RuntimeException e) {
+                System.err.println("Storage listener failed for " + filePath + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Deletes the stored file of a recipe. Like {@link #saveRecipe(Recipe, String)}, the delete is
+     * rejected if the file was changed since the recipe was read, so a delete never discards an
+     * edit the caller has not seen.
+     *
+     * @param recipe The recipe to delete.
+     * @param directoryPath The directory the recipe is stored in.
+     * @return {@code true} if a file was deleted, {@code false} if there was no file.
+     * @throws RecipeConflictException If the stored file changed since the recipe was read.
+     * @throws IOException If the file cannot be deleted.
+     */
+    public static boolean deleteRecipe(Recipe recipe, String directoryPath) throws IOException {
+        Path filePath = Paths.get(directoryPath, fileNameFor(recipe.getName()));
+        ReentrantLock lock = lockFor(filePath);
+        boolean deleted;
+        lock.lock();
+        try {
+            checkStamp(filePath, recipe.getVersionStamp());
+            deleted = Files.deleteIfExists(filePath);
+            BODY_CACHE.evict(filePath);
+            recipe.setVersionStamp(NEW_RECIPE);
+        } finally {
+            lock.unlock();
+        }
+        if (deleted) {
+            for (StorageListener listener : LISTENERS) {
+                try {
+                    listener.recipeDeleted(recipe, filePath);
+                } catch (RuntimeException e) {
+                    System.err.println("Storage listener failed for " + filePath + ": " + e.getMessage());
+                }
+            }
+        }
+        return deleted;
+    }
+
+    // Must be called while holding the file's lock
+    private static void checkStamp(Path filePath, long expectedStamp) throws IOException {
+        if (expectedStamp != NEW_RECIPE) {
+            long actualStamp = currentStamp(filePath);
+            if (actualStamp != NEW_RECIPE && actualStamp != expectedStamp) {
+                throw new RecipeConflictException(filePath, expectedStamp, actualStamp);
+            }
+        }
+    }
+
+    /**
+     * Returns the version stamp of the file currently stored at a path.
+     *
+     * @param filePath The recipe file.
+     * @return The checksum of the file content, or {@link #NEW_RECIPE} if the file does not exist.
+     * @throws IOException If the file exists but cannot be read.
+     */
+    public static long currentStamp(Path filePath) throws IOException {
+        try {
+            return RecipeManifest.checksum(Files.readAllBytes(filePath));
+        } catch (NoSuchFileException e) {
+            return NEW_RECIPE;
+        }
+    }
+
+    private static ReentrantLock lockFor(Path filePath) {
+        return SAVE_LOCKS[stripeFor(filePath)];
+    }
+
+    private static int stripeFor(Path filePath) {
+        int hash = filePath.toAbsolutePath().normalize().hashCode();
+        return (hash ^ (hash >>> 16)) & (SAVE_LOCKS.length - 1);
+    }
+
+    /**
+     * Writes a file by writing a temporary file in the same directory and moving it over the target,
+     * so readers never see a partially written recipe.
+     *
+     * @param filePath The file to write.
+     * @param content The complete file content.
+     * @throws IOException If the file cannot be written.
+     */
+    static void writeAtomically(Path filePath, byte[] content) throws IOException {
+        Path tempPath = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+        Files.write(tempPath, content);
+        moveAtomically(tempPath, filePath);
+    }
+
+    /**
+     * Moves a file over a target, atomically where the file system supports it.
+     *
+     * @param source The file to move.
+     * @param target The file to replace.
+     * @throws IOException If the file cannot be moved.
+     */
+    static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Returns the file name a recipe with the given name is stored under. Non-alphanumeric
+     * characters are replaced with underscores and the {@code .json} extension is appended.
+     *
+     * @param recipeName The name of the recipe.
+     * @return The sanitized file name.
+     */
+    public static String fileNameFor(String recipeName) {
+        // Same result as replaceAll("[^a-zA-Z0-9]", "_"), one underscore per code point, without
+        // a regex; this runs for every recipe when indexes and pages are keyed by file name
+        StringBuilder fileName = new StringBuilder(recipeName.length() + 5);
+        recipeName.codePoints().forEach(c -> fileName.append(
+                (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') ? (char) c : '_'));
+        return fileName.append(".json").toString();
+    }
+
+    /**
+     * Serializes a {@link Recipe} into the {@code recipe} JSON object written to storage.
+     *
+     * @param recipe The recipe to serialize.
+     * @return The {@code recipe} JSON object.
+     */
+    static JSONObject recipeToJson(Recipe recipe) {
+        JSONObject recipeJson = new JSONObject();
+        recipeJson.put("format_version", FORMAT_VERSION);
+        recipeJson.put("name", recipe.getName());
+        recipeJson.put("ingredients", new JSONArray());
+        for (Ingredient ingredient : recipe.getIngredients()) {
+            recipeJson.getJSONArray("ingredients").put(ingredientToJson(ingredient));
+        }
+        recipeJson.put("instructions", new JSONArray(recipe.getInstructions()));
+        recipeJson.put("servings", recipe.getServings());
+        recipeJson.put("prep_time", recipe.getPrepTime());
+        recipeJson.put("cook_time", recipe.getCookTime());
+        return recipeJson;
+    }
+
+    /**
+     * Serializes a {@link Recipe} into the exact bytes written to its recipe file.
+     *
+     * @param recipe The recipe to serialize.
+     * @return The file content.
+     */
+    static byte[] toFileBytes(Recipe recipe) {
+        JSONObject completeJson = new JSONObject();
+        completeJson.put("recipe", recipeToJson(recipe));
+        return completeJson.toString(2).getBytes();
     }
 
     /**
@@ -152,7 +643,7 @@ public class RecipeStorage {
      * @return A {@link JSONObject} representing the ingredient.
      */
 
-    private static JSONObject ingredientToJson(Ingredient ingredient) {
+    static JSONObject ingredientToJson(Ingredient ingredient) {
         JSONObject jsonObject = new JSONObject();
         jsonObject.put("name", ingredient.getName());
         jsonObject.put("quantity", ingredient.getQuantity());
@@ -162,6 +653,9 @@ public class RecipeStorage {
         if (!ingredient.getPreparation().isEmpty()) {
             jsonObject.put("preparation", ingredient.getPreparation());
         }
+        if (ingredient.getCanonicalName() != null) {
+            jsonObject.put("canonical_name", ingredient.getCanonicalName());
+        }
     
         // Add calories per unit and calories per cup
         jsonObject.put("calories_per_unit", ingredient.getCaloriesPerUnit());
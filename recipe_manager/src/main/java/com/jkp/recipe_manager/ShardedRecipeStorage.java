@@ -0,0 +1,454 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The ShardedRecipeStorage class spreads one recipe library across several directories, for
+ * example on separate disks or mounts. Each recipe belongs to exactly one shard, chosen by
+ * consistent hashing of its storage file name: every shard owns many points ("virtual nodes") on a
+ * hash ring, and a recipe is stored in the shard owning the first point at or after the recipe's
+ * hash. Adding or removing a shard therefore only moves the recipes between the changed shard and
+ * its ring neighbours, roughly 1/N of the library, instead of reshuffling everything.
+ *
+ * <p>Features:</p>
+ * - Loads all shards in parallel, one virtual thread per shard, into one {@link RecipeCollection}.
+ * - Saves and deletes single recipes in their owning shard through {@link RecipeStorage}, with
+ *   the same conflict checks and storage listeners.
+ * - Saves many recipes in parallel per shard.
+ * - Rebalances after the shard list changed, moving only the recipe files whose owner changed, and
+ *   can drain shards that are being retired. A dry run reports what would move.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * ShardedRecipeStorage storage = new ShardedRecipeStorage(List.of("/mnt/disk1/recipes", "/mnt/disk2/recipes"));
+ * RecipeCollection recipes = storage.loadAllRecipes(false);
+ * storage.saveRecipe(recipe);
+ *
+ * // After adding a third disk
+ * ShardedRecipeStorage grown = new ShardedRecipeStorage(
+ *         List.of("/mnt/disk1/recipes", "/mnt/disk2/recipes", "/mnt/disk3/recipes"));
+ * System.out.println(grown.rebalance(List.of(), false));
+ * }</pre>
+ *
+ * <p>Dependencies:</p>
+ * - RecipeStorage.java
+ * - RecipeCollection.java
+ *
+ * <p>Notes:</p>
+ * - A shard is identified on the ring by its normalized path as given, so the same spelling of each
+ *   path must be used every time the storage is opened.
+ * - Rebalancing moves each file under {@link RecipeStorage}'s save locks, copying it into the
+ *   target shard before deleting it, so it is safe across disks and alongside saves. A recipe
+ *   saved to its new shard before its old file was moved keeps the old file, counted as skipped.
+ * - Only recipe files directly inside a shard directory are rebalanced; files in subdirectories
+ *   are loaded but left where they are.
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ShardedRecipeStorage {
+    /**
+     * Default number of ring points per shard. More points even out the shard sizes at the cost of
+     * a larger ring; 512 keeps every shard within about 7% of an even share.
+     */
+    public static final int DEFAULT_VIRTUAL_NODES = 512;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final List<String> shards;
+    // Ring points sorted by hash; ringShards[i] is the shard owning ringHashes[i]
+    private final long[] ringHashes;
+    private final int[] ringShards;
+
+    /**
+     * Creates a sharded storage with {@link #DEFAULT_VIRTUAL_NODES} points per shard.
+     *
+     * @param shardDirectories The shard directories; at least one, without duplicates.
+     */
+    public ShardedRecipeStorage(List<String> shardDirectories) {
+        this(shardDirectories, DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * Creates a sharded storage.
+     *
+     * @param shardDirectories The shard directories; at least one, without duplicates.
+     * @param virtualNodes The number of ring points per shard; at least 1.
+     * @throws IllegalArgumentException If there are no shards, a shard is listed twice, or
+     *                                  virtualNodes is not positive.
+     */
+    public ShardedRecipeStorage(List<String> shardDirectories, int virtualNodes) {
+        if (shardDirectories.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard directory is required");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("Virtual nodes must be at least 1: " + virtualNodes);
+        }
+        Set<String> unique = new LinkedHashSet<>();
+        for (String directory : shardDirectories) {
+            if (!unique.add(shardId(directory))) {
+                throw new IllegalArgumentException("Shard directory listed twice: " + directory);
+            }
+        }
+        this.shards = List.copyOf(shardDirectories);
+
+        int points = shards.size() * virtualNodes;
+        long[] hashes = new long[points];
+        int[] owners = new int[points];
+        Integer[] order = new Integer[points];
+        for (int shard = 0; shard < shards.size(); shard++) {
+            String id = shardId(shards.get(shard));
+            for (int node = 0; node < virtualNodes; node++) {
+                int point = shard * virtualNodes + node;
+                hashes[point] = hash(id + "#" + node);
+                owners[point] = shard;
+                order[point] = point;
+            }
+        }
+        // Ties between two shards' points are broken by shard order, so the ring is deterministic
+        Arrays.sort(order, (a, b) -> hashes[a] != hashes[b]
+                ? Long.compareUnsigned(hashes[a], hashes[b])
+                : Integer.compare(owners[a], owners[b]));
+        this.ringHashes = new long[points];
+        this.ringShards = new int[points];
+        for (int i = 0; i < points; i++) {
+            ringHashes[i] = hashes[order[i]];
+            ringShards[i] = owners[order[i]];
+        }
+    }
+
+    /**
+     * Returns the shard directories in the order they were given.
+     *
+     * @return The shard directories.
+     */
+    public List<String> getShards() {
+        return shards;
+    }
+
+    /**
+     * Returns the shard directory a recipe is stored in.
+     *
+     * @param recipeName The recipe name.
+     * @return The owning shard directory.
+     */
+    public String shardFor(String recipeName) {
+        return shards.get(ownerOf(RecipeStorage.fileNameFor(recipeName)));
+    }
+
+    /**
+     * Loads every shard in parallel and returns all recipes in one collection.
+     *
+     * @param lazy {@code true} to load headers only, as in {@link RecipeStorage#loadAllRecipes(String, boolean)}.
+     * @return The recipes of all shards.
+     * @throws IOException If a shard directory cannot be read; other shards' errors are suppressed.
+     */
+    public RecipeCollection loadAllRecipes(boolean lazy) throws IOException {
+        List<RecipeCollection> loaded = forEachShard(shards, shard -> {
+            Files.createDirectories(Paths.get(shard));
+            return RecipeStorage.loadAllRecipes(shard, lazy);
+        });
+        RecipeCollection collection = new RecipeCollection();
+        for (RecipeCollection shardRecipes : loaded) {
+            for (Recipe recipe : shardRecipes.getRecipes()) {
+                collection.addRecipe(recipe);
+            }
+        }
+        return collection;
+    }
+
+    /**
+     * Loads one recipe from its shard.
+     *
+     * @param recipeName The recipe name.
+     * @return The recipe.
+     * @throws IOException If the recipe file does not exist or cannot be read.
+     */
+    public Recipe loadRecipe(String recipeName) throws IOException {
+        return RecipeStorage.loadRecipe(Paths.get(shardFor(recipeName), RecipeStorage.fileNameFor(recipeName)));
+    }
+
+    /**
+     * Saves a recipe in its shard, see {@link RecipeStorage#saveRecipe(Recipe, String)}.
+     *
+     * @param recipe The recipe to save.
+     * @throws RecipeConflictException If the stored file changed since the recipe was read.
+     * @throws IOException If the file cannot be written.
+     */
+    public void saveRecipe(Recipe recipe) throws IOException {
+        String shard = shardFor(recipe.getName());
+        Files.createDirectories(Paths.get(shard));
+        RecipeStorage.saveRecipe(recipe, shard);
+    }
+
+    /**
+     * Deletes a recipe from its shard, see {@link RecipeStorage#deleteRecipe(Recipe, String)}.
+     *
+     * @param recipe The recipe to delete.
+     * @return {@code true} if a file was deleted.
+     * @throws RecipeConflictException If the stored file changed since the recipe was read.
+     * @throws IOException If the file cannot be deleted.
+     */
+    public boolean deleteRecipe(Recipe recipe) throws IOException {
+        return RecipeStorage.deleteRecipe(recipe, shardFor(recipe.getName()));
+    }
+
+    /**
+     * Saves many recipes, writing to all shards at once and to each shard from one thread.
+     * Recipes that cannot be saved are logged and skipped.
+     *
+     * @param recipes The recipes to save.
+     * @return The number of recipes saved.
+     * @throws IOException If a shard directory cannot be created.
+     */
+    public int saveAll(Collection<? extends Recipe> recipes) throws IOException {
+        List<List<Recipe>> byShard = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            byShard.add(new ArrayList<>());
+        }
+        for (Recipe recipe : recipes) {
+            byShard.get(ownerOf(RecipeStorage.fileNameFor(recipe.getName()))).add(recipe);
+        }
+        AtomicLong saved = new AtomicLong();
+        forEachShard(shards, shard -> {
+            Files.createDirectories(Paths.get(shard));
+            for (Recipe recipe : byShard.get(shards.indexOf(shard))) {
+                try {
+                    RecipeStorage.saveRecipe(recipe, shard);
+                    saved.incrementAndGet();
+                } catch (IOException e) {
+                    System.err.println("Error saving recipe " + recipe.getName() + " to " + shard + ": " + e.getMessage());
+                }
+            }
+            return null;
+        });
+        return (int) saved.get();
+    }
+
+    /**
+     * Moves every recipe file to the shard that owns it under the current shard list. Use it after
+     * adding or removing a shard: open the storage with the new list and pass the directories of
+     * removed shards as {@code drainedDirectories}. Files that are already in the right shard are
+     * not touched, so only the share of the library whose owner changed is moved. Each source
+     * directory is scanned and drained on its own thread.
+     *
+     * <p>A file whose target already holds a file of the same name is left in place and counted as
+     * skipped, so no recipe is ever overwritten. Each move goes through
+     * {@link RecipeStorage}: the file is copied to a temporary file in the target shard, renamed into
+     * place, and only then deleted from the source, under the save locks of both files. Storage
+     * listeners see each move as a delete followed by a save, and both shards' manifests are
+     * updated.</p>
+     *
+     * @param drainedDirectories Directories that are no longer shards and should be emptied.
+     * @param dryRun {@code true} to only count what would move.
+     * @return The rebalance report.
+     * @throws IOException If a directory cannot be read or a file cannot be moved.
+     */
+    public RebalanceReport rebalance(Collection<String> drainedDirectories, boolean dryRun) throws IOException {
+        long startNanos = System.nanoTime();
+        Map<String, String> sources = new LinkedHashMap<>();
+        for (String directory : shards) {
+            sources.putIfAbsent(shardId(directory), directory);
+        }
+        for (String directory : drainedDirectories) {
+            sources.putIfAbsent(shardId(directory), directory);
+        }
+        if (!dryRun) {
+            for (String shard : shards) {
+                Files.createDirectories(Paths.get(shard));
+            }
+        }
+
+        // List every directory before moving anything, so files moved into a shard are not
+        // scanned a second time there
+        List<String> sourceDirectories = new ArrayList<>(sources.values());
+        List<List<Path>> listings = forEachShard(sourceDirectories, ShardedRecipeStorage::listRecipeFiles);
+
+        AtomicLong moved = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+        long scanned = 0;
+        long[] perShard = new long[shards.size()];
+        for (List<Path> files : listings) {
+            scanned += files.size();
+            for (Path file : files) {
+                perShard[ownerOf(file.getFileName().toString())]++;
+            }
+        }
+        forEachShard(sourceDirectories, source -> {
+            String sourceId = shardId(source);
+            for (Path file : listings.get(sourceDirectories.indexOf(source))) {
+                String target = shards.get(ownerOf(file.getFileName().toString()));
+                if (shardId(target).equals(sourceId)) {
+                    continue;
+                }
+                Path targetFile = Paths.get(target).resolve(file.getFileName());
+                boolean movable = dryRun
+                        ? !Files.exists(targetFile)
+                        : RecipeStorage.moveRecipeFile(file, Paths.get(target));
+                if (movable) {
+                    moved.incrementAndGet();
+                } else {
+                    System.err.println("Not moving " + file + ": " + targetFile + " already exists");
+                    skipped.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        if (!dryRun) {
+            for (String directory : sourceDirectories) {
+                RecipeManifest manifest = RecipeStorage.manifestFor(Paths.get(directory));
+                synchronized (manifest) {
+                    try {
+                        manifest.save();
+                    } catch (IOException e) {
+                        System.err.println("Failed to write recipe manifest for " + directory + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        Map<String, Long> recipesPerShard = new LinkedHashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            recipesPerShard.put(shards.get(shard), perShard[shard]);
+        }
+        return new RebalanceReport(scanned, moved.get(), skipped.get(), recipesPerShard,
+                System.nanoTime() - startNanos, dryRun);
+    }
+
+    /**
+     * The outcome of a rebalance.
+     *
+     * @param scanned The number of recipe files looked at.
+     * @param moved The number of files moved, or that would move in a dry run.
+     * @param skipped The number of files left in place because the target already had that file.
+     * @param recipesPerShard The number of scanned recipes each shard owns, by shard directory.
+     * @param elapsedNanos The time the rebalance took.
+     * @param dryRun Whether nothing was actually moved.
+     */
+    public record RebalanceReport(long scanned, long moved, long skipped, Map<String, Long> recipesPerShard,
+                                  long elapsedNanos, boolean dryRun) {
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format("%s %d of %d recipe files (%d skipped) in %.2f s",
+                    dryRun ? "Would move" : "Moved", moved, scanned, skipped, elapsedNanos / 1e9));
+            recipesPerShard.forEach((shard, count) -> text.append(System.lineSeparator())
+                    .append("  ").append(shard).append(": ").append(count));
+            return text.toString();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ShardTask<T> {
+        T run(String directory) throws IOException;
+    }
+
+    /**
+     * Runs a task for every directory on its own virtual thread, since shard work waits on disks
+     * rather than on the CPU, and returns the results in directory order.
+     */
+    private static <T> List<T> forEachShard(List<String> directories, ShardTask<T> task) throws IOException {
+        List<Future<T>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String directory : directories) {
+                futures.add(executor.submit(() -> task.run(directory)));
+            }
+        }
+        List<T> results = new ArrayList<>();
+        IOException failure = null;
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                IOException cause = e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for shards", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    // The recipe files directly inside a directory; none if it does not exist
+    private static List<Path> listRecipeFiles(String directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        Path path = Paths.get(directory);
+        if (!Files.isDirectory(path)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, "*.json")) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        return files;
+    }
+
+    private int ownerOf(String fileName) {
+        long hash = hash(fileName);
+        // First ring point at or after the hash, wrapping around to the start
+        int low = 0;
+        int high = ringHashes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(ringHashes[mid], hash) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return ringShards[low == ringHashes.length ? 0 : low];
+    }
+
+    private static String shardId(String directory) {
+        return Paths.get(directory).normalize().toString();
+    }
+
+    // FNV-1a over the UTF-8 bytes, then the MurmurHash3 finalizer so nearby names spread evenly
+    static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,561 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The SubstitutionGraph class suggests ingredients that can stand in for another one. Suggestions
+ * come from two sources: a bundled rules file of well-known substitutions
+ * ({@code resources/substitutions.csv}), and the recipe library itself, where two ingredients that
+ * are used with the same other ingredients but rarely together (butter and margarine) are likely
+ * to be interchangeable.
+ *
+ * <p>Features:</p>
+ * - Every suggestion is computed when the graph is built and stored per ingredient, so
+ *   {@link #suggestionsFor(String)} is a map lookup and the ingredient dialogs can show
+ *   alternatives as the user types.
+ * - Library suggestions compare each ingredient's co-occurrence profile, weighted by pointwise
+ *   mutual information, with every ingredient sharing one of its strongest companions. Ingredients
+ *   that often appear together are companions rather than substitutes and are ranked down or skipped.
+ * - {@link #reduceCalories(Collection, NutrientDatabase, double)} rewrites recipes in bulk, replacing
+ *   ingredients with lower-calorie substitutes from the rules file.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * SubstitutionGraph graph = SubstitutionGraph.build(collection.getRecipes(),
+ *         SubstitutionGraph.loadRules(Paths.get(SubstitutionGraph.DEFAULT_RULES_PATH)), null);
+ * graph.suggestionsFor("unsalted butter");  // margarine, applesauce, ...
+ * }</pre>
+ *
+ * <p>Dependencies:</p>
+ * - IngredientMatcher.java
+ * - NutrientDatabase.java
+ * - Recipe.java
+ * - resources/substitutions.csv
+ *
+ * <p>Notes:</p>
+ * - Rules are listed before library suggestions. Library suggestions are only computed for
+ *   ingredients used in at least {@link #MIN_SUPPORT} recipes.
+ * - A graph is immutable once built and can be shared between threads.
+ * - Bulk rewrites use rules only: a library suggestion is a plausible alternative, not a vetted one.
+ *   They also use only rules for the exact normalized ingredient name, without the fallbacks of
+ *   {@link #suggestionsFor(String)}: "peanut butter" is not butter.
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+public class SubstitutionGraph {
+    /**
+     * Location of the bundled substitution rules, relative to the working directory like the other
+     * application resources.
+     */
+    public static final String DEFAULT_RULES_PATH = "./src/main/java/resources/substitutions.csv";
+
+    /**
+     * Recipe directory read by {@link #shared()}; the same directory the main window uses.
+     */
+    public static final String DEFAULT_RECIPE_DIRECTORY = "./src/main/java/recipes/";
+
+    /**
+     * Number of recipes an ingredient must appear in before library suggestions are made for it.
+     */
+    public static final int MIN_SUPPORT = 3;
+
+    private static final int MAX_LIBRARY_SUGGESTIONS = 5;
+    private static final double MIN_LIBRARY_SCORE = 0.2;
+    // Ingredients found together in more than this share of the rarer one's recipes are companions
+    private static final double MAX_TOGETHER = 0.2;
+    // Candidates are drawn from the ingredients sharing one of this many strongest companions
+    private static final int MAX_CONTEXTS = 32;
+
+    private static volatile CompletableFuture<SubstitutionGraph> shared;
+
+    private final Map<String, List<Substitution>> suggestions;
+    private final IngredientMatcher ingredientMatcher;
+
+    /**
+     * Where a suggestion comes from.
+     */
+    public enum Source { RULE, LIBRARY }
+
+    private SubstitutionGraph(Map<String, List<Substitution>> suggestions, IngredientMatcher ingredientMatcher) {
+        this.suggestions = suggestions;
+        this.ingredientMatcher = ingredientMatcher;
+    }
+
+    /**
+     * Returns the shared graph, built from {@link #DEFAULT_RULES_PATH} and the recipes in
+     * {@link #DEFAULT_RECIPE_DIRECTORY}. The first call starts building on a background thread;
+     * later calls return the same future. If the rules or recipes cannot be read, the error is
+     * logged and the graph is built from whatever could be read.
+     *
+     * @return A future for the shared graph.
+     */
+    public static CompletableFuture<SubstitutionGraph> shared() {
+        CompletableFuture<SubstitutionGraph> result = shared;
+        if (result == null) {
+            synchronized (SubstitutionGraph.class) {
+                result = shared;
+                if (result == null) {
+                    result = new CompletableFuture<>();
+                    shared = result;
+                    CompletableFuture<SubstitutionGraph> building = result;
+                    Thread.ofVirtual().name("substitution-graph-builder").start(() -> {
+                        List<Rule> rules = List.of();
+                        try {
+                            rules = loadRules(Paths.get(DEFAULT_RULES_PATH));
+                        } catch (IOException | IllegalArgumentException e) {
+                            System.err.println("Error loading substitution rules: " + e.getMessage());
+                        }
+                        Collection<Recipe> recipes = List.of();
+                        try {
+                            recipes = RecipeStorage.loadAllRecipes(DEFAULT_RECIPE_DIRECTORY).getRecipes();
+                        } catch (IOException e) {
+                            System.err.println("Error loading recipes for substitutions: " + e.getMessage());
+                        }
+                        try {
+                            IngredientMatcher matcher = IngredientMatcher.fromNutrientDatabase(NutrientDatabase.shared().join());
+                            building.complete(build(recipes, rules, matcher));
+                        } catch (RuntimeException e) {
+                            System.err.println("Error building substitution graph: " + e.getMessage());
+                            building.complete(build(List.of(), rules, null));
+                        }
+                    });
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Loads substitution rules from a CSV file.
+     *
+     * @param path The CSV file.
+     * @return The rules, in file order.
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If a row is malformed.
+     */
+    public static List<Rule> loadRules(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return parseRules(reader);
+        }
+    }
+
+    /**
+     * Parses substitution rules with the columns {@code ingredient,substitute,ratio,note}. Lines
+     * starting with {@code #} and the header line are skipped; the note may be empty.
+     *
+     * @param input The CSV input.
+     * @return The rules, in input order.
+     * @throws IOException If the input cannot be read.
+     * @throws IllegalArgumentException If a row is malformed.
+     */
+    public static List<Rule> parseRules(Reader input) throws IOException {
+        BufferedReader reader = input instanceof BufferedReader buffered ? buffered : new BufferedReader(input);
+        List<Rule> rules = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#") || line.startsWith("ingredient,")) {
+                continue;
+            }
+            String[] fields = line.split(",", 4); // The note may contain commas
+            if (fields.length < 3) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected at least 3 columns but found " + fields.length);
+            }
+            try {
+                double ratio = Double.parseDouble(fields[2].trim());
+                if (ratio <= 0) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": ratio must be positive: " + ratio);
+                }
+                rules.add(new Rule(IngredientMatcher.normalize(fields[0]), IngredientMatcher.normalize(fields[1]),
+                        ratio, fields.length == 4 ? fields[3].trim() : ""));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Builds a graph from substitution rules and the co-occurrence of ingredients in a set of
+     * recipes. Library suggestions for each ingredient are computed in parallel.
+     *
+     * @param recipes The recipes to learn from; may be empty.
+     * @param rules The substitution rules.
+     * @param ingredientMatcher A matcher used to reduce ingredient names to canonical names, or
+     *                          {@code null} to use names as written.
+     * @return The graph.
+     */
+    public static SubstitutionGraph build(Collection<? extends Recipe> recipes, List<Rule> rules,
+                                          IngredientMatcher ingredientMatcher) {
+        // Number the ingredient names and record each recipe as a sorted set of ingredient ids
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        List<int[]> recipeTerms = new ArrayList<>(recipes.size());
+        for (Recipe recipe : recipes) {
+            Set<Integer> terms = new LinkedHashSet<>();
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                String name = keyFor(ingredient.getName(), ingredientMatcher);
+                if (!name.isEmpty()) {
+                    terms.add(ids.computeIfAbsent(name, key -> {
+                        names.add(key);
+                        return names.size() - 1;
+                    }));
+                }
+            }
+            int[] sorted = terms.stream().mapToInt(Integer::intValue).toArray();
+            Arrays.sort(sorted);
+            recipeTerms.add(sorted);
+        }
+
+        int vocabulary = names.size();
+        int[] documentFrequency = new int[vocabulary];
+        for (int[] terms : recipeTerms) {
+            for (int term : terms) {
+                documentFrequency[term]++;
+            }
+        }
+        int[][] postings = new int[vocabulary][];
+        for (int term = 0; term < vocabulary; term++) {
+            postings[term] = new int[documentFrequency[term]];
+        }
+        int[] filled = new int[vocabulary];
+        for (int r = 0; r < recipeTerms.size(); r++) {
+            for (int term : recipeTerms.get(r)) {
+                postings[term][filled[term]++] = r;
+            }
+        }
+
+        Profile[] profiles = new Profile[vocabulary];
+        IntStream.range(0, vocabulary).parallel().forEach(term -> {
+            if (documentFrequency[term] >= MIN_SUPPORT) {
+                profiles[term] = Profile.of(term, postings[term], recipeTerms, documentFrequency, recipes.size());
+            }
+        });
+        List<List<Substitution>> library = new ArrayList<>(vocabulary);
+        for (int term = 0; term < vocabulary; term++) {
+            library.add(null);
+        }
+        IntStream.range(0, vocabulary).parallel().forEach(term -> {
+            if (profiles[term] != null) {
+                library.set(term, librarySuggestions(term, profiles, documentFrequency, names));
+            }
+        });
+
+        Map<String, List<Substitution>> suggestions = new HashMap<>();
+        for (Rule rule : rules) {
+            suggestions.computeIfAbsent(rule.ingredient(), key -> new ArrayList<>())
+                    .add(new Substitution(rule.ingredient(), rule.substitute(), 1.0, rule.ratio(), Source.RULE, rule.note()));
+        }
+        for (int term = 0; term < vocabulary; term++) {
+            List<Substitution> found = library.get(term);
+            if (found == null || found.isEmpty()) {
+                continue;
+            }
+            List<Substitution> list = suggestions.computeIfAbsent(names.get(term), key -> new ArrayList<>());
+            for (Substitution substitution : found) {
+                boolean known = list.stream().anyMatch(existing -> existing.substitute().equals(substitution.substitute()));
+                if (!known) {
+                    list.add(substitution);
+                }
+            }
+        }
+        suggestions.replaceAll((name, list) -> List.copyOf(list));
+        return new SubstitutionGraph(Map.copyOf(suggestions), ingredientMatcher);
+    }
+
+    /**
+     * Returns the substitutes for an ingredient, rules first, then library suggestions by score. If
+     * the full name has no suggestions, singular forms and the name without its leading words are
+     * tried, so "unsalted butter" gets the suggestions for "butter". These fallbacks suit a
+     * suggestion list the user picks from; they are too loose for automatic rewrites.
+     *
+     * @param ingredientName The ingredient name.
+     * @return The suggestions; empty if there are none.
+     */
+    public List<Substitution> suggestionsFor(String ingredientName) {
+        if (ingredientName == null) {
+            return List.of();
+        }
+        List<Substitution> found = suggestions.get(keyFor(ingredientName, ingredientMatcher));
+        if (found != null) {
+            return found;
+        }
+        String name = IngredientMatcher.normalize(ingredientName);
+        while (!name.isEmpty()) {
+            for (String form : NutrientDatabase.singularForms(name)) {
+                found = suggestions.get(form);
+                if (found != null) {
+                    return found;
+                }
+            }
+            int space = name.indexOf(' ');
+            name = space < 0 ? "" : name.substring(space + 1);
+        }
+        return List.of();
+    }
+
+    /**
+     * Returns the number of ingredients with at least one suggestion.
+     *
+     * @return The number of ingredients.
+     */
+    public int size() {
+        return suggestions.size();
+    }
+
+    /**
+     * Replaces ingredients with lower-calorie substitutes from the rules file. Only rules written for
+     * the ingredient's exact normalized name apply. For each ingredient, the rule saving the most
+     * calories is used if it saves at least the given fraction; calories
+     * are taken from the nutrient table for both the original and the substitute, and the quantity
+     * is scaled by the rule's ratio. Recipes are changed in place and are not saved.
+     *
+     * @param recipes The recipes to rewrite.
+     * @param nutrients The nutrient table used to compare calories.
+     * @param minSaving The smallest fraction of an ingredient's calories a substitute must save,
+     *                  from 0 to 1.
+     * @return A report of what changed.
+     */
+    public RewriteReport reduceCalories(Collection<? extends Recipe> recipes, NutrientDatabase nutrients,
+                                        double minSaving) {
+        if (minSaving < 0 || minSaving > 1) {
+            throw new IllegalArgumentException("Minimum saving must be between 0 and 1: " + minSaving);
+        }
+        List<String> changed = new ArrayList<>();
+        int replaced = 0;
+        double before = 0.0;
+        double after = 0.0;
+        for (Recipe recipe : recipes) {
+            before += recipe.getTotalRecipeCalories();
+            if (recipe instanceof LazyRecipe lazyRecipe) {
+                lazyRecipe.materialize(); // Lazy bodies are read-only until materialized
+            }
+            List<Ingredient> ingredients = recipe.getIngredients();
+            boolean recipeChanged = false;
+            for (int i = 0; i < ingredients.size(); i++) {
+                Ingredient replacement = lowerCalorieReplacement(ingredients.get(i), nutrients, minSaving);
+                if (replacement != null) {
+                    ingredients.set(i, replacement); // Keeps the recipe total current
+                    replaced++;
+                    recipeChanged = true;
+                }
+            }
+            if (recipeChanged) {
+                changed.add(recipe.getName());
+            }
+            after += recipe.getTotalRecipeCalories();
+        }
+        return new RewriteReport(List.copyOf(changed), replaced, before, after);
+    }
+
+    private Ingredient lowerCalorieReplacement(Ingredient ingredient, NutrientDatabase nutrients, double minSaving) {
+        Ingredient.Unit unit = Ingredient.fromString(ingredient.getUnit());
+        NutrientDatabase.Nutrient original = nutrients.find(ingredient.getName());
+        if (unit == null || original == null) {
+            return null;
+        }
+        double current = original.caloriesPer(unit) * ingredient.getQuantity();
+        if (!(current > 0)) {
+            return null;
+        }
+        Ingredient best = null;
+        double bestCalories = current * (1 - minSaving);
+        List<Substitution> exact = suggestions.getOrDefault(IngredientMatcher.normalize(ingredient.getName()), List.of());
+        for (Substitution substitution : exact) {
+            if (substitution.source() != Source.RULE) {
+                continue;
+            }
+            NutrientDatabase.Nutrient nutrient = nutrients.find(substitution.substitute());
+            if (nutrient == null) {
+                continue;
+            }
+            double perUnit = nutrient.caloriesPer(unit);
+            float quantity = (float) (ingredient.getQuantity() * substitution.ratio());
+            double calories = perUnit * quantity;
+            if (calories <= bestCalories) { // Also false for NaN
+                bestCalories = calories;
+                best = new Ingredient(substitution.substitute(), quantity, unit, ingredient.getPreparation(),
+                        perUnit, nutrient.caloriesPerCup());
+            }
+        }
+        return best;
+    }
+
+    private static List<Substitution> librarySuggestions(int term, Profile[] profiles, int[] documentFrequency,
+                                                         List<String> names) {
+        Profile profile = profiles[term];
+        // Candidates: ingredients that share one of this ingredient's strongest companions
+        Integer[] contexts = new Integer[profile.neighbors.length];
+        for (int i = 0; i < contexts.length; i++) {
+            contexts[i] = i;
+        }
+        Arrays.sort(contexts, (a, b) -> Float.compare(profile.weights[b], profile.weights[a]));
+        Set<Integer> candidates = new LinkedHashSet<>();
+        for (int c = 0; c < Math.min(MAX_CONTEXTS, contexts.length); c++) {
+            Profile context = profiles[profile.neighbors[contexts[c]]];
+            if (context == null) {
+                continue;
+            }
+            for (int candidate : context.neighbors) {
+                if (candidate != term && profiles[candidate] != null) {
+                    candidates.add(candidate);
+                }
+            }
+        }
+
+        List<Substitution> found = new ArrayList<>();
+        for (int candidate : candidates) {
+            Profile other = profiles[candidate];
+            // Ingredients used together are companions, not substitutes: the more often, the lower the score
+            int together = profile.countWith(candidate);
+            double complement = (double) together / Math.min(documentFrequency[term], documentFrequency[candidate]);
+            if (complement > MAX_TOGETHER) {
+                continue;
+            }
+            double score = profile.cosine(other) * (1 - complement);
+            if (score >= MIN_LIBRARY_SCORE) {
+                found.add(new Substitution(names.get(term), names.get(candidate), score, 1.0, Source.LIBRARY, ""));
+            }
+        }
+        found.sort(Comparator.comparingDouble(Substitution::score).reversed().thenComparing(Substitution::substitute));
+        return found.size() > MAX_LIBRARY_SUGGESTIONS ? found.subList(0, MAX_LIBRARY_SUGGESTIONS) : found;
+    }
+
+    private static String keyFor(String ingredientName, IngredientMatcher ingredientMatcher) {
+        return ingredientMatcher != null
+                ? IngredientMatcher.normalize(ingredientMatcher.canonicalName(ingredientName))
+                : IngredientMatcher.normalize(ingredientName);
+    }
+
+    /**
+     * The ingredients one ingredient appears with, sorted by id, with how often and how strongly.
+     */
+    private static final class Profile {
+        private final int[] neighbors;
+        private final int[] counts;
+        private final float[] weights;
+        private final double norm;
+
+        private Profile(int[] neighbors, int[] counts, float[] weights) {
+            this.neighbors = neighbors;
+            this.counts = counts;
+            this.weights = weights;
+            double sum = 0.0;
+            for (float weight : weights) {
+                sum += weight * weight;
+            }
+            this.norm = Math.sqrt(sum);
+        }
+
+        static Profile of(int term, int[] recipes, List<int[]> recipeTerms, int[] documentFrequency, int recipeCount) {
+            Map<Integer, int[]> together = new HashMap<>();
+            for (int recipe : recipes) {
+                for (int other : recipeTerms.get(recipe)) {
+                    if (other != term && documentFrequency[other] >= MIN_SUPPORT) {
+                        together.computeIfAbsent(other, key -> new int[1])[0]++;
+                    }
+                }
+            }
+            int[] neighbors = together.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            int[] counts = new int[neighbors.length];
+            float[] weights = new float[neighbors.length];
+            for (int i = 0; i < neighbors.length; i++) {
+                counts[i] = together.get(neighbors[i])[0];
+                // Positive pointwise mutual information: how much more often than by chance
+                double pmi = Math.log((double) counts[i] * recipeCount
+                        / ((double) documentFrequency[term] * documentFrequency[neighbors[i]]));
+                weights[i] = (float) Math.max(0.0, pmi);
+            }
+            return new Profile(neighbors, counts, weights);
+        }
+
+        int countWith(int other) {
+            int index = Arrays.binarySearch(neighbors, other);
+            return index >= 0 ? counts[index] : 0;
+        }
+
+        double cosine(Profile other) {
+            if (norm == 0 || other.norm == 0) {
+                return 0.0;
+            }
+            double dot = 0.0;
+            int i = 0;
+            int j = 0;
+            while (i < neighbors.length && j < other.neighbors.length) {
+                if (neighbors[i] < other.neighbors[j]) {
+                    i++;
+                } else if (neighbors[i] > other.neighbors[j]) {
+                    j++;
+                } else {
+                    dot += weights[i++] * other.weights[j++];
+                }
+            }
+            return dot / (norm * other.norm);
+        }
+    }
+
+    /**
+     * One rule from the rules file.
+     *
+     * @param ingredient The normalized ingredient name.
+     * @param substitute The normalized name of the substitute.
+     * @param ratio The amount of substitute per unit of the ingredient.
+     * @param note Advice for using the substitute; may be empty.
+     */
+    public record Rule(String ingredient, String substitute, double ratio, String note) {
+    }
+
+    /**
+     * A suggested substitute.
+     *
+     * @param ingredient The ingredient being replaced.
+     * @param substitute The suggested substitute.
+     * @param score 1 for rules; for library suggestions, the similarity of the two ingredients' uses.
+     * @param ratio The amount of substitute per unit of the ingredient.
+     * @param source Whether the suggestion comes from the rules file or the library.
+     * @param note Advice for using the substitute; may be empty.
+     */
+    public record Substitution(String ingredient, String substitute, double score, double ratio, Source source,
+                               String note) {
+        @Override
+        public String toString() {
+            String amount = ratio == 1.0 ? "" : " (x" + ratio + ")";
+            return substitute + amount + (note.isEmpty() ? "" : " - " + note);
+        }
+    }
+
+    /**
+     * The result of {@link #reduceCalories(Collection, NutrientDatabase, double)}.
+     *
+     * @param changedRecipes The names of the recipes that changed.
+     * @param ingredientsReplaced The number of ingredients replaced.
+     * @param caloriesBefore The total calories of all recipes before the rewrite.
+     * @param caloriesAfter The total calories of all recipes after the rewrite.
+     */
+    public record RewriteReport(List<String> changedRecipes, int ingredientsReplaced, double caloriesBefore,
+                                double caloriesAfter) {
+    }
+}
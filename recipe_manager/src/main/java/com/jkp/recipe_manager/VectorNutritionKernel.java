@@ -0,0 +1,142 @@
+/**
+ * Package: com.jkp.recipe_manager
+ *
+ * The VectorNutritionKernel class implements the {@link NutritionAggregator} array loops with the
+ * {@code jdk.incubator.vector} API, processing as many doubles per instruction as the CPU's
+ * preferred vector width allows. It is only loaded when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}; {@link NutritionAggregator} checks for the module
+ * first and uses its scalar loops otherwise.
+ *
+ * <p>Dependencies:</p>
+ * - NutritionAggregator.java
+ * - jdk.incubator.vector
+ *
+ * @author  Jon-Kayla Pointer
+ * @version 1.0.0
+ */
+
+
+package com.jkp.recipe_manager;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+final class VectorNutritionKernel implements NutritionAggregator.Kernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int MIN_VECTOR_RUN = 4 * SPECIES.length();
+
+    @Override
+    public double dot(double[] a, double[] b, int from, int to) {
+        int i = from;
+        double sum = 0.0;
+        // Most recipes have only a handful of ingredients, where a lane reduction costs more than it saves
+        int upper = to - from < MIN_VECTOR_RUN ? from : from + SPECIES.loopBound(to - from);
+        if (upper > from) {
+            DoubleVector acc = DoubleVector.zero(SPECIES);
+            for (; i < upper; i += SPECIES.length()) {
+                acc = DoubleVector.fromArray(SPECIES, a, i).fma(DoubleVector.fromArray(SPECIES, b, i), acc);
+            }
+            sum = acc.reduceLanes(VectorOperators.ADD);
+        }
+        for (; i < to; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void divide(double[] numerators, double[] denominators, double[] out, int from, int to) {
+        int i = from;
+        int upper = from + SPECIES.loopBound(to - from);
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector denominator = DoubleVector.fromArray(SPECIES, denominators, i);
+            VectorMask<Double> invalid = denominator.compare(VectorOperators.LE, 0.0);
+            DoubleVector.fromArray(SPECIES, numerators, i).div(denominator).blend(0.0, invalid).intoArray(out, i);
+        }
+        for (; i < to; i++) {
+            out[i] = denominators[i] > 0 ? numerators[i] / denominators[i] : 0.0;
+        }
+    }
+
+    @Override
+    public double sum(double[] values, int length) {
+        int i = 0;
+        double sum = 0.0;
+        int upper = SPECIES.loopBound(length);
+        if (upper > 0) {
+            DoubleVector acc = DoubleVector.zero(SPECIES);
+            for (; i < upper; i += SPECIES.length()) {
+                acc = acc.add(DoubleVector.fromArray(SPECIES, values, i));
+            }
+            sum = acc.reduceLanes(VectorOperators.ADD);
+        }
+        for (; i < length; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double min(double[] values, int length) {
+        if (length == 0) {
+            return 0.0;
+        }
+        int i = 0;
+        double min = Double.POSITIVE_INFINITY;
+        int upper = SPECIES.loopBound(length);
+        if (upper > 0) {
+            DoubleVector acc = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+            for (; i < upper; i += SPECIES.length()) {
+                acc = acc.min(DoubleVector.fromArray(SPECIES, values, i));
+            }
+            min = acc.reduceLanes(VectorOperators.MIN);
+        }
+        for (; i < length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double max(double[] values, int length) {
+        if (length == 0) {
+            return 0.0;
+        }
+        int i = 0;
+        double max = Double.NEGATIVE_INFINITY;
+        int upper = SPECIES.loopBound(length);
+        if (upper > 0) {
+            DoubleVector acc = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+            for (; i < upper; i += SPECIES.length()) {
+                acc = acc.max(DoubleVector.fromArray(SPECIES, values, i));
+            }
+            max = acc.reduceLanes(VectorOperators.MAX);
+        }
+        for (; i < length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public void histogram(double[] values, int length, double low, double binWidth, long[] counts) {
+        // Bin indexes are computed a vector at a time; the increments themselves stay scalar
+        double lastBin = counts.length - 1;
+        double scale = 1.0 / binWidth;
+        double[] bins = new double[SPECIES.length()];
+        int i = 0;
+        int upper = SPECIES.loopBound(length);
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, values, i).sub(low).mul(scale).max(0.0).min(lastBin).intoArray(bins, 0);
+            for (double bin : bins) {
+                counts[(int) bin]++;
+            }
+        }
+        for (; i < length; i++) {
+            double bin = Math.min(Math.max((values[i] - low) * scale, 0.0), lastBin);
+            counts[(int) bin]++;
+        }
+    }
+}